@@ -0,0 +1,197 @@
+package example.tinypdg.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import example.tinypdg.ast.SourceParser;
+import example.tinypdg.cfg.node.CFGNodeFactory;
+import example.tinypdg.pdg.PDG;
+import example.tinypdg.pdg.node.PDGNodeFactory;
+import example.tinypdg.pe.MethodInfo;
+
+/**
+ * Methods given to the benchmarks. "corpus" stands for the methods of the
+ * sample inputs under src/test/java (or the directory given with the
+ * system property "tinypdg.corpus"), and "synthetic" for two generated
+ * methods with the given number of statements each.
+ */
+@State(Scope.Benchmark)
+public class BenchmarkInput {
+
+	@Param({ "corpus", "synthetic" })
+	public String input;
+
+	@Param({ "500" })
+	public int statements;
+
+	protected List<MethodInfo> methods;
+
+	@Setup(Level.Trial)
+	public void setUpInput() throws IOException, InterruptedException {
+		if ("corpus".equals(this.input)) {
+			final File directory = new File(System.getProperty(
+					"tinypdg.corpus", "src/test/java"));
+			this.methods = parse(getFiles(directory));
+		} else if ("synthetic".equals(this.input)) {
+			final File file = File.createTempFile("Synthetic", ".java");
+			try {
+				Files.write(file.toPath(), generateSource(this.statements, 2)
+						.getBytes(StandardCharsets.UTF_8));
+				this.methods = parse(Collections.singletonList(file));
+			} finally {
+				file.delete();
+			}
+		} else {
+			throw new IllegalArgumentException("unknown input: " + this.input);
+		}
+		if (this.methods.isEmpty()) {
+			throw new IllegalStateException("no methods in " + this.input);
+		}
+	}
+
+	protected List<PDG> buildPDGs(final boolean useOfControl,
+			final boolean useOfData, final boolean useOfExecution) {
+		return this.buildPDGs(useOfControl, useOfData, useOfExecution, true);
+	}
+
+	protected List<PDG> buildPDGs(final boolean useOfControl,
+			final boolean useOfData, final boolean useOfExecution,
+			final boolean useReachingDefinitions) {
+		final CFGNodeFactory cfgNodeFactory = new CFGNodeFactory();
+		final PDGNodeFactory pdgNodeFactory = new PDGNodeFactory();
+		final List<PDG> pdgs = new ArrayList<PDG>();
+		for (final MethodInfo method : this.methods) {
+			final PDG pdg = new PDG(method, pdgNodeFactory, cfgNodeFactory,
+					useOfControl, useOfData, useOfExecution, Integer.MAX_VALUE,
+					Integer.MAX_VALUE, Integer.MAX_VALUE,
+					useReachingDefinitions);
+			pdg.build();
+			pdgs.add(pdg);
+		}
+		return pdgs;
+	}
+
+	private static List<MethodInfo> parse(final List<File> files)
+			throws InterruptedException {
+		return new SourceParser(1).parse(files);
+	}
+
+	private static List<File> getFiles(final File file) {
+		final List<File> files = new ArrayList<File>();
+		if (file.isFile()) {
+			if (file.getName().endsWith(".java")) {
+				files.add(file);
+			}
+		} else if (file.isDirectory()) {
+			final File[] children = file.listFiles();
+			Arrays.sort(children);
+			for (final File child : children) {
+				files.addAll(getFiles(child));
+			}
+		}
+		return files;
+	}
+
+	/**
+	 * Generates a class with methods made of assignments, conditionals, loops
+	 * and calls over a small set of variables, so that the methods have long
+	 * data dependence chains and many similar statements.
+	 */
+	static String generateSource(final int statements,
+			final int numberOfMethods) {
+		final StringBuilder text = new StringBuilder();
+		text.append("public class Synthetic {\n");
+		for (int method = 0; method < numberOfMethods; method++) {
+			generateMethod(text, method, statements, new Random(method));
+		}
+		text.append("}\n");
+		return text.toString();
+	}
+
+	private static void generateMethod(final StringBuilder text,
+			final int method, final int statements, final Random random) {
+
+		text.append("\tpublic int run").append(method)
+				.append("(int a, int b) {\n");
+		text.append("\t\tint c = a + b;\n");
+		text.append("\t\tint d = a - b;\n");
+		text.append("\t\tStringBuilder e = new StringBuilder();\n");
+
+		final String[] variables = { "a", "b", "c", "d" };
+		int depth = 0;
+		for (int i = 0; i < statements; i++) {
+			final String x = variables[random.nextInt(variables.length)];
+			final String y = variables[random.nextInt(variables.length)];
+			final String z = variables[random.nextInt(variables.length)];
+			indent(text, depth + 2);
+			switch (random.nextInt(8)) {
+			case 0:
+				if (depth < 6) {
+					text.append("if (").append(x).append(" < ").append(y)
+							.append(") {\n");
+					depth++;
+					continue;
+				}
+				text.append(x).append(" = ").append(y).append(" * ")
+						.append(z).append(";\n");
+				break;
+			case 1:
+				if (depth < 6) {
+					text.append("for (int i").append(i).append(" = 0; i")
+							.append(i).append(" < ").append(x).append("; i")
+							.append(i).append("++) {\n");
+					depth++;
+					continue;
+				}
+				text.append(x).append(" += ").append(y).append(";\n");
+				break;
+			case 2:
+				if (0 < depth) {
+					text.append("}\n");
+					depth--;
+					continue;
+				}
+				text.append(x).append(" -= ").append(y).append(";\n");
+				break;
+			case 3:
+				text.append("e.append(").append(x).append(").append(\"")
+						.append(i % 16).append("\");\n");
+				break;
+			case 4:
+				text.append(x).append(" = Math.max(").append(y).append(", ")
+						.append(z).append(");\n");
+				break;
+			default:
+				text.append(x).append(" = ").append(y).append(" + ")
+						.append(z).append(" + ").append(i % 16).append(";\n");
+				break;
+			}
+		}
+		for (; 0 < depth; depth--) {
+			indent(text, depth + 1);
+			text.append("}\n");
+		}
+
+		text.append("\t\treturn a + b + c + d + e.length();\n");
+		text.append("\t}\n");
+	}
+
+	private static void indent(final StringBuilder text, final int depth) {
+		for (int i = 0; i < depth; i++) {
+			text.append('\t');
+		}
+	}
+}
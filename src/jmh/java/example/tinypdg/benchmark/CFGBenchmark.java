@@ -0,0 +1,34 @@
+package example.tinypdg.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import example.tinypdg.cfg.CFG;
+import example.tinypdg.cfg.node.CFGNodeFactory;
+import example.tinypdg.pe.MethodInfo;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class CFGBenchmark extends BenchmarkInput {
+
+	@Benchmark
+	public void build(final Blackhole blackhole) {
+		final CFGNodeFactory nodeFactory = new CFGNodeFactory();
+		for (final MethodInfo method : this.methods) {
+			final CFG cfg = new CFG(method, nodeFactory);
+			cfg.build();
+			blackhole.consume(cfg);
+		}
+	}
+}
@@ -0,0 +1,58 @@
+package example.tinypdg.benchmark;
+
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import example.tinypdg.pdg.PDG;
+import example.tinypdg.pdg.edge.PDGEdge;
+import example.tinypdg.pdg.node.PDGNode;
+import example.tinypdg.scorpio.HashBucketTable;
+import example.tinypdg.scorpio.HashCalculationThread;
+import example.tinypdg.scorpio.NormalizedTextCache;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class HashCalculationBenchmark extends BenchmarkInput {
+
+	private List<PDG> pdgs;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		this.pdgs = this.buildPDGs(true, true, true);
+		for (final PDG pdg : this.pdgs) {
+			pdg.freeze();
+		}
+	}
+
+	// a fresh text cache per invocation includes the normalization cost that
+	// a real run pays once per program element
+	@Benchmark
+	public void calculate(final Blackhole blackhole) {
+		final SortedMap<PDG, HashBucketTable<PDGNode<?>>> mappingPDGToPDGNodes = new TreeMap<PDG, HashBucketTable<PDGNode<?>>>();
+		final SortedMap<PDG, HashBucketTable<PDGEdge>> mappingPDGToPDGEdges = new TreeMap<PDG, HashBucketTable<PDGEdge>>();
+		final HashCalculationThread calculation = new HashCalculationThread(
+				mappingPDGToPDGNodes, mappingPDGToPDGEdges,
+				new NormalizedTextCache());
+		for (final PDG pdg : this.pdgs) {
+			calculation.calculate(pdg);
+		}
+		blackhole.consume(mappingPDGToPDGNodes);
+		blackhole.consume(mappingPDGToPDGEdges);
+	}
+}
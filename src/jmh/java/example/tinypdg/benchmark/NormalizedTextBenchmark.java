@@ -0,0 +1,49 @@
+package example.tinypdg.benchmark;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import example.tinypdg.pdg.PDG;
+import example.tinypdg.pdg.node.PDGNode;
+import example.tinypdg.scorpio.NormalizedText;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class NormalizedTextBenchmark extends BenchmarkInput {
+
+	// texts of all PDG nodes with the marked identifiers not yet numbered
+	private List<String> texts;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException, InterruptedException {
+		this.texts = new ArrayList<String>();
+		for (final PDG pdg : this.buildPDGs(true, true, true)) {
+			for (final PDGNode<?> node : pdg.getAllNodes()) {
+				this.texts.add(new NormalizedText(node.core).getText());
+			}
+		}
+	}
+
+	@Benchmark
+	public void normalize(final Blackhole blackhole) {
+		for (final String text : this.texts) {
+			blackhole.consume(NormalizedText.normalize(text));
+		}
+	}
+}
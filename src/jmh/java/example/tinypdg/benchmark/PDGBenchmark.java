@@ -0,0 +1,39 @@
+package example.tinypdg.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class PDGBenchmark extends BenchmarkInput {
+
+	@Param({ "true", "false" })
+	public boolean control;
+
+	@Param({ "true", "false" })
+	public boolean data;
+
+	@Param({ "true", "false" })
+	public boolean execution;
+
+	@Param({ "true", "false" })
+	public boolean reachingDefinitions;
+
+	@Benchmark
+	public void build(final Blackhole blackhole) {
+		blackhole.consume(this.buildPDGs(this.control, this.data,
+				this.execution, this.reachingDefinitions));
+	}
+}
@@ -0,0 +1,44 @@
+package example.tinypdg.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import example.tinypdg.pdg.PDG;
+import example.tinypdg.scorpio.NormalizedTextCache;
+import example.tinypdg.scorpio.pdg.PDGMergedNode;
+
+// merging modifies the PDGs, so they are rebuilt before every invocation
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 10)
+@Measurement(iterations = 20)
+public class PDGMergedNodeBenchmark extends BenchmarkInput {
+
+	private List<PDG> pdgs;
+
+	@Setup(Level.Invocation)
+	public void setUp() {
+		this.pdgs = this.buildPDGs(true, true, true);
+	}
+
+	@Benchmark
+	public void mergeNodes(final Blackhole blackhole) {
+		final NormalizedTextCache texts = new NormalizedTextCache();
+		for (final PDG pdg : this.pdgs) {
+			PDGMergedNode.mergeNodes(pdg, texts);
+			blackhole.consume(pdg);
+		}
+	}
+}
@@ -0,0 +1,110 @@
+package example.tinypdg.benchmark;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import example.tinypdg.pdg.PDG;
+import example.tinypdg.pdg.edge.PDGEdge;
+import example.tinypdg.pdg.node.PDGNode;
+import example.tinypdg.scorpio.HashBucketTable;
+import example.tinypdg.scorpio.HashCalculationThread;
+import example.tinypdg.scorpio.NormalizedTextCache;
+import example.tinypdg.scorpio.SlicingThread;
+import example.tinypdg.scorpio.StreamingEdgeHashIndex;
+import example.tinypdg.scorpio.data.PDGPairInfo;
+import example.tinypdg.scorpio.io.ClonePairSpool;
+
+/**
+ * Slicing of the PDG pairs Scorpio would compare with the default sharing
+ * threshold, and of every PDG with itself. Slicing goes through
+ * {@link SlicingThread}, which sets up the equivalence graphs of a pair and
+ * performs a slice from every matching pair of edges.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class SlicingBenchmark extends BenchmarkInput {
+
+	@Param({ "3" })
+	public int size;
+
+	private List<PDG> pdgs;
+	private List<PDGPairInfo> pairs;
+	private SortedMap<PDG, HashBucketTable<PDGNode<?>>> mappingPDGToPDGNodes;
+	private SortedMap<PDG, HashBucketTable<PDGEdge>> mappingPDGToPDGEdges;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+
+		this.pdgs = new ArrayList<PDG>();
+		for (final PDG pdg : this.buildPDGs(true, true, true)) {
+			if (this.size <= pdg.getAllNodes().size()) {
+				pdg.freeze();
+				this.pdgs.add(pdg);
+			}
+		}
+
+		this.mappingPDGToPDGNodes = new TreeMap<PDG, HashBucketTable<PDGNode<?>>>();
+		this.mappingPDGToPDGEdges = new TreeMap<PDG, HashBucketTable<PDGEdge>>();
+		final HashCalculationThread calculation = new HashCalculationThread(
+				this.mappingPDGToPDGNodes, this.mappingPDGToPDGEdges,
+				new NormalizedTextCache());
+		for (final PDG pdg : this.pdgs) {
+			calculation.calculate(pdg);
+		}
+
+		this.pairs = new ArrayList<PDGPairInfo>();
+		final StreamingEdgeHashIndex index = new StreamingEdgeHashIndex();
+		for (final PDG pdg : this.pdgs) {
+			for (final int candidate : index.add(this.mappingPDGToPDGEdges
+					.get(pdg).getHashes(), 1)) {
+				this.pairs.add(new PDGPairInfo(this.pdgs.get(candidate), pdg));
+			}
+		}
+	}
+
+	@Benchmark
+	public void slicePairs(final Blackhole blackhole) {
+		final SlicingThread slicing = this.createSlicing();
+		for (final PDGPairInfo pair : this.pairs) {
+			slicing.process(pair.left, pair.right);
+		}
+		blackhole.consume(slicing);
+	}
+
+	@Benchmark
+	public void sliceWithin(final Blackhole blackhole) {
+		final SlicingThread slicing = this.createSlicing();
+		for (final PDG pdg : this.pdgs) {
+			slicing.process(pdg);
+		}
+		blackhole.consume(slicing);
+	}
+
+	private SlicingThread createSlicing() {
+		// clone pairs are kept in memory, so that the benchmark does not
+		// measure disk writes
+		final ClonePairSpool spool = new ClonePairSpool(new File(
+				System.getProperty("java.io.tmpdir")), Integer.MAX_VALUE);
+		return new SlicingThread(this.mappingPDGToPDGNodes,
+				this.mappingPDGToPDGEdges, spool, this.size);
+	}
+}
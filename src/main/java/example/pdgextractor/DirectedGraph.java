@@ -41,6 +41,14 @@ public class DirectedGraph {
         }
     }
 
+    public int getNumberOfNodes() {
+        return idToObject.size();
+    }
+
+    public int getNumberOfEdges() {
+        return edgeAnnotations.size();
+    }
+
     public Object getRootNode() {
         return idToObject.get(0);
     }
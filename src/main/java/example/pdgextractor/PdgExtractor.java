@@ -15,6 +15,7 @@ import com.github.javaparser.symbolsolver.javaparsermodel.declarations.JavaParse
 import com.github.javaparser.symbolsolver.reflectionmodel.ReflectionMethodDeclaration;
 import com.github.javaparser.symbolsolver.resolution.typesolvers.CombinedTypeSolver;
 import com.github.javaparser.symbolsolver.resolution.typesolvers.ReflectionTypeSolver;
+import example.tinypdg.metrics.Metrics;
 
 import java.io.File;
 import java.io.IOException;
@@ -32,6 +33,11 @@ public class PdgExtractor {
     private final CompilationUnit compilationUnit;
     private final CombinedTypeSolver typeSolver;
     private final DirectedGraph pdg = new DirectedGraph();
+    private int numberOfMethods = 0;
+    // all methods of a compilation unit share one graph, so the size of a
+    // method's PDG is what extracting the method added to the graph
+    private final List<Integer> numbersOfMethodNodes = new ArrayList<>();
+    private final List<Integer> numbersOfMethodEdges = new ArrayList<>();
 
     public PdgExtractor(CompilationUnit compilationUnit, CombinedTypeSolver typeSolver) {
         this.compilationUnit = compilationUnit;
@@ -61,14 +67,19 @@ public class PdgExtractor {
     public void extract() {
         JavaParserFacade javaParserFacade = JavaParserFacade.get(typeSolver);
         List<SimpleEntry<BlockStmt, ResolvedMethodDeclaration>> list = allMethodDeclarationBodies();
+        numberOfMethods += list.size();
         for (SimpleEntry<BlockStmt, ResolvedMethodDeclaration> tuple : list) {
             logger.info("Extracting control flow for " + tuple.getValue().getName() + "...");
+            int nodes = pdg.getNumberOfNodes();
+            int edges = pdg.getNumberOfEdges();
             ControlFlowGraph controlFlowGraph = new ControlFlowGraph(pdg, tuple.getValue());
             controlFlowGraph.addMethodDeclaration(tuple.getKey(), tuple.getValue());
             logger.info("Extracting method calls for " + tuple.getValue().getName() + "...");
             new MethodCallGraph(pdg, javaParserFacade).visit(tuple.getKey(), null);
             DataFlowGraph dataFlowGraph = new DataFlowGraph(pdg, javaParserFacade);
             dataFlowGraph.visit(tuple.getKey(), null);
+            numbersOfMethodNodes.add(pdg.getNumberOfNodes() - nodes);
+            numbersOfMethodEdges.add(pdg.getNumberOfEdges() - edges);
         }
     }
 
@@ -97,6 +108,18 @@ public class PdgExtractor {
         return pdg;
     }
 
+    public int getNumberOfMethods() {
+        return numberOfMethods;
+    }
+
+    public List<Integer> getNumbersOfMethodNodes() {
+        return Collections.unmodifiableList(numbersOfMethodNodes);
+    }
+
+    public List<Integer> getNumbersOfMethodEdges() {
+        return Collections.unmodifiableList(numbersOfMethodEdges);
+    }
+
     public static String dotNodeSpan(Object node) {
         if (node instanceof MethodEntryNode) {
             return ((MethodEntryNode) node).toSpan();
@@ -162,33 +185,51 @@ public class PdgExtractor {
     }
 
     public static void main(String[] args) throws IOException {
-        if (args.length != 2) {
-            System.out.println("Usage <projectFolder> <outputDotFile>");
+        if (args.length != 2 && args.length != 3) {
+            System.out.println("Usage <projectFolder> <outputDotFile> [<metricsJsonFile>]");
         } else {
             logger.info("Extracting PDG from project " + args[0] + " and exporting to " + args[1] + "...");
+            Metrics metrics = new Metrics("PdgExtractor");
+            Metrics.Phase compiling = metrics.startPhase("compiling");
             List<SimpleEntry<CompilationUnit, CombinedTypeSolver>> compilationUnits = compile(args[0]);
+            compiling.end();
             if (compilationUnits.isEmpty()) {
                 logger.severe("Compilation failed");
                 return;
             }
             logger.info("Compilation successful");
+            metrics.set("compilationUnits", compilationUnits.size());
 
             for (SimpleEntry<CompilationUnit, CombinedTypeSolver> entry : compilationUnits) {
                 PdgExtractor pdgExtractor = new PdgExtractor(entry.getKey(), entry.getValue());
                 logger.info("Extracting PDG...");
+                Metrics.Phase extracting = metrics.startPhase("extracting PDGs");
                 pdgExtractor.extract();
+                extracting.end();
+                metrics.add("methods", pdgExtractor.getNumberOfMethods());
+                pdgExtractor.getNumbersOfMethodNodes().forEach(n -> metrics.record("pdgNodes", n));
+                pdgExtractor.getNumbersOfMethodEdges().forEach(n -> metrics.record("pdgEdges", n));
                 logger.info("Exporting PDG to " + args[1]);
+                Metrics.Phase exporting = metrics.startPhase("exporting PDGs");
                 pdgExtractor.exportToDot(args[1]);
+                exporting.end();
                 logger.info("PDG exported to " + args[1]);
                 logger.info("Extracting type constraints...");
+                Metrics.Phase collecting = metrics.startPhase("collecting type constraints");
                 JavaParserFacade javaParserFacade = JavaParserFacade.get(entry.getValue());
                 TypeConstraints typeConstraints = new TypeConstraints();
                 logger.info("Collecting type constraints...");
                 typeConstraints.collectForSingleFile(entry.getKey(), javaParserFacade);
                 logger.info("Exporting type constraints to nameflows.json");
                 typeConstraints.toJson("nameflows.json");
+                collecting.end();
                 logger.info("Type constraints exported to nameflows.json");
             }
+
+            if (args.length == 3) {
+                logger.info("Exporting metrics to " + args[2]);
+                metrics.write(new File(args[2]));
+            }
         }
     }
 }
@@ -0,0 +1,292 @@
+package example.tinypdg.ast;
+
+import java.io.File;
+import java.nio.charset.Charset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.FileASTRequestor;
+
+import example.tinypdg.pe.MethodInfo;
+import example.tinypdg.pe.ProgramElementInfo;
+
+/**
+ * Front-end turning source files into {@link MethodInfo}s. JDT parsing is
+ * spread over worker threads, while the parsed units are visited on the
+ * calling thread in file order. Element IDs are therefore assigned exactly
+ * as in a sequential loop, and methods come out in file order.
+ */
+public class SourceParser {
+
+	public interface Handler {
+		void handle(File file, List<MethodInfo> methods)
+				throws InterruptedException;
+	}
+
+	/**
+	 * Gives the ID of the first element of a file. It is asked right before
+	 * the file is visited, after the previous file has been handled.
+	 */
+	public interface Numbering {
+		int getFirstID(File file);
+	}
+
+	// number of files parsed ahead of the visiting thread per worker, which
+	// bounds the number of ASTs held in memory
+	final static private int LOOKAHEAD = 4;
+
+	// name standing for the detection of Japanese and Unicode encodings,
+	// which is much slower than decoding a known charset
+	final static public String AUTO_DETECTION = "auto";
+
+	// number of files given to a single createASTs request in batch mode
+	// with multiple threads
+	final static private int BATCH_SIZE = 32;
+
+	final private int numberOfThreads;
+	final private Charset charset;
+	final private boolean batch;
+
+	public SourceParser(final int numberOfThreads) {
+		this(numberOfThreads, TinyPDGASTVisitor.DEFAULT_CHARSET);
+	}
+
+	public SourceParser(final int numberOfThreads, final Charset charset) {
+		this(numberOfThreads, charset, false);
+	}
+
+	/**
+	 * @param batch
+	 *            whether files are parsed with JDT's batch API instead of one
+	 *            parser call per file. The batch API always recovers the
+	 *            statements of method bodies with syntax errors, which the
+	 *            per-file parsing drops.
+	 */
+	public SourceParser(final int numberOfThreads, final Charset charset,
+			final boolean batch) {
+		assert 0 < numberOfThreads : "\"numberOfThreads\" must be greater than 0.";
+		assert null != charset : "\"charset\" is null.";
+		this.numberOfThreads = numberOfThreads;
+		this.charset = charset;
+		this.batch = batch;
+	}
+
+	public static Charset getCharset(final String name) {
+		return AUTO_DETECTION.equals(name) ? Charset.forName("JISAutoDetect")
+				: Charset.forName(name);
+	}
+
+	public List<MethodInfo> parse(final List<File> files)
+			throws InterruptedException {
+		final List<MethodInfo> methods = new ArrayList<MethodInfo>();
+		this.parse(files, new Handler() {
+
+			@Override
+			public void handle(final File file, final List<MethodInfo> m) {
+				methods.addAll(m);
+			}
+		});
+		return methods;
+	}
+
+	public void parse(final List<File> files, final Handler handler)
+			throws InterruptedException {
+		this.parse(files, null, handler);
+	}
+
+	/**
+	 * @param numbering
+	 *            gives the IDs of the first elements of the files, or
+	 *            <code>null</code> to number the files one after another
+	 */
+	public void parse(final List<File> files, final Numbering numbering,
+			final Handler handler) throws InterruptedException {
+
+		assert null != files : "\"files\" is null.";
+		assert null != handler : "\"handler\" is null.";
+
+		if (this.batch) {
+			this.parseInBatches(files, numbering, handler);
+			return;
+		}
+
+		if (1 == this.numberOfThreads) {
+			for (final File file : files) {
+				visit(file, TinyPDGASTVisitor.createAST(file, this.charset),
+						numbering, handler);
+			}
+			return;
+		}
+
+		final ExecutorService pool = this.createPool();
+		try {
+			final Deque<Future<CompilationUnit>> units = new ArrayDeque<Future<CompilationUnit>>();
+			int submitted = 0;
+			for (final File file : files) {
+				while ((submitted < files.size())
+						&& (units.size() < this.numberOfThreads * LOOKAHEAD)) {
+					final File next = files.get(submitted++);
+					units.add(pool.submit(new Callable<CompilationUnit>() {
+
+						@Override
+						public CompilationUnit call() {
+							return TinyPDGASTVisitor.createAST(next,
+									SourceParser.this.charset);
+						}
+					}));
+				}
+				visit(file, get(units.poll()), numbering, handler);
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	// with a single thread every unit is visited as soon as JDT delivers it.
+	// otherwise workers parse consecutive batches of files, which are visited
+	// batch by batch in file order.
+	private void parseInBatches(final List<File> files,
+			final Numbering numbering, final Handler handler)
+			throws InterruptedException {
+
+		if (1 == this.numberOfThreads) {
+			final Map<String, Integer> indices = getIndices(files);
+			final IProgressMonitor monitor = new NullProgressMonitor();
+			final InterruptedException[] interruption = new InterruptedException[1];
+			try {
+				TinyPDGASTVisitor.createASTs(files, this.charset,
+						new FileASTRequestor() {
+
+							@Override
+							public void acceptAST(final String path,
+									final CompilationUnit unit) {
+								if (monitor.isCanceled()) {
+									return;
+								}
+								try {
+									visit(files.get(indices.get(path)), unit,
+											numbering, handler);
+								} catch (final InterruptedException e) {
+									interruption[0] = e;
+									monitor.setCanceled(true);
+								}
+							}
+						}, monitor);
+			} catch (final OperationCanceledException e) {
+			}
+			if (null != interruption[0]) {
+				throw interruption[0];
+			}
+			return;
+		}
+
+		final ExecutorService pool = this.createPool();
+		try {
+			final Deque<Future<CompilationUnit[]>> batches = new ArrayDeque<Future<CompilationUnit[]>>();
+			int submitted = 0;
+			for (int visited = 0; visited < files.size(); visited += BATCH_SIZE) {
+				while ((submitted < files.size())
+						&& (batches.size() < this.numberOfThreads * 2)) {
+					final List<File> batch = files.subList(submitted,
+							Math.min(files.size(), submitted + BATCH_SIZE));
+					submitted += batch.size();
+					batches.add(pool.submit(new Callable<CompilationUnit[]>() {
+
+						@Override
+						public CompilationUnit[] call() {
+							final Map<String, Integer> indices = getIndices(batch);
+							final CompilationUnit[] units = new CompilationUnit[batch
+									.size()];
+							TinyPDGASTVisitor.createASTs(batch,
+									SourceParser.this.charset,
+									new FileASTRequestor() {
+
+										@Override
+										public void acceptAST(
+												final String path,
+												final CompilationUnit unit) {
+											units[indices.get(path)] = unit;
+										}
+									}, null);
+							return units;
+						}
+					}));
+				}
+
+				final CompilationUnit[] units = get(batches.poll());
+				for (int index = 0; index < units.length; index++) {
+					if (null != units[index]) {
+						visit(files.get(visited + index), units[index],
+								numbering, handler);
+						units[index] = null;
+					}
+				}
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	private ExecutorService createPool() {
+		return Executors.newFixedThreadPool(this.numberOfThreads,
+				new ThreadFactory() {
+
+					@Override
+					public Thread newThread(final Runnable runnable) {
+						final Thread thread = new Thread(runnable);
+						thread.setDaemon(true);
+						return thread;
+					}
+				});
+	}
+
+	private static Map<String, Integer> getIndices(final List<File> files) {
+		final Map<String, Integer> indices = new HashMap<String, Integer>();
+		for (int index = 0; index < files.size(); index++) {
+			indices.put(files.get(index).getAbsolutePath(), index);
+		}
+		return indices;
+	}
+
+	private static void visit(final File file, final CompilationUnit unit,
+			final Numbering numbering, final Handler handler)
+			throws InterruptedException {
+		if (null != numbering) {
+			ProgramElementInfo.setNextID(numbering.getFirstID(file));
+		}
+		final List<MethodInfo> methods = new ArrayList<MethodInfo>();
+		final TinyPDGASTVisitor visitor = new TinyPDGASTVisitor(
+				file.getAbsolutePath(), unit, methods);
+		unit.accept(visitor);
+		handler.handle(file, methods);
+	}
+
+	private static <T> T get(final Future<T> future)
+			throws InterruptedException {
+		try {
+			return future.get();
+		} catch (final ExecutionException e) {
+			final Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			} else if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new IllegalStateException(cause);
+		}
+	}
+}
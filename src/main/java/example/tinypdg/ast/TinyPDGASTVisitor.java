@@ -1,15 +1,18 @@
 package example.tinypdg.ast;
 
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
 import java.util.List;
 import java.util.Stack;
 
+import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.jdt.core.dom.AST;
 import org.eclipse.jdt.core.dom.ASTNode;
 import org.eclipse.jdt.core.dom.ASTParser;
@@ -37,6 +40,7 @@ import org.eclipse.jdt.core.dom.EmptyStatement;
 import org.eclipse.jdt.core.dom.EnhancedForStatement;
 import org.eclipse.jdt.core.dom.ExpressionStatement;
 import org.eclipse.jdt.core.dom.FieldAccess;
+import org.eclipse.jdt.core.dom.FileASTRequestor;
 import org.eclipse.jdt.core.dom.ForStatement;
 import org.eclipse.jdt.core.dom.IfStatement;
 import org.eclipse.jdt.core.dom.InfixExpression;
@@ -84,35 +88,108 @@ import example.tinypdg.pe.VariableInfo;
 
 public class TinyPDGASTVisitor extends NaiveASTFlattener {
 
+	// a parser resets itself after each createAST call, so that every thread
+	// can keep reusing its own instance
+	final static private ThreadLocal<ASTParser> PARSERS = new ThreadLocal<ASTParser>() {
+
+		@Override
+		protected ASTParser initialValue() {
+			return ASTParser.newParser(AST.JLS4);
+		}
+	};
+
+	// sources larger than this are memory-mapped instead of being read into
+	// a byte array
+	final static private long MAPPING_THRESHOLD = 8l * 1024l * 1024l;
+
+	final static public Charset DEFAULT_CHARSET = Charset.forName("UTF-8");
+
 	static public CompilationUnit createAST(final File file) {
+		return createAST(file, DEFAULT_CHARSET);
+	}
 
-		final String lineSeparator = System.getProperty("line.separator");
-		final StringBuffer text = new StringBuffer();
-		final BufferedReader reader;
+	static public CompilationUnit createAST(final File file,
+			final Charset charset) {
 
-		try {
-			reader = new BufferedReader(new InputStreamReader(
-					new FileInputStream(file), "JISAutoDetect"));
+		assert null != file : "\"file\" is null.";
+		assert null != charset : "\"charset\" is null.";
 
-			while (reader.ready()) {
-				final String line = reader.readLine();
-				text.append(line);
-				text.append(lineSeparator);
-			}
-			reader.close();
-		} catch (UnsupportedEncodingException e) {
-			e.printStackTrace();
-		} catch (FileNotFoundException e) {
-			e.printStackTrace();
+		char[] text;
+		try {
+			text = readSource(file, charset);
 		} catch (IOException e) {
 			e.printStackTrace();
+			text = new char[0];
 		}
 
-		final ASTParser parser = ASTParser.newParser(AST.JLS4);
-		parser.setSource(text.toString().toCharArray());
+		final ASTParser parser = PARSERS.get();
+		parser.setSource(text);
 		return (CompilationUnit) parser.createAST(null);
 	}
 
+	/**
+	 * Parses the given files with a single batch request, which shares the
+	 * parser setup among all of them. The requestor receives the units in
+	 * the order of the files, and no unit is retained after it returns.
+	 */
+	static public void createASTs(final List<File> files,
+			final Charset charset, final FileASTRequestor requestor,
+			final IProgressMonitor monitor) {
+
+		assert null != files : "\"files\" is null.";
+		assert null != charset : "\"charset\" is null.";
+		assert null != requestor : "\"requestor\" is null.";
+
+		final String[] paths = new String[files.size()];
+		final String[] encodings = new String[files.size()];
+		for (int index = 0; index < paths.length; index++) {
+			paths[index] = files.get(index).getAbsolutePath();
+			encodings[index] = charset.name();
+		}
+
+		final ASTParser parser = PARSERS.get();
+		parser.setEnvironment(new String[0], new String[0], null, false);
+		parser.createASTs(paths, encodings, new String[0], requestor, monitor);
+	}
+
+	// line terminators are kept as they are, JDT counts "\r\n", "\n" and "\r"
+	// as line breaks just like BufferedReader.readLine does
+	static public char[] readSource(final File file, final Charset charset)
+			throws IOException {
+
+		final ByteBuffer bytes;
+		if (MAPPING_THRESHOLD < file.length()) {
+			final FileChannel channel = FileChannel.open(file.toPath(),
+					StandardOpenOption.READ);
+			try {
+				bytes = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+						channel.size());
+			} finally {
+				channel.close();
+			}
+		} else {
+			bytes = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+		}
+
+		final CharBuffer chars = charset.newDecoder()
+				.onMalformedInput(CodingErrorAction.REPLACE)
+				.onUnmappableCharacter(CodingErrorAction.REPLACE)
+				.decode(bytes);
+
+		// a byte order mark is not part of the source
+		if (chars.hasRemaining() && ('\uFEFF' == chars.get(chars.position()))) {
+			chars.position(chars.position() + 1);
+		}
+
+		if (chars.hasArray() && (0 == chars.arrayOffset() + chars.position())
+				&& (chars.array().length == chars.limit())) {
+			return chars.array();
+		}
+		final char[] text = new char[chars.remaining()];
+		chars.get(text);
+		return text;
+	}
+
 	final private String path;
 	final private CompilationUnit root;
 	final private List<MethodInfo> methods;
@@ -261,6 +338,18 @@ public class TinyPDGASTVisitor extends NaiveASTFlattener {
 		}
 		method.setText(text.toString());
 
+		// the expression of the method enter node is made while parsing,
+		// after all the elements of the method, so that its ID does not
+		// depend on when the PDG is built
+		final ExpressionInfo enter = new ExpressionInfo(
+				ExpressionInfo.CATEGORY.MethodEnter, startLine, endLine);
+		enter.setText("Enter");
+		method.setEnterExpression(enter);
+
+		// the variables of the method are computed once here, rather than
+		// every time data dependences are built
+		method.cacheVariables();
+
 		return false;
 	}
 
@@ -1,6 +1,8 @@
 package example.tinypdg.cfg;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
@@ -74,6 +76,10 @@ public class CFG {
 		return nodes;
 	}
 
+	public boolean contains(final CFGNode<? extends ProgramElementInfo> node) {
+		return this.nodes.contains(node);
+	}
+
 	public void removeSwitchCases() {
 		final Iterator<CFGNode<? extends ProgramElementInfo>> iterator = this.nodes
 				.iterator();
@@ -639,15 +645,17 @@ public class CFG {
 					sequencialCFGs.add(blockCFG);
 				}
 			}
-			for (int index = 1; index < sequencialCFGs.size(); index++) {
-				final CFG anteriorCFG = sequencialCFGs.get(index - 1);
-				final CFG posteriorCFG = sequencialCFGs.get(index);
-				for (final CFGNode<?> exitNode : anteriorCFG.exitNodes) {
-					final CFGEdge edge = CFGEdge.makeEdge(exitNode,
-							posteriorCFG.enterNode);
-					exitNode.addForwardEdge(edge);
-					posteriorCFG.enterNode.addBackwardEdge(edge);
+			CFG anteriorCFG = null;
+			for (final CFG posteriorCFG : sequencialCFGs) {
+				if (null != anteriorCFG) {
+					for (final CFGNode<?> exitNode : anteriorCFG.exitNodes) {
+						final CFGEdge edge = CFGEdge.makeEdge(exitNode,
+								posteriorCFG.enterNode);
+						exitNode.addForwardEdge(edge);
+						posteriorCFG.enterNode.addBackwardEdge(edge);
+					}
 				}
+				anteriorCFG = posteriorCFG;
 			}
 			if (0 == sequencialCFGs.size()) {
 				final CFG pseudoCFG = new CFG(null, CFG.this.nodeFactory);
@@ -681,14 +689,13 @@ public class CFG {
 		assert null != startNode : "\"startNode\" is null.";
 		assert null != nodes : "\"nodes\" is null.";
 
-		if (nodes.contains(startNode)) {
-			return;
-		}
-
-		nodes.add(startNode);
-		for (final CFGNode<? extends ProgramElementInfo> node : startNode
-				.getForwardNodes()) {
-			this.getReachableNodes(node, nodes);
+		final Deque<CFGNode<? extends ProgramElementInfo>> stack = new ArrayDeque<CFGNode<? extends ProgramElementInfo>>();
+		stack.push(startNode);
+		while (!stack.isEmpty()) {
+			final CFGNode<? extends ProgramElementInfo> node = stack.pop();
+			if (nodes.add(node)) {
+				stack.addAll(node.getForwardNodes());
+			}
 		}
 	}
 }
@@ -168,17 +168,11 @@ public abstract class CFGNode<T extends ProgramElementInfo> implements
 	}
 
 	public final SortedSet<String> getAssignedVariables() {
-		final SortedSet<String> variables = new TreeSet<String>();
-		final SortedSet<String> v = this.core.getAssignedVariables();
-		variables.addAll(v);
-		return variables;
+		return this.core.getAssignedVariables();
 	}
 
 	public final Set<String> getReferencedVariables() {
-		final SortedSet<String> variables = new TreeSet<String>();
-		final SortedSet<String> v = this.core.getReferencedVariables();
-		variables.addAll(v);
-		return variables;
+		return this.core.getReferencedVariables();
 	}
 
 	public final String getText() {
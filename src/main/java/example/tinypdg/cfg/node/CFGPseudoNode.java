@@ -1,13 +1,21 @@
 package example.tinypdg.cfg.node;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 import example.tinypdg.cfg.node.CFGPseudoNode.PseudoElement;
 import example.tinypdg.pe.ProgramElementInfo;
 
 public class CFGPseudoNode extends CFGNode<PseudoElement> {
 
 	public static class PseudoElement extends ProgramElementInfo {
+
+		// pseudo elements are made while building CFGs, possibly on several
+		// threads, and never reach PDGs
+		final static private AtomicInteger ID_GENERATOR = new AtomicInteger(
+				Integer.MIN_VALUE);
+
 		PseudoElement() {
-			super(0, 0);
+			super(0, 0, ID_GENERATOR.getAndIncrement());
 		}
 	}
 
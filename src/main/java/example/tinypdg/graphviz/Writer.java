@@ -1,8 +1,8 @@
 package example.tinypdg.graphviz;
 
 import java.io.*;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.SortedMap;
@@ -15,14 +15,16 @@ import org.apache.commons.cli.CommandLineParser;
 import org.apache.commons.cli.Option;
 import org.apache.commons.cli.Options;
 import org.apache.commons.cli.PosixParser;
-import org.eclipse.jdt.core.dom.CompilationUnit;
 
+import example.tinypdg.ast.SourceParser;
 import example.tinypdg.ast.TinyPDGASTVisitor;
 import example.tinypdg.cfg.CFG;
 import example.tinypdg.cfg.edge.CFGEdge;
 import example.tinypdg.cfg.node.CFGControlNode;
 import example.tinypdg.cfg.node.CFGNode;
 import example.tinypdg.cfg.node.CFGNodeFactory;
+import example.tinypdg.metrics.Metrics;
+import example.tinypdg.pdg.FrozenPDG;
 import example.tinypdg.pdg.PDG;
 import example.tinypdg.pdg.edge.PDGEdge;
 import example.tinypdg.pdg.node.PDGNode;
@@ -65,6 +67,15 @@ public class Writer {
 				options.addOption(p);
 			}
 
+			{
+				final Option t = new Option("t", "thread", true,
+						"number of threads");
+				t.setArgName("thread");
+				t.setArgs(1);
+				t.setRequired(false);
+				options.addOption(t);
+			}
+
 			// {
 			// final Option o = new Option("o", "optimize", true,
 			// "remove unnecessary nodes from CFGs and PDGs");
@@ -83,6 +94,31 @@ public class Writer {
 			// options.addOption(a);
 			// }
 
+			{
+				final Option e = new Option("e", "encoding", true,
+						"encoding of source files (UTF-8 by default, \"auto\" to detect)");
+				e.setArgName("charset");
+				e.setArgs(1);
+				e.setRequired(false);
+				options.addOption(e);
+			}
+
+			{
+				final Option B = new Option("B", "batch", false,
+						"parse source files in batches");
+				B.setRequired(false);
+				options.addOption(B);
+			}
+
+			{
+				final Option m = new Option("m", "metrics", true,
+						"output file of metrics in JSON");
+				m.setArgName("file");
+				m.setArgs(1);
+				m.setRequired(false);
+				options.addOption(m);
+			}
+
 			final CommandLineParser parser = new PosixParser();
 			final CommandLine cmd = parser.parse(options, args);
 
@@ -93,19 +129,41 @@ public class Writer {
 				System.exit(0);
 			}
 
-			final List<File> files = getFiles(target);
-			final List<MethodInfo> methods = new ArrayList<MethodInfo>();
-			for (final File file : files) {
-				final CompilationUnit unit = TinyPDGASTVisitor.createAST(file);
-				final List<MethodInfo> m = new ArrayList<MethodInfo>();
-				final TinyPDGASTVisitor visitor = new TinyPDGASTVisitor(
-						file.getAbsolutePath(), unit, methods);
-				unit.accept(visitor);
-				methods.addAll(m);
+			final int NUMBER_OF_THREADS = cmd.hasOption("t") ? Integer
+					.parseInt(cmd.getOptionValue("t")) : 1;
+			if (NUMBER_OF_THREADS < 1) {
+				System.err
+						.println("option of \"-t\" must be greater than 0.");
+				System.exit(0);
 			}
 
+			Charset charset = TinyPDGASTVisitor.DEFAULT_CHARSET;
+			if (cmd.hasOption("e")) {
+				try {
+					charset = SourceParser.getCharset(cmd.getOptionValue("e"));
+				} catch (final IllegalArgumentException e) {
+					System.err
+							.println("option of \"-e\" must be a supported charset or \"auto\".");
+					System.exit(0);
+				}
+			}
+
+			final Metrics metrics = new Metrics("Writer");
+			final boolean useOfMetrics = cmd.hasOption("m");
+
+			final Metrics.Phase parsing = metrics.startPhase("parsing");
+			final List<File> files = getFiles(target);
+			final List<MethodInfo> methods = new SourceParser(
+					NUMBER_OF_THREADS, charset, cmd.hasOption("B"))
+					.parse(files);
+			parsing.end();
+			metrics.set("files", files.size());
+			metrics.set("methods", methods.size());
+
 			if (cmd.hasOption("c")) {
 				System.out.println("building and outputing CFGs ...");
+				final Metrics.Phase phase = metrics
+						.startPhase("building and outputing CFGs");
 				final BufferedWriter writer = new BufferedWriter(
 						new FileWriter(cmd.getOptionValue("c")));
 
@@ -121,15 +179,21 @@ public class Writer {
 					cfg.removeSwitchCases();
 					cfg.removeJumpStatements();
 					writeMethodCFG(cfg, createdGraphNumber++, writer);
+					if (useOfMetrics) {
+						metrics.record("cfgNodes", cfg.getAllNodes().size());
+					}
 				}
 
 				writer.write("}");
 
 				writer.close();
+				phase.end();
 			}
 
 			if (cmd.hasOption("p")) {
 				System.out.println("building and outputing PDGs ...");
+				final Metrics.Phase phase = metrics
+						.startPhase("building and outputing PDGs");
 				final BufferedWriter writer = new BufferedWriter(
 						new FileWriter(cmd.getOptionValue("p")));
 
@@ -143,6 +207,10 @@ public class Writer {
 							new CFGNodeFactory(), true, true, true);
 					pdg.build();
 					writePDG(pdg, createdGraphNumber++, writer);
+					if (useOfMetrics) {
+						metrics.record("pdgNodes", pdg.getAllNodes().size());
+						metrics.record("pdgEdges", pdg.getAllEdges().size());
+					}
 				}
 
 				edgeWriter.flush();
@@ -154,6 +222,11 @@ public class Writer {
 
 				writer.close();
 				edgeWriter.close();
+				phase.end();
+			}
+
+			if (useOfMetrics) {
+				metrics.write(new File(cmd.getOptionValue("m")));
 			}
 
 			System.out.println("successfully finished.");
@@ -282,15 +355,10 @@ public class Writer {
 
 
 
-		final Map<PDGNode<?>, Integer> nodeLabels = new HashMap<PDGNode<?>, Integer>();
-		for (final PDGNode<?> node : pdg.getAllNodes()) {
-			nodeLabels.put(node, nodeLabels.size());
-		}
-
-		for (final Map.Entry<PDGNode<?>, Integer> entry : nodeLabels.entrySet()) {
-			final PDGNode<?> node = entry.getKey();
-			int label = entry.getValue();
-			String nodeLabel = entry.getKey().getText().replace("\"", "\\\"").replace("\\\\\"", "\\\\\\\"");
+		final FrozenPDG graph = pdg.freeze();
+		for (int label = 0; label < graph.getNumberOfNodes(); label++) {
+			final PDGNode<?> node = graph.getNode(label);
+			String nodeLabel = node.getText().replace("\"", "\\\"").replace("\\\\\"", "\\\\\\\"");
 			// 获取node的行号
 			String nodeSpan;
 			nodeSpan = node.core.startLine + "-" + node.core.endLine;
@@ -330,16 +398,17 @@ public class Writer {
 //		}
 
 		try {
-			for (final PDGEdge edge : pdg.getAllEdges()) {
+			for (int edge = 0; edge < graph.getNumberOfEdges(); edge++) {
+				final PDGEdge.TYPE type = graph.getType(edge);
 				edgeWriter.write(Integer.toString(createdGraphNumber));
 				edgeWriter.write(".");
-				edgeWriter.write(Integer.toString(nodeLabels.get(edge.fromNode)));
+				edgeWriter.write(Integer.toString(graph.getFromNode(edge)));
 				edgeWriter.write(" -> ");
 				edgeWriter.write(Integer.toString(createdGraphNumber));
 				edgeWriter.write(".");
-				edgeWriter.write(Integer.toString(nodeLabels.get(edge.toNode)));
+				edgeWriter.write(Integer.toString(graph.getToNode(edge)));
 
-				edgeWriter.write(String.format(" [key=%d, style=%s, color=%s, label=\"%s\"];", edge.type.getKey(), edge.type.getStyle(), edge.type.getColor(), edge.getDependenceString()));
+				edgeWriter.write(String.format(" [key=%d, style=%s, color=%s, label=\"%s\"];", type.getKey(), type.getStyle(), type.getColor(), graph.getEdge(edge).getDependenceString()));
 
 				edgeWriter.newLine();
 			}
@@ -0,0 +1,231 @@
+package example.tinypdg.metrics;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.OperatingSystemMXBean;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+/**
+ * Phase timings, counters and histograms of a single run of a command line
+ * tool, written as a JSON file. CPU times are process-wide, so that the
+ * worker threads of a phase are included, and the times of phases with the
+ * same name are summed up. Heap pools reach their peaks at different
+ * times, so the sum of their peaks is an upper bound of the peak heap usage.
+ * Instances are thread-safe.
+ */
+public class Metrics {
+
+	final private String tool;
+	final private long start;
+	final private Map<String, double[]> phases;
+	final private Map<String, Long> counters;
+	final private Map<String, Histogram> histograms;
+
+	public Metrics(final String tool) {
+		assert null != tool : "\"tool\" is null.";
+		this.tool = tool;
+		this.start = System.nanoTime();
+		this.phases = new LinkedHashMap<String, double[]>();
+		this.counters = new LinkedHashMap<String, Long>();
+		this.histograms = new LinkedHashMap<String, Histogram>();
+		for (final MemoryPoolMXBean pool : ManagementFactory
+				.getMemoryPoolMXBeans()) {
+			if (MemoryType.HEAP == pool.getType()) {
+				pool.resetPeakUsage();
+			}
+		}
+	}
+
+	/**
+	 * Starts a phase, which is recorded when {@link Phase#end()} is called.
+	 */
+	public Phase startPhase(final String name) {
+		assert null != name : "\"name\" is null.";
+		return new Phase(name);
+	}
+
+	public synchronized void add(final String counter, final long value) {
+		assert null != counter : "\"counter\" is null.";
+		final Long current = this.counters.get(counter);
+		this.counters.put(counter, null != current ? current + value : value);
+	}
+
+	public synchronized void set(final String counter, final long value) {
+		assert null != counter : "\"counter\" is null.";
+		this.counters.put(counter, value);
+	}
+
+	public synchronized void record(final String histogram, final long value) {
+		assert null != histogram : "\"histogram\" is null.";
+		Histogram values = this.histograms.get(histogram);
+		if (null == values) {
+			values = new Histogram();
+			this.histograms.put(histogram, values);
+		}
+		values.add(value);
+	}
+
+	public void write(final File file) throws IOException {
+
+		assert null != file : "\"file\" is null.";
+
+		final Map<String, Object> json = new LinkedHashMap<String, Object>();
+		synchronized (this) {
+			json.put("tool", this.tool);
+			json.put("wallMillis", toMillis(System.nanoTime() - this.start));
+			json.put("cpuMillis", toMillis(getProcessCpuTime()));
+			json.put("sumOfHeapPoolPeakBytes", getSumOfHeapPoolPeaks());
+			json.put("availableProcessors", Runtime.getRuntime()
+					.availableProcessors());
+			final List<Object> phases = new ArrayList<Object>();
+			for (final Map.Entry<String, double[]> entry : this.phases
+					.entrySet()) {
+				final Map<String, Object> phase = new LinkedHashMap<String, Object>();
+				phase.put("name", entry.getKey());
+				phase.put("count", (long) entry.getValue()[0]);
+				phase.put("wallMillis", entry.getValue()[1]);
+				phase.put("cpuMillis", entry.getValue()[2]);
+				phases.add(phase);
+			}
+			json.put("phases", phases);
+			json.put("counters", new LinkedHashMap<String, Long>(
+					this.counters));
+			final Map<String, Object> histograms = new LinkedHashMap<String, Object>();
+			for (final Map.Entry<String, Histogram> entry : this.histograms
+					.entrySet()) {
+				histograms.put(entry.getKey(), entry.getValue().toMap());
+			}
+			json.put("histograms", histograms);
+		}
+
+		final Writer writer = new OutputStreamWriter(new FileOutputStream(
+				file), StandardCharsets.UTF_8);
+		try {
+			final Gson gson = new GsonBuilder().setPrettyPrinting()
+					.disableHtmlEscaping().create();
+			gson.toJson(json, writer);
+		} finally {
+			writer.close();
+		}
+	}
+
+	// returns -1 when the virtual machine does not report CPU time
+	private static long getProcessCpuTime() {
+		final OperatingSystemMXBean bean = ManagementFactory
+				.getOperatingSystemMXBean();
+		if (bean instanceof com.sun.management.OperatingSystemMXBean) {
+			return ((com.sun.management.OperatingSystemMXBean) bean)
+					.getProcessCpuTime();
+		}
+		return -1;
+	}
+
+	private static long getSumOfHeapPoolPeaks() {
+		long peak = 0;
+		for (final MemoryPoolMXBean pool : ManagementFactory
+				.getMemoryPoolMXBeans()) {
+			if (MemoryType.HEAP == pool.getType()) {
+				peak += pool.getPeakUsage().getUsed();
+			}
+		}
+		return peak;
+	}
+
+	private static double toMillis(final long nanos) {
+		return nanos < 0 ? -1d : nanos / 1000000d;
+	}
+
+	public class Phase {
+
+		final private String name;
+		final private long wallStart;
+		final private long cpuStart;
+
+		private Phase(final String name) {
+			this.name = name;
+			this.wallStart = System.nanoTime();
+			this.cpuStart = getProcessCpuTime();
+		}
+
+		public void end() {
+			final long cpuEnd = getProcessCpuTime();
+			final double wallMillis = toMillis(System.nanoTime()
+					- this.wallStart);
+			final double cpuMillis = (0 <= this.cpuStart) && (0 <= cpuEnd) ? toMillis(cpuEnd
+					- this.cpuStart)
+					: -1d;
+			synchronized (Metrics.this) {
+				double[] times = Metrics.this.phases.get(this.name);
+				if (null == times) {
+					times = new double[3];
+					Metrics.this.phases.put(this.name, times);
+				}
+				times[0]++;
+				times[1] += wallMillis;
+				times[2] = (0 <= times[2]) && (0 <= cpuMillis) ? times[2]
+						+ cpuMillis : -1d;
+			}
+		}
+
+		public String getName() {
+			return this.name;
+		}
+	}
+
+	// values are counted in buckets bounded by powers of two
+	static class Histogram {
+
+		private long count;
+		private long sum;
+		private long min;
+		private long max;
+		final private Map<Long, Long> buckets;
+
+		Histogram() {
+			this.count = 0;
+			this.sum = 0;
+			this.min = Long.MAX_VALUE;
+			this.max = Long.MIN_VALUE;
+			this.buckets = new TreeMap<Long, Long>();
+		}
+
+		void add(final long value) {
+			this.count++;
+			this.sum += value;
+			this.min = Math.min(this.min, value);
+			this.max = Math.max(this.max, value);
+			final long bound = value <= 1 ? 1 : Long.highestOneBit(value - 1) << 1;
+			final Long current = this.buckets.get(bound);
+			this.buckets.put(bound, null != current ? current + 1 : 1);
+		}
+
+		Map<String, Object> toMap() {
+			final Map<String, Object> map = new LinkedHashMap<String, Object>();
+			map.put("count", this.count);
+			map.put("sum", this.sum);
+			map.put("min", this.min);
+			map.put("max", this.max);
+			map.put("mean", (double) this.sum / this.count);
+			final Map<String, Long> buckets = new LinkedHashMap<String, Long>();
+			for (final Map.Entry<Long, Long> entry : this.buckets.entrySet()) {
+				buckets.put("<=" + entry.getKey(), entry.getValue());
+			}
+			map.put("buckets", buckets);
+			return map;
+		}
+	}
+}
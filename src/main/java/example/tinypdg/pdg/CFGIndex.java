@@ -0,0 +1,135 @@
+package example.tinypdg.pdg;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import example.tinypdg.cfg.CFG;
+import example.tinypdg.cfg.node.CFGNode;
+
+/**
+ * Numbers the nodes of a CFG in reverse post-order from its enter node,
+ * followed by the nodes that cannot be reached from it, and holds the
+ * forward and backward nodes of every node as arrays of numbers. The
+ * numbering uses an explicit stack, so that it does not depend on the size
+ * of the method. Searches over the nodes can share the marks and the stack
+ * of an index, which are preallocated for all its nodes.
+ */
+class CFGIndex {
+
+	final CFGNode<?>[] nodes;
+	final int[][] forwardNodes;
+	final int[][] backwardNodes;
+
+	final int[] stack;
+	final private int[] marks;
+	private int mark;
+
+	CFGIndex(final CFG cfg) {
+
+		assert null != cfg : "\"cfg\" is null.";
+		assert !cfg.isEmpty() : "\"cfg\" is empty.";
+
+		final Map<CFGNode<?>, Integer> indexes = new IdentityHashMap<CFGNode<?>, Integer>();
+		final List<CFGNode<?>> order = new ArrayList<CFGNode<?>>();
+		postorder(cfg.getEnterNode(), indexes, order);
+		final int reachable = order.size();
+		for (final CFGNode<?> node : cfg.getAllNodes()) {
+			postorder(node, indexes, order);
+		}
+
+		this.nodes = new CFGNode<?>[order.size()];
+		for (int index = 0; index < reachable; index++) {
+			this.nodes[index] = order.get(reachable - 1 - index);
+		}
+		for (int index = reachable; index < this.nodes.length; index++) {
+			this.nodes[index] = order.get(this.nodes.length - 1 + reachable
+					- index);
+		}
+		for (int index = 0; index < this.nodes.length; index++) {
+			indexes.put(this.nodes[index], index);
+		}
+
+		final int[] numberOfBackwardNodes = new int[this.nodes.length];
+		this.forwardNodes = new int[this.nodes.length][];
+		for (int index = 0; index < this.nodes.length; index++) {
+			final List<CFGNode<?>> toNodes = new ArrayList<CFGNode<?>>(
+					this.nodes[index].getForwardNodes());
+			this.forwardNodes[index] = new int[toNodes.size()];
+			for (int to = 0; to < toNodes.size(); to++) {
+				this.forwardNodes[index][to] = indexes.get(toNodes.get(to));
+				numberOfBackwardNodes[this.forwardNodes[index][to]]++;
+			}
+		}
+		this.backwardNodes = new int[this.nodes.length][];
+		for (int index = 0; index < this.nodes.length; index++) {
+			this.backwardNodes[index] = new int[numberOfBackwardNodes[index]];
+			numberOfBackwardNodes[index] = 0;
+		}
+		for (int index = 0; index < this.nodes.length; index++) {
+			for (final int to : this.forwardNodes[index]) {
+				this.backwardNodes[to][numberOfBackwardNodes[to]++] = index;
+			}
+		}
+
+		this.stack = new int[this.nodes.length];
+		this.marks = new int[this.nodes.length];
+		this.mark = 0;
+	}
+
+	/**
+	 * Returns a mark that no node has yet, to start a new search.
+	 */
+	int newMark() {
+		return ++this.mark;
+	}
+
+	/**
+	 * Gives the given mark to the given node, and returns false if the node
+	 * already has it.
+	 */
+	boolean mark(final int node, final int mark) {
+		if (mark == this.marks[node]) {
+			return false;
+		}
+		this.marks[node] = mark;
+		return true;
+	}
+
+	// appends the nodes reachable from the given one that are not yet
+	// visited in post-order
+	private static void postorder(final CFGNode<?> start,
+			final Map<CFGNode<?>, Integer> visited,
+			final List<CFGNode<?>> order) {
+
+		if (visited.containsKey(start)) {
+			return;
+		}
+
+		final List<CFGNode<?>> stack = new ArrayList<CFGNode<?>>();
+		final List<Iterator<CFGNode<?>>> iterators = new ArrayList<Iterator<CFGNode<?>>>();
+		visited.put(start, -1);
+		stack.add(start);
+		iterators.add(new ArrayList<CFGNode<?>>(start.getForwardNodes())
+				.iterator());
+
+		while (!stack.isEmpty()) {
+			final int top = stack.size() - 1;
+			final Iterator<CFGNode<?>> iterator = iterators.get(top);
+			if (iterator.hasNext()) {
+				final CFGNode<?> toNode = iterator.next();
+				if (!visited.containsKey(toNode)) {
+					visited.put(toNode, -1);
+					stack.add(toNode);
+					iterators.add(new ArrayList<CFGNode<?>>(toNode
+							.getForwardNodes()).iterator());
+				}
+			} else {
+				order.add(stack.remove(top));
+				iterators.remove(top);
+			}
+		}
+	}
+}
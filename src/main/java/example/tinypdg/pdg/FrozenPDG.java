@@ -0,0 +1,137 @@
+package example.tinypdg.pdg;
+
+import java.util.Arrays;
+import java.util.SortedSet;
+
+import example.tinypdg.pdg.edge.PDGEdge;
+import example.tinypdg.pdg.node.PDGNode;
+
+public class FrozenPDG {
+
+	final static private PDGEdge.TYPE[] TYPES = PDGEdge.TYPE.values();
+
+	final public PDG pdg;
+
+	final private PDGNode<?>[] nodes;
+	final private int[] nodeIDs;
+
+	final private PDGEdge[] edges;
+	final private int[] fromNodes;
+	final private int[] toNodes;
+	final private byte[] types;
+
+	final private int[] forwardOffsets;
+	final private int[] forwardEdges;
+	final private int[] backwardOffsets;
+	final private int[] backwardEdges;
+
+	FrozenPDG(final PDG pdg) {
+
+		assert null != pdg : "\"pdg\" is null.";
+		this.pdg = pdg;
+
+		final SortedSet<PDGNode<?>> nodes = pdg.getAllNodes();
+		this.nodes = nodes.toArray(new PDGNode<?>[0]);
+		this.nodeIDs = new int[this.nodes.length];
+		for (int node = 0; node < this.nodes.length; node++) {
+			this.nodeIDs[node] = this.nodes[node].core.id;
+		}
+
+		final SortedSet<PDGEdge> edges = pdg.getAllEdges();
+		this.edges = edges.toArray(new PDGEdge[0]);
+		this.fromNodes = new int[this.edges.length];
+		this.toNodes = new int[this.edges.length];
+		this.types = new byte[this.edges.length];
+		for (int edge = 0; edge < this.edges.length; edge++) {
+			this.fromNodes[edge] = this.getNodeIndex(this.edges[edge].fromNode);
+			this.toNodes[edge] = this.getNodeIndex(this.edges[edge].toNode);
+			this.types[edge] = (byte) this.edges[edge].type.ordinal();
+		}
+
+		this.forwardOffsets = new int[this.nodes.length + 1];
+		this.backwardOffsets = new int[this.nodes.length + 1];
+		for (int node = 0; node < this.nodes.length; node++) {
+			this.forwardOffsets[node + 1] = this.forwardOffsets[node]
+					+ this.nodes[node].getForwardEdges().size();
+			this.backwardOffsets[node + 1] = this.backwardOffsets[node]
+					+ this.nodes[node].getBackwardEdges().size();
+		}
+
+		this.forwardEdges = new int[this.forwardOffsets[this.nodes.length]];
+		this.backwardEdges = new int[this.backwardOffsets[this.nodes.length]];
+		for (int node = 0; node < this.nodes.length; node++) {
+			int position = this.forwardOffsets[node];
+			for (final PDGEdge edge : this.nodes[node].getForwardEdges()) {
+				this.forwardEdges[position++] = this.getEdgeIndex(edge);
+			}
+			position = this.backwardOffsets[node];
+			for (final PDGEdge edge : this.nodes[node].getBackwardEdges()) {
+				this.backwardEdges[position++] = this.getEdgeIndex(edge);
+			}
+		}
+	}
+
+	public int getNumberOfNodes() {
+		return this.nodes.length;
+	}
+
+	public PDGNode<?> getNode(final int node) {
+		return this.nodes[node];
+	}
+
+	public int getNodeIndex(final PDGNode<?> node) {
+		assert null != node : "\"node\" is null.";
+		final int index = Arrays.binarySearch(this.nodeIDs, node.core.id);
+		return 0 <= index ? index : -1;
+	}
+
+	public int getNumberOfEdges() {
+		return this.edges.length;
+	}
+
+	public PDGEdge getEdge(final int edge) {
+		return this.edges[edge];
+	}
+
+	public int getEdgeIndex(final PDGEdge edge) {
+		assert null != edge : "\"edge\" is null.";
+		final int index = Arrays.binarySearch(this.edges, edge);
+		return 0 <= index ? index : -1;
+	}
+
+	public int getFromNode(final int edge) {
+		return this.fromNodes[edge];
+	}
+
+	public int getToNode(final int edge) {
+		return this.toNodes[edge];
+	}
+
+	public PDGEdge.TYPE getType(final int edge) {
+		return TYPES[this.types[edge]];
+	}
+
+	public int getForwardBegin(final int node) {
+		return this.forwardOffsets[node];
+	}
+
+	public int getForwardEnd(final int node) {
+		return this.forwardOffsets[node + 1];
+	}
+
+	public int getForwardEdge(final int position) {
+		return this.forwardEdges[position];
+	}
+
+	public int getBackwardBegin(final int node) {
+		return this.backwardOffsets[node];
+	}
+
+	public int getBackwardEnd(final int node) {
+		return this.backwardOffsets[node + 1];
+	}
+
+	public int getBackwardEdge(final int position) {
+		return this.backwardEdges[position];
+	}
+}
@@ -1,14 +1,14 @@
 package example.tinypdg.pdg;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.List;
-import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
 
 import example.tinypdg.cfg.CFG;
-import example.tinypdg.cfg.edge.CFGEdge;
 import example.tinypdg.cfg.node.CFGNode;
 import example.tinypdg.cfg.node.CFGNodeFactory;
 import example.tinypdg.pdg.edge.PDGControlDependenceEdge;
@@ -45,7 +45,16 @@ public class PDG implements Comparable<PDG> {
 	final public int dataDependencyDistance;
 	final public int executionDependencyDistance;
 
+	final public boolean useReachingDefinitions;
+
 	private CFG cfg;
+	private FrozenPDG frozen;
+
+	// the nodes connected with the enter node and their edges, computed
+	// when they are first asked for and kept up to date by the methods
+	// changing the PDG
+	private SortedSet<PDGNode<?>> nodes;
+	private SortedSet<PDGEdge> edges;
 
 	public PDG(final MethodInfo unit, final PDGNodeFactory pdgNodeFactory,
 			final CFGNodeFactory cfgNodeFactory,
@@ -54,7 +63,8 @@ public class PDG implements Comparable<PDG> {
 			final boolean buildExecutionDependence,
 			final int controlDependencyDistance,
 			final int dataDependencyDistance,
-			final int executionDependencyDistance) {
+			final int executionDependencyDistance,
+			final boolean useReachingDefinitions) {
 
 		assert null != unit : "\"unit\" is null";
 		assert null != pdgNodeFactory : "\"pdgNodeFactory\" is null";
@@ -81,6 +91,23 @@ public class PDG implements Comparable<PDG> {
 		this.controlDependencyDistance = controlDependencyDistance;
 		this.dataDependencyDistance = dataDependencyDistance;
 		this.executionDependencyDistance = executionDependencyDistance;
+
+		this.useReachingDefinitions = useReachingDefinitions;
+	}
+
+	public PDG(final MethodInfo unit, final PDGNodeFactory pdgNodeFactory,
+			final CFGNodeFactory cfgNodeFactory,
+			final boolean buildControlDependence,
+			final boolean buildDataDependence,
+			final boolean buildExecutionDependence,
+			final int controlDependencyDistance,
+			final int dataDependencyDistance,
+			final int executionDependencyDistance) {
+
+		this(unit, pdgNodeFactory, cfgNodeFactory, buildControlDependence,
+				buildDataDependence, buildExecutionDependence,
+				controlDependencyDistance, dataDependencyDistance,
+				executionDependencyDistance, false);
 	}
 
 	public PDG(final MethodInfo unit, final PDGNodeFactory pdgNodeFactory,
@@ -117,6 +144,13 @@ public class PDG implements Comparable<PDG> {
 		return this.unit.compareTo(o.unit);
 	}
 
+	public synchronized FrozenPDG freeze() {
+		if (null == this.frozen) {
+			this.frozen = new FrozenPDG(this);
+		}
+		return this.frozen;
+	}
+
 	public final SortedSet<PDGNode<?>> getExitNodes() {
 		final SortedSet<PDGNode<?>> nodes = new TreeSet<PDGNode<?>>();
 		nodes.addAll(this.exitNodes);
@@ -129,10 +163,19 @@ public class PDG implements Comparable<PDG> {
 		return parameters;
 	}
 
-	public final SortedSet<PDGNode<?>> getAllNodes() {
-		final SortedSet<PDGNode<?>> nodes = new TreeSet<PDGNode<?>>();
-		this.getAllNodes(this.enterNode, nodes);
-		return nodes;
+	/**
+	 * Returns an unmodifiable view of the nodes connected with the enter
+	 * node. The view follows the changes made through {@link #addEdge},
+	 * {@link #removeEdge} and {@link #mergeNodes}, but not those made to the
+	 * nodes directly.
+	 */
+	public final synchronized SortedSet<PDGNode<?>> getAllNodes() {
+		if (null == this.nodes) {
+			final SortedSet<PDGNode<?>> nodes = new TreeSet<PDGNode<?>>();
+			this.getAllNodes(this.enterNode, nodes);
+			this.nodes = nodes;
+		}
+		return Collections.unmodifiableSortedSet(this.nodes);
 	}
 
 	private void getAllNodes(final PDGNode<?> node,
@@ -141,58 +184,142 @@ public class PDG implements Comparable<PDG> {
 		assert null != node : "\"node\" is null.";
 		assert null != nodes : "\"nodes\" is null.";
 
-		if (nodes.contains(node)) {
-			return;
-		}
-
-		nodes.add(node);
-		for (final PDGEdge edge : node.getBackwardEdges()) {
-			this.getAllNodes(edge.fromNode, nodes);
-		}
-		for (final PDGEdge edge : node.getForwardEdges()) {
-			this.getAllNodes(edge.toNode, nodes);
+		final Deque<PDGNode<?>> stack = new ArrayDeque<PDGNode<?>>();
+		stack.push(node);
+		while (!stack.isEmpty()) {
+			final PDGNode<?> current = stack.pop();
+			if (!nodes.add(current)) {
+				continue;
+			}
+			for (final PDGEdge edge : current.getBackwardEdges()) {
+				stack.push(edge.fromNode);
+			}
+			for (final PDGEdge edge : current.getForwardEdges()) {
+				stack.push(edge.toNode);
+			}
 		}
 	}
 
-	public final SortedSet<PDGEdge> getAllEdges() {
-		final SortedSet<PDGEdge> edges = new TreeSet<PDGEdge>();
-//		for (final PDGEdge edge : this.enterNode.getForwardEdges()) {
-//			this.getAllEdges(edge, edges);
-//		}
-		
-		final SortedSet<PDGNode<?>> nodes = this.getAllNodes();
-		for (final PDGNode<?> node : nodes) {
-			edges.addAll(node.getForwardEdges());
-			edges.addAll(node.getBackwardEdges());
+	/**
+	 * Returns an unmodifiable view of the edges of the nodes connected with
+	 * the enter node, which follows the changes as {@link #getAllNodes}
+	 * does.
+	 */
+	public final synchronized SortedSet<PDGEdge> getAllEdges() {
+		if (null == this.edges) {
+			final SortedSet<PDGEdge> edges = new TreeSet<PDGEdge>();
+			for (final PDGNode<?> node : this.getAllNodes()) {
+				edges.addAll(node.getForwardEdges());
+				edges.addAll(node.getBackwardEdges());
+			}
+			this.edges = edges;
 		}
-		
-		return edges;
+		return Collections.unmodifiableSortedSet(this.edges);
 	}
 
-	private void getAllEdges(final PDGEdge edge, final SortedSet<PDGEdge> edges) {
+	/**
+	 * Adds the given edge to its nodes.
+	 */
+	public synchronized void addEdge(final PDGEdge edge) {
+		assert null != edge : "\"edge\" is null.";
+		assert null == this.frozen : "this PDG has already been frozen.";
+		edge.fromNode.addForwardEdge(edge);
+		edge.toNode.addBackwardEdge(edge);
+		this.invalidate();
+	}
 
+	/**
+	 * Removes the given edge from its nodes.
+	 */
+	public synchronized void removeEdge(final PDGEdge edge) {
 		assert null != edge : "\"edge\" is null.";
-		assert null != edges : "\"edges\" is null.";
+		assert null == this.frozen : "this PDG has already been frozen.";
+		edge.fromNode.removeForwardEdge(edge);
+		edge.toNode.removeBackwardEdge(edge);
+		this.invalidate();
+	}
 
-		if (edges.contains(edge)) {
-			return;
+	/**
+	 * Replaces the two nodes of the given edge with the given node. The edge
+	 * is removed, and the other edges of the two nodes are moved to the
+	 * given node. As no node gets disconnected, the node and edge sets are
+	 * updated in place instead of being computed again.
+	 */
+	public synchronized void mergeNodes(final PDGEdge edge,
+			final PDGNode<?> mergedNode) {
+
+		assert null != edge : "\"edge\" is null.";
+		assert null != mergedNode : "\"mergedNode\" is null.";
+		assert null == this.frozen : "this PDG has already been frozen.";
+
+		final PDGNode<?> fromNode = edge.fromNode;
+		final PDGNode<?> toNode = edge.toNode;
+		if (null != this.edges) {
+			this.edges.removeAll(fromNode.getBackwardEdges());
+			this.edges.removeAll(fromNode.getForwardEdges());
+			this.edges.removeAll(toNode.getBackwardEdges());
+			this.edges.removeAll(toNode.getForwardEdges());
 		}
 
-		edges.add(edge);
-		for (final PDGEdge backwardEdge : edge.fromNode.getBackwardEdges()) {
-			this.getAllEdges(backwardEdge, edges);
+		fromNode.removeForwardEdge(edge);
+		toNode.removeBackwardEdge(edge);
+		replaceNode(fromNode, mergedNode);
+		replaceNode(toNode, mergedNode);
+
+		if (null != this.nodes) {
+			this.nodes.remove(fromNode);
+			this.nodes.remove(toNode);
+			this.nodes.add(mergedNode);
 		}
-		for (final PDGEdge forwardEdge : edge.fromNode.getForwardEdges()) {
-			this.getAllEdges(forwardEdge, edges);
+		if (null != this.edges) {
+			this.edges.addAll(mergedNode.getBackwardEdges());
+			this.edges.addAll(mergedNode.getForwardEdges());
 		}
-		for (final PDGEdge backwardEdge : edge.toNode.getBackwardEdges()) {
-			this.getAllEdges(backwardEdge, edges);
+	}
+
+	private static void replaceNode(final PDGNode<?> replacedNode,
+			final PDGNode<?> replacingNode) {
+
+		assert null != replacedNode : "\"replacedNode\" is null.";
+		assert null != replacingNode : "\"replacingNode\" is null.";
+
+		final SortedSet<PDGEdge> backwardEdges = replacedNode
+				.getBackwardEdges();
+		for (final PDGEdge backwardEdge : backwardEdges) {
+			final boolean b1 = backwardEdge.fromNode
+					.removeForwardEdge(backwardEdge);
+			final boolean b2 = replacedNode.removeBackwardEdge(backwardEdge);
+
+			assert b1 : "invalid status.";
+			assert b2 : "invalid status.";
+
+			final PDGEdge newBackwardEdge = backwardEdge
+					.replaceToNode(replacingNode);
+			backwardEdge.fromNode.addForwardEdge(newBackwardEdge);
+			replacingNode.addBackwardEdge(newBackwardEdge);
 		}
-		for (final PDGEdge forwardEdge : edge.toNode.getForwardEdges()) {
-			this.getAllEdges(forwardEdge, edges);
+
+		final SortedSet<PDGEdge> forwardEdges = replacedNode.getForwardEdges();
+		for (final PDGEdge forwardEdge : forwardEdges) {
+			final boolean b1 = forwardEdge.toNode
+					.removeBackwardEdge(forwardEdge);
+			final boolean b2 = replacedNode.removeForwardEdge(forwardEdge);
+
+			assert b1 : "invalid status.";
+			assert b2 : "invalid status.";
+
+			final PDGEdge newForwardEdge = forwardEdge
+					.replaceFromNode(replacingNode);
+			forwardEdge.toNode.addBackwardEdge(newForwardEdge);
+			replacingNode.addForwardEdge(newForwardEdge);
 		}
 	}
 
+	private void invalidate() {
+		this.nodes = null;
+		this.edges = null;
+	}
+
 	public void build() {
 
 		this.cfg = new CFG(this.unit, this.cfgNodeFactory);
@@ -221,19 +348,27 @@ public class PDG implements Comparable<PDG> {
 			}
 		}
 
-		if (this.buildDataDependence) {
-			for (final PDGParameterNode parameterNode : this.parameterNodes) {
-				if (!this.cfg.isEmpty()) {
-					this.buildDataDependence(this.cfg.getEnterNode(),
-							parameterNode, parameterNode.core.name,
-							new HashSet<CFGNode<?>>());
+		final CFGIndex index = this.cfg.isEmpty() ? null : new CFGIndex(
+				this.cfg);
+
+		if (this.buildDataDependence && (null != index)) {
+			if (this.useReachingDefinitions) {
+				new ReachingDefinitions(index, this.parameterNodes,
+						this.pdgNodeFactory, this.dataDependencyDistance)
+						.build();
+			} else {
+				for (final PDGParameterNode parameterNode : this.parameterNodes) {
+					this.buildDataDependence(index, new int[] { 0 },
+							parameterNode, parameterNode.core.name);
 				}
 			}
 		}
 
-		final Set<CFGNode<?>> checkedNodes = new HashSet<CFGNode<?>>();
-		if (!this.cfg.isEmpty()) {
-			this.buildDependence(this.cfg.getEnterNode(), checkedNodes);
+		// every node of the CFG, reachable or not, is visited once
+		if (null != index) {
+			for (int node = 0; node < index.nodes.length; node++) {
+				this.buildDependence(index, node);
+			}
 		}
 
 		for (final CFGNode<?> cfgExitNode : this.cfg.getExitNodes()) {
@@ -242,37 +377,19 @@ public class PDG implements Comparable<PDG> {
 			this.exitNodes.add(pdgExitNode);
 		}
 
-		if (!this.cfg.isEmpty()) {
-			final Set<CFGNode<?>> unreachableNodes = new HashSet<CFGNode<?>>();
-			unreachableNodes.addAll(this.cfg.getAllNodes());
-			unreachableNodes.removeAll(this.cfg.getReachableNodes(this.cfg
-					.getEnterNode()));
-			for (final CFGNode<?> unreachableNode : unreachableNodes) {
-				this.buildDependence(unreachableNode, checkedNodes);
-			}
-		}
+		this.invalidate();
 	}
 
-	private void buildDependence(final CFGNode<?> cfgNode,
-			final Set<CFGNode<?>> checkedNodes) {
+	private void buildDependence(final CFGIndex index, final int node) {
 
-		assert null != cfgNode : "\"cfgNode\" is null.";
-		assert null != checkedNodes : "\"checkedNodes\" is null.";
-
-		if (checkedNodes.contains(cfgNode)) {
-			return;
-		} else {
-			checkedNodes.add(cfgNode);
-		}
+		assert null != index : "\"index\" is null.";
 
+		final CFGNode<?> cfgNode = index.nodes[node];
 		final PDGNode<?> pdgNode = this.pdgNodeFactory.makeNode(cfgNode);
-		if (this.buildDataDependence) {
+		if (this.buildDataDependence && !this.useReachingDefinitions) {
 			for (final String variable : pdgNode.core.getAssignedVariables()) {
-				for (final CFGEdge edge : cfgNode.getForwardEdges()) {
-					final Set<CFGNode<?>> checkedNodesForDefinedVariables = new HashSet<CFGNode<?>>();
-					this.buildDataDependence(edge.toNode, pdgNode, variable,
-							checkedNodesForDefinedVariables);
-				}
+				this.buildDataDependence(index, index.forwardNodes[node],
+						pdgNode, variable);
 			}
 		}
 		if (this.buildControlDependence) {
@@ -284,9 +401,9 @@ public class PDG implements Comparable<PDG> {
 		}
 
 		if (this.buildExecutionDependence) {
-			for (final CFGNode<?> toCFGNode : cfgNode.getForwardNodes()) {
+			for (final int toNode : index.forwardNodes[node]) {
 				final PDGNode<?> toPDGNode = this.pdgNodeFactory
-						.makeNode(toCFGNode);
+						.makeNode(index.nodes[toNode]);
 				final int distance = Math.abs(toPDGNode.core.startLine
 						- pdgNode.core.startLine) + 1;
 				if (distance <= this.executionDependencyDistance) {
@@ -298,47 +415,56 @@ public class PDG implements Comparable<PDG> {
 
 			}
 		}
-
-		for (final CFGNode<?> forwardNode : cfgNode.getForwardNodes()) {
-			this.buildDependence(forwardNode, checkedNodes);
-		}
 	}
 
-	private void buildDataDependence(final CFGNode<?> cfgNode,
-			final PDGNode<?> fromPDGNode, final String variable,
-			final Set<CFGNode<?>> checkedCFGNodes) {
+	// searches the nodes reachable from the given ones until the variable
+	// is assigned again, with the stack and the marks of the index
+	private void buildDataDependence(final CFGIndex index,
+			final int[] startNodes, final PDGNode<?> fromPDGNode,
+			final String variable) {
 
-		assert null != cfgNode : "\"cfgNode\" is null.";
+		assert null != index : "\"index\" is null.";
+		assert null != startNodes : "\"startNodes\" is null.";
 		assert null != fromPDGNode : "\"fromPDGNode\" is null.";
 		assert null != variable : "\"variable\" is null.";
-		assert null != checkedCFGNodes : "\"checkedCFGnodes\" is null.";
 
-		if (checkedCFGNodes.contains(cfgNode)) {
-			return;
-		} else {
-			checkedCFGNodes.add(cfgNode);
+		final int mark = index.newMark();
+		final int[] stack = index.stack;
+		int top = 0;
+		for (final int startNode : startNodes) {
+			if (index.mark(startNode, mark)) {
+				stack[top++] = startNode;
+			}
 		}
 
-		if (cfgNode.core.getReferencedVariables().contains(variable)) {
+		while (0 < top) {
 
-			final PDGNode<?> toPDGNode = this.pdgNodeFactory.makeNode(cfgNode);
-			final int distance = Math.abs(toPDGNode.core.startLine
-					- fromPDGNode.core.startLine) + 1;
-			if (distance <= this.dataDependencyDistance) {
-				final PDGDataDependenceEdge edge = new PDGDataDependenceEdge(
-						fromPDGNode, toPDGNode, variable);
-				fromPDGNode.addForwardEdge(edge);
-				toPDGNode.addBackwardEdge(edge);
+			final int node = stack[--top];
+			final CFGNode<?> cfgNode = index.nodes[node];
+
+			if (cfgNode.core.getReferencedVariables().contains(variable)) {
+
+				final PDGNode<?> toPDGNode = this.pdgNodeFactory
+						.makeNode(cfgNode);
+				final int distance = Math.abs(toPDGNode.core.startLine
+						- fromPDGNode.core.startLine) + 1;
+				if (distance <= this.dataDependencyDistance) {
+					final PDGDataDependenceEdge edge = new PDGDataDependenceEdge(
+							fromPDGNode, toPDGNode, variable);
+					fromPDGNode.addForwardEdge(edge);
+					toPDGNode.addBackwardEdge(edge);
+				}
 			}
-		}
 
-		if (cfgNode.core.getAssignedVariables().contains(variable)) {
-			return;
-		}
+			if (cfgNode.core.getAssignedVariables().contains(variable)) {
+				continue;
+			}
 
-		for (final CFGNode<?> forwardNode : cfgNode.getForwardNodes()) {
-			this.buildDataDependence(forwardNode, fromPDGNode, variable,
-					checkedCFGNodes);
+			for (final int forwardNode : index.forwardNodes[node]) {
+				if (index.mark(forwardNode, mark)) {
+					stack[top++] = forwardNode;
+				}
+			}
 		}
 	}
 
@@ -413,7 +539,7 @@ public class PDG implements Comparable<PDG> {
 		case Throw:
 		case VariableDeclaration: {
 			final CFGNode<?> cfgNode = this.cfgNodeFactory.getNode(statement);
-			if ((null != cfgNode) && (this.cfg.getAllNodes().contains(cfgNode))) {
+			if ((null != cfgNode) && (this.cfg.contains(cfgNode))) {
 
 				final PDGNode<?> toPDGNode = this.pdgNodeFactory
 						.makeNormalNode(statement);
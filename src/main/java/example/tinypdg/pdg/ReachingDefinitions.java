@@ -0,0 +1,164 @@
+package example.tinypdg.pdg;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import example.tinypdg.cfg.node.CFGNode;
+import example.tinypdg.pdg.edge.PDGDataDependenceEdge;
+import example.tinypdg.pdg.node.PDGNode;
+import example.tinypdg.pdg.node.PDGNodeFactory;
+import example.tinypdg.pdg.node.PDGParameterNode;
+
+/**
+ * Builds the data dependences of a PDG from the reaching definitions of its
+ * CFG. The variables are analysed one after another: the definitions of a
+ * variable are numbered, the definitions reaching each node are a
+ * {@link BitSet} of them, and a node assigning the variable replaces them
+ * with its own. The sets are computed by iterating over the nodes in the
+ * reverse post-order of the {@link CFGIndex} until they do not change, and
+ * then every node referencing the variable gets an edge from each
+ * definition reaching it. Only the sets of one variable are kept at a time,
+ * so that the memory does not grow with the number of definitions of all
+ * the variables.
+ */
+class ReachingDefinitions {
+
+	final private PDGNodeFactory pdgNodeFactory;
+	final private int dataDependencyDistance;
+
+	final private CFGNode<?>[] nodes;
+	final private int[][] backwardNodes;
+
+	// the variables assigned in the method or its parameters in their
+	// natural order, with the nodes assigning each of them
+	final private SortedMap<String, List<Integer>> variables;
+	final private Map<String, PDGParameterNode> parameterNodes;
+
+	ReachingDefinitions(final CFGIndex cfgIndex,
+			final List<PDGParameterNode> parameterNodes,
+			final PDGNodeFactory pdgNodeFactory,
+			final int dataDependencyDistance) {
+
+		assert null != cfgIndex : "\"cfgIndex\" is null.";
+		assert null != parameterNodes : "\"parameterNodes\" is null.";
+		assert null != pdgNodeFactory : "\"pdgNodeFactory\" is null.";
+
+		this.pdgNodeFactory = pdgNodeFactory;
+		this.dataDependencyDistance = dataDependencyDistance;
+
+		this.nodes = cfgIndex.nodes;
+		this.backwardNodes = cfgIndex.backwardNodes;
+
+		this.variables = new TreeMap<String, List<Integer>>();
+		for (int index = 0; index < this.nodes.length; index++) {
+			for (final String variable : this.nodes[index].core
+					.getAssignedVariables()) {
+				this.getAssigningNodes(variable).add(index);
+			}
+		}
+		this.parameterNodes = new HashMap<String, PDGParameterNode>();
+		for (final PDGParameterNode parameterNode : parameterNodes) {
+			this.getAssigningNodes(parameterNode.core.name);
+			this.parameterNodes.put(parameterNode.core.name, parameterNode);
+		}
+	}
+
+	void build() {
+
+		final int[] definitionIndexes = new int[this.nodes.length];
+		Arrays.fill(definitionIndexes, -1);
+		final BitSet next = new BitSet();
+
+		// variables are in their natural order, so an edge between two nodes
+		// carries the first variable making it, as the search in PDG does
+		for (final Entry<String, List<Integer>> entry : this.variables
+				.entrySet()) {
+
+			final String variable = entry.getKey();
+			final List<Integer> assigningNodes = entry.getValue();
+			final PDGParameterNode parameterNode = this.parameterNodes
+					.get(variable);
+
+			final PDGNode<?>[] definitions = new PDGNode<?>[assigningNodes
+					.size() + 1];
+			for (int definition = 0; definition < assigningNodes.size(); definition++) {
+				final int node = assigningNodes.get(definition);
+				definitionIndexes[node] = definition;
+				definitions[definition] = this.pdgNodeFactory
+						.makeNode(this.nodes[node]);
+			}
+			definitions[assigningNodes.size()] = parameterNode;
+
+			// the definitions reaching the entry of each node, the ones
+			// leaving a node are the same unless it assigns the variable
+			final BitSet[] reaching = new BitSet[this.nodes.length];
+			for (int node = 0; node < this.nodes.length; node++) {
+				reaching[node] = new BitSet();
+			}
+			boolean changed = true;
+			while (changed) {
+				changed = false;
+				for (int node = 0; node < this.nodes.length; node++) {
+					next.clear();
+					if ((0 == node) && (null != parameterNode)) {
+						next.set(assigningNodes.size());
+					}
+					for (final int from : this.backwardNodes[node]) {
+						if (0 <= definitionIndexes[from]) {
+							next.set(definitionIndexes[from]);
+						} else {
+							next.or(reaching[from]);
+						}
+					}
+					if (!next.equals(reaching[node])) {
+						reaching[node].clear();
+						reaching[node].or(next);
+						changed = true;
+					}
+				}
+			}
+
+			for (int node = 0; node < this.nodes.length; node++) {
+				if (reaching[node].isEmpty()
+						|| !this.nodes[node].core.getReferencedVariables()
+								.contains(variable)) {
+					continue;
+				}
+				final PDGNode<?> toPDGNode = this.pdgNodeFactory
+						.makeNode(this.nodes[node]);
+				for (int definition = reaching[node].nextSetBit(0); 0 <= definition; definition = reaching[node]
+						.nextSetBit(definition + 1)) {
+					final PDGNode<?> fromPDGNode = definitions[definition];
+					final int distance = Math.abs(toPDGNode.core.startLine
+							- fromPDGNode.core.startLine) + 1;
+					if (distance <= this.dataDependencyDistance) {
+						final PDGDataDependenceEdge edge = new PDGDataDependenceEdge(
+								fromPDGNode, toPDGNode, variable);
+						fromPDGNode.addForwardEdge(edge);
+						toPDGNode.addBackwardEdge(edge);
+					}
+				}
+			}
+
+			for (final int node : assigningNodes) {
+				definitionIndexes[node] = -1;
+			}
+		}
+	}
+
+	private List<Integer> getAssigningNodes(final String variable) {
+		List<Integer> nodes = this.variables.get(variable);
+		if (null == nodes) {
+			nodes = new ArrayList<Integer>();
+			this.variables.put(variable, nodes);
+		}
+		return nodes;
+	}
+}
@@ -8,10 +8,13 @@ public class PDGMethodEnterNode extends PDGControlNode {
 
 	static public PDGMethodEnterNode getInstance(final MethodInfo method) {
 		assert null != method : "\"method\" is null.";
-		final ProgramElementInfo methodEnterExpression = new ExpressionInfo(
-				ExpressionInfo.CATEGORY.MethodEnter, method.startLine,
-				method.endLine);
-		methodEnterExpression.setText("Enter");
+		ExpressionInfo methodEnterExpression = method.getEnterExpression();
+		if (null == methodEnterExpression) {
+			methodEnterExpression = new ExpressionInfo(
+					ExpressionInfo.CATEGORY.MethodEnter, method.startLine,
+					method.endLine);
+			methodEnterExpression.setText("Enter");
+		}
 		return new PDGMethodEnterNode(methodEnterExpression);
 	}
 
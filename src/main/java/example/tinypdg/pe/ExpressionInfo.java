@@ -77,7 +77,20 @@ public class ExpressionInfo extends ProgramElementInfo {
 	}
 
 	@Override
-	public SortedSet<String> getAssignedVariables() {
+	protected void cacheVariablesOfChildren() {
+		for (final ProgramElementInfo expression : this.expressions) {
+			expression.cacheVariables();
+		}
+		if (null != this.getAnonymousClassDeclaration()) {
+			for (final MethodInfo method : this
+					.getAnonymousClassDeclaration().getMethods()) {
+				method.cacheVariables();
+			}
+		}
+	}
+
+	@Override
+	protected SortedSet<String> collectAssignedVariables() {
 
 		final SortedSet<String> variables = new TreeSet<String>();
 		switch (this.category) {
@@ -111,7 +124,7 @@ public class ExpressionInfo extends ProgramElementInfo {
 	}
 
 	@Override
-	public SortedSet<String> getReferencedVariables() {
+	protected SortedSet<String> collectReferencedVariables() {
 		final SortedSet<String> variables = new TreeSet<String>();
 		switch (this.category) {
 		case Assignment:
@@ -13,6 +13,7 @@ public class MethodInfo extends ProgramElementInfo implements BlockInfo {
 	final public String name;
 	final private List<VariableInfo> parameters;
 	final private List<StatementInfo> statements;
+	private ExpressionInfo enterExpression;
 
 	public MethodInfo(final String path, final String name,
 			final int startLine, final int endLine) {
@@ -23,6 +24,16 @@ public class MethodInfo extends ProgramElementInfo implements BlockInfo {
 		this.name = name;
 		this.parameters = new ArrayList<VariableInfo>();
 		this.statements = new ArrayList<StatementInfo>();
+		this.enterExpression = null;
+	}
+
+	public void setEnterExpression(final ExpressionInfo enterExpression) {
+		assert null != enterExpression : "\"enterExpression\" is null.";
+		this.enterExpression = enterExpression;
+	}
+
+	public ExpressionInfo getEnterExpression() {
+		return this.enterExpression;
 	}
 
 	public void addParameter(final VariableInfo parameter) {
@@ -65,7 +76,14 @@ public class MethodInfo extends ProgramElementInfo implements BlockInfo {
 	}
 
 	@Override
-	public SortedSet<String> getAssignedVariables() {
+	protected void cacheVariablesOfChildren() {
+		for (final StatementInfo statement : this.statements) {
+			statement.cacheVariables();
+		}
+	}
+
+	@Override
+	protected SortedSet<String> collectAssignedVariables() {
 		final SortedSet<String> variables = new TreeSet<String>();
 		for (final StatementInfo statement : this.statements) {
 			variables.addAll(statement.getAssignedVariables());
@@ -74,7 +92,7 @@ public class MethodInfo extends ProgramElementInfo implements BlockInfo {
 	}
 
 	@Override
-	public SortedSet<String> getReferencedVariables() {
+	protected SortedSet<String> collectReferencedVariables() {
 		final SortedSet<String> variables = new TreeSet<String>();
 		for (final StatementInfo statement : this.statements) {
 			variables.addAll(statement.getReferencedVariables());
@@ -3,7 +3,6 @@ package example.tinypdg.pe;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.SortedSet;
-import java.util.TreeSet;
 import java.util.concurrent.atomic.AtomicInteger;
 
 abstract public class ProgramElementInfo implements
@@ -20,15 +19,47 @@ abstract public class ProgramElementInfo implements
 
 	protected BlockInfo ownerConditionalBlock;
 
+	private VariableSet assignedVariables;
+	private VariableSet referencedVariables;
+
 	public ProgramElementInfo(final int startLine, final int endLine) {
+		this(startLine, endLine, ID_GENERATOR.getAndIncrement());
+	}
+
+	/**
+	 * Returns the ID that the next element made while parsing takes.
+	 */
+	public static int getNextID() {
+		return ID_GENERATOR.get();
+	}
+
+	/**
+	 * Makes the elements made from now on take IDs from the given one on.
+	 * Elements alive with IDs from there on would be equal to new ones, so
+	 * this is only meant for numbering files out of their order.
+	 */
+	public static void setNextID(final int id) {
+		ID_GENERATOR.set(id);
+	}
+
+	/**
+	 * For elements that are not made while parsing, whose IDs are taken
+	 * from another range so that the IDs of parsed elements only depend on
+	 * the parsed files.
+	 */
+	protected ProgramElementInfo(final int startLine, final int endLine,
+			final int id) {
 		this.startLine = startLine;
 		this.endLine = endLine;
-		this.id = ID_GENERATOR.getAndIncrement();
+		this.id = id;
 		this.text = "";
 
 		this.modifiers = new ArrayList<String>();
 
 		this.ownerConditionalBlock = null;
+
+		this.assignedVariables = null;
+		this.referencedVariables = null;
 	}
 
 	@Override
@@ -79,12 +110,51 @@ abstract public class ProgramElementInfo implements
 		return modifiers;
 	}
 
-	public SortedSet<String> getAssignedVariables() {
-		return new TreeSet<String>();
+	/**
+	 * Returns the variables assigned in this element. The returned set is
+	 * immutable, and is not computed again once the variables are cached.
+	 */
+	final public SortedSet<String> getAssignedVariables() {
+		final VariableSet variables = this.assignedVariables;
+		return null != variables ? variables : VariableSet.of(this
+				.collectAssignedVariables());
+	}
+
+	/**
+	 * Returns the variables referenced in this element. The returned set is
+	 * immutable, and is not computed again once the variables are cached.
+	 */
+	final public SortedSet<String> getReferencedVariables() {
+		final VariableSet variables = this.referencedVariables;
+		return null != variables ? variables : VariableSet.of(this
+				.collectReferencedVariables());
+	}
+
+	/**
+	 * Computes and keeps the variables of this element and of the elements
+	 * it contains. It has to be called only after the element is complete,
+	 * which is done by {@link example.tinypdg.ast.TinyPDGASTVisitor} for
+	 * every method.
+	 */
+	final public void cacheVariables() {
+		if (null == this.assignedVariables) {
+			this.cacheVariablesOfChildren();
+			this.assignedVariables = VariableSet.of(this
+					.collectAssignedVariables());
+			this.referencedVariables = VariableSet.of(this
+					.collectReferencedVariables());
+		}
+	}
+
+	protected void cacheVariablesOfChildren() {
+	}
+
+	protected SortedSet<String> collectAssignedVariables() {
+		return VariableSet.EMPTY;
 	}
 
-	public SortedSet<String> getReferencedVariables() {
-		return new TreeSet<String>();
+	protected SortedSet<String> collectReferencedVariables() {
+		return VariableSet.EMPTY;
 	}
 
 	public void setOwnerConditinalBlock(final BlockInfo ownerConditionalBlock) {
@@ -186,7 +186,43 @@ public class StatementInfo extends ProgramElementInfo implements BlockInfo {
 	}
 
 	@Override
-	public SortedSet<String> getAssignedVariables() {
+	protected void cacheVariablesOfChildren() {
+
+		for (final ProgramElementInfo expression : this.expressions) {
+			expression.cacheVariables();
+		}
+
+		for (final ProgramElementInfo initializer : this.initializers) {
+			initializer.cacheVariables();
+		}
+
+		if (null != this.condition) {
+			this.condition.cacheVariables();
+		}
+
+		for (final ProgramElementInfo updater : this.updaters) {
+			updater.cacheVariables();
+		}
+
+		for (final StatementInfo statement : this.statements) {
+			statement.cacheVariables();
+		}
+
+		for (final StatementInfo statement : this.elseStatements) {
+			statement.cacheVariables();
+		}
+
+		for (final StatementInfo catchStatement : this.catchStatements) {
+			catchStatement.cacheVariables();
+		}
+
+		if (null != this.finallyStatement) {
+			this.finallyStatement.cacheVariables();
+		}
+	}
+
+	@Override
+	protected SortedSet<String> collectAssignedVariables() {
 
 		final SortedSet<String> variables = new TreeSet<String>();
 
@@ -226,7 +262,7 @@ public class StatementInfo extends ProgramElementInfo implements BlockInfo {
 	}
 
 	@Override
-	public SortedSet<String> getReferencedVariables() {
+	protected SortedSet<String> collectReferencedVariables() {
 
 		final SortedSet<String> variables = new TreeSet<String>();
 
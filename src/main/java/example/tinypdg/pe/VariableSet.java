@@ -0,0 +1,140 @@
+package example.tinypdg.pe;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.SortedSet;
+
+/**
+ * An immutable set of variable names in their natural order, held in a
+ * sorted array. Lookups are binary searches, and subsets share the array of
+ * the set they are made from.
+ */
+final public class VariableSet extends AbstractSet<String> implements
+		SortedSet<String> {
+
+	final static public VariableSet EMPTY = new VariableSet(new String[0], 0,
+			0);
+
+	final private String[] variables;
+	final private int from;
+	final private int to;
+
+	public static VariableSet of(final Collection<String> variables) {
+		assert null != variables : "\"variables\" is null.";
+		if (variables.isEmpty()) {
+			return EMPTY;
+		}
+		if (variables instanceof VariableSet) {
+			return (VariableSet) variables;
+		}
+		final String[] array = variables.toArray(new String[0]);
+		Arrays.sort(array);
+		int length = 0;
+		for (int index = 0; index < array.length; index++) {
+			assert null != array[index] : "\"variables\" contains null.";
+			if ((0 == length) || !array[length - 1].equals(array[index])) {
+				array[length++] = array[index];
+			}
+		}
+		return new VariableSet(length == array.length ? array
+				: Arrays.copyOf(array, length), 0, length);
+	}
+
+	private VariableSet(final String[] variables, final int from, final int to) {
+		this.variables = variables;
+		this.from = from;
+		this.to = to;
+	}
+
+	@Override
+	public boolean contains(final Object o) {
+		return (o instanceof String)
+				&& (0 <= Arrays.binarySearch(this.variables, this.from,
+						this.to, o));
+	}
+
+	@Override
+	public int size() {
+		return this.to - this.from;
+	}
+
+	@Override
+	public Iterator<String> iterator() {
+		return new Iterator<String>() {
+
+			private int index = VariableSet.this.from;
+
+			@Override
+			public boolean hasNext() {
+				return this.index < VariableSet.this.to;
+			}
+
+			@Override
+			public String next() {
+				if (!this.hasNext()) {
+					throw new NoSuchElementException();
+				}
+				return VariableSet.this.variables[this.index++];
+			}
+
+			@Override
+			public void remove() {
+				throw new UnsupportedOperationException();
+			}
+		};
+	}
+
+	@Override
+	public Comparator<? super String> comparator() {
+		return null;
+	}
+
+	@Override
+	public String first() {
+		if (this.from == this.to) {
+			throw new NoSuchElementException();
+		}
+		return this.variables[this.from];
+	}
+
+	@Override
+	public String last() {
+		if (this.from == this.to) {
+			throw new NoSuchElementException();
+		}
+		return this.variables[this.to - 1];
+	}
+
+	@Override
+	public SortedSet<String> subSet(final String fromElement,
+			final String toElement) {
+		if (0 < fromElement.compareTo(toElement)) {
+			throw new IllegalArgumentException();
+		}
+		return new VariableSet(this.variables, this.lowerBound(fromElement),
+				this.lowerBound(toElement));
+	}
+
+	@Override
+	public SortedSet<String> headSet(final String toElement) {
+		return new VariableSet(this.variables, this.from,
+				this.lowerBound(toElement));
+	}
+
+	@Override
+	public SortedSet<String> tailSet(final String fromElement) {
+		return new VariableSet(this.variables, this.lowerBound(fromElement),
+				this.to);
+	}
+
+	// index of the first variable that is not less than the given one
+	private int lowerBound(final String variable) {
+		final int index = Arrays.binarySearch(this.variables, this.from,
+				this.to, variable);
+		return 0 <= index ? index : -index - 1;
+	}
+}
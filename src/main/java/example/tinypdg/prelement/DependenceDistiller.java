@@ -1,6 +1,7 @@
 package example.tinypdg.prelement;
 
 import java.io.File;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
@@ -17,10 +18,12 @@ import org.apache.commons.cli.CommandLineParser;
 import org.apache.commons.cli.Option;
 import org.apache.commons.cli.Options;
 import org.apache.commons.cli.PosixParser;
-import org.eclipse.jdt.core.dom.CompilationUnit;
 
+import example.tinypdg.ast.SourceParser;
 import example.tinypdg.ast.TinyPDGASTVisitor;
 import example.tinypdg.cfg.node.CFGNodeFactory;
+import example.tinypdg.metrics.Metrics;
+import example.tinypdg.pdg.FrozenPDG;
 import example.tinypdg.pdg.PDG;
 import example.tinypdg.pdg.edge.PDGControlDependenceEdge;
 import example.tinypdg.pdg.edge.PDGDataDependenceEdge;
@@ -32,8 +35,9 @@ import example.tinypdg.pe.MethodInfo;
 import example.tinypdg.prelement.data.DEPENDENCE_TYPE;
 import example.tinypdg.prelement.data.Frequency;
 import example.tinypdg.prelement.db.DAO;
-import example.tinypdg.scorpio.NormalizedText;
+import example.tinypdg.scorpio.NormalizedTextCache;
 import example.tinypdg.scorpio.PDGGenerationThread;
+import example.tinypdg.scorpio.ScorpioExecutor;
 
 public class DependenceDistiller {
 
@@ -77,6 +81,31 @@ public class DependenceDistiller {
 				options.addOption(t);
 			}
 
+			{
+				final Option e = new Option("e", "encoding", true,
+						"encoding of source files (UTF-8 by default, \"auto\" to detect)");
+				e.setArgName("charset");
+				e.setArgs(1);
+				e.setRequired(false);
+				options.addOption(e);
+			}
+
+			{
+				final Option B = new Option("B", "batch", false,
+						"parse source files in batches");
+				B.setRequired(false);
+				options.addOption(B);
+			}
+
+			{
+				final Option m = new Option("m", "metrics", true,
+						"output file of metrics in JSON");
+				m.setArgName("file");
+				m.setArgs(1);
+				m.setRequired(false);
+				options.addOption(m);
+			}
+
 			final CommandLineParser parser = new PosixParser();
 			final CommandLine cmd = parser.parse(options, args);
 
@@ -93,47 +122,54 @@ public class DependenceDistiller {
 					.parseInt(cmd.getOptionValue("s")) : 5;
 			final int NUMBER_OF_THREADS = cmd.hasOption("t") ? Integer
 					.parseInt(cmd.getOptionValue("t")) : 1;
+			Charset charset = TinyPDGASTVisitor.DEFAULT_CHARSET;
+			if (cmd.hasOption("e")) {
+				try {
+					charset = SourceParser.getCharset(cmd.getOptionValue("e"));
+				} catch (final IllegalArgumentException e) {
+					System.err
+							.println("option of \"-e\" must be a supported charset or \"auto\".");
+					System.exit(0);
+				}
+			}
+
+			final NormalizedTextCache normalizedTexts = new NormalizedTextCache();
+
+			final Metrics metrics = new Metrics("DependenceDistiller");
 
 			final long time1 = System.nanoTime();
 			System.out.print("generating PDGs ... ");
+			final Metrics.Phase generation = metrics
+					.startPhase("generating PDGs");
 			final PDG[] pdgArray;
 			{
 				final List<File> files = getFiles(target);
-				final List<MethodInfo> methods = new ArrayList<MethodInfo>();
-				for (final File file : files) {
-					final CompilationUnit unit = TinyPDGASTVisitor
-							.createAST(file);
-					final TinyPDGASTVisitor visitor = new TinyPDGASTVisitor(
-							file.getAbsolutePath(), unit, methods);
-					unit.accept(visitor);
-				}
+				final List<MethodInfo> methods = new SourceParser(
+						NUMBER_OF_THREADS, charset, cmd.hasOption("B"))
+						.parse(files);
+				metrics.set("files", files.size());
+				metrics.set("methods", methods.size());
 
 				final SortedSet<PDG> pdgs = Collections
 						.synchronizedSortedSet(new TreeSet<PDG>());
 				final CFGNodeFactory cfgNodeFactory = new CFGNodeFactory();
 				final PDGNodeFactory pdgNodeFactory = new PDGNodeFactory();
-				final Thread[] pdgGenerationThreads = new Thread[NUMBER_OF_THREADS];
-				for (int i = 0; i < pdgGenerationThreads.length; i++) {
-					pdgGenerationThreads[i] = new Thread(
-							new PDGGenerationThread(methods, pdgs,
-									cfgNodeFactory, pdgNodeFactory, true, true,
-									true, false, SIZE_THRESHOLD));
-					pdgGenerationThreads[i].start();
-				}
-				for (final Thread thread : pdgGenerationThreads) {
-					try {
-						thread.join();
-					} catch (InterruptedException e) {
-						e.printStackTrace();
-					}
-				}
+				final ScorpioExecutor executor = new ScorpioExecutor(
+						NUMBER_OF_THREADS);
+				executor.execute(new PDGGenerationThread(methods, pdgs,
+						cfgNodeFactory, pdgNodeFactory, true, true, true,
+						false, SIZE_THRESHOLD, normalizedTexts));
+				executor.shutdown();
 				pdgArray = pdgs.toArray(new PDG[0]);
 			}
+			generation.end();
 			System.out.print("done: ");
 			final long time2 = System.nanoTime();
 			printTime(time2 - time1);
 
 			System.out.print("distilling dependencies ... ");
+			final Metrics.Phase distillation = metrics
+					.startPhase("distilling dependencies");
 			final ConcurrentMap<Integer, String> texts = new ConcurrentHashMap<Integer, String>();
 			final ConcurrentMap<Integer, AtomicInteger> fromNodeFrequencies = new ConcurrentHashMap<Integer, AtomicInteger>();
 			final ConcurrentMap<Integer, ConcurrentMap<Integer, AtomicInteger>> toNodeControlFrequencies = new ConcurrentHashMap<Integer, ConcurrentMap<Integer, AtomicInteger>>();
@@ -144,7 +180,8 @@ public class DependenceDistiller {
 				for (final PDGNode<?> fromNode : nodes) {
 
 					// generate a hash value from fromNode
-					final String fromNodeNormalizedText = getNormalizedText(fromNode);
+					final String fromNodeNormalizedText = getNormalizedText(fromNode,
+							normalizedTexts);
 					final int fromNodeHash = fromNodeNormalizedText.hashCode();
 
 					// make mapping between hash value and normalized text
@@ -162,7 +199,8 @@ public class DependenceDistiller {
 
 					final SortedSet<PDGEdge> edges = fromNode.getForwardEdges();
 					for (final PDGEdge edge : edges) {
-						final String toNodeNormalizedText = getNormalizedText(edge.toNode);
+						final String toNodeNormalizedText = getNormalizedText(
+								edge.toNode, normalizedTexts);
 						final int toNodeHash = toNodeNormalizedText.hashCode();
 						if (edge instanceof PDGControlDependenceEdge) {
 							addToNodeHash(fromNodeHash, toNodeHash,
@@ -177,11 +215,14 @@ public class DependenceDistiller {
 					}
 				}
 			}
+			distillation.end();
 			System.out.print("done: ");
 			final long time3 = System.nanoTime();
 			printTime(time3 - time2);
 
 			System.out.print("sorting frequencies ... ");
+			final Metrics.Phase sorting = metrics
+					.startPhase("sorting frequencies");
 			final ConcurrentMap<Integer, List<Frequency>> frequenciesForControlDependence = new ConcurrentHashMap<Integer, List<Frequency>>();
 			final ConcurrentMap<Integer, List<Frequency>> frequenciesForDataDependence = new ConcurrentHashMap<Integer, List<Frequency>>();
 			final ConcurrentMap<Integer, List<Frequency>> frequenciesForExecutionDependence = new ConcurrentHashMap<Integer, List<Frequency>>();
@@ -192,11 +233,14 @@ public class DependenceDistiller {
 			calculateFrequencies(fromNodeFrequencies,
 					toNodeExecutionFrequencies, texts,
 					frequenciesForExecutionDependence);
+			sorting.end();
 			System.out.print("done: ");
 			final long time4 = System.nanoTime();
 			printTime(time4 - time3);
 
 			System.out.print("registering to database ... ");
+			final Metrics.Phase registration = metrics
+					.startPhase("registering to database");
 			final DAO dao = new DAO(database, true);
 			registerTextsToDatabase(dao, texts);
 			registerFrequenciesToDatabase(dao, DEPENDENCE_TYPE.CONTROL,
@@ -206,6 +250,7 @@ public class DependenceDistiller {
 			registerFrequenciesToDatabase(dao, DEPENDENCE_TYPE.EXECUTION,
 					frequenciesForExecutionDependence);
 			dao.close();
+			registration.end();
 			System.out.print("done: ");
 			final long time5 = System.nanoTime();
 			printTime(time5 - time4);
@@ -213,6 +258,17 @@ public class DependenceDistiller {
 			System.out.print("total elapsed time: ");
 			printTime(time5 - time1);
 
+			if (cmd.hasOption("m")) {
+				metrics.set("pdgs", pdgArray.length);
+				for (final PDG pdg : pdgArray) {
+					final FrozenPDG graph = pdg.freeze();
+					metrics.record("pdgNodes", graph.getNumberOfNodes());
+					metrics.record("pdgEdges", graph.getNumberOfEdges());
+				}
+				metrics.set("texts", texts.size());
+				metrics.write(new File(cmd.getOptionValue("m")));
+			}
+
 			// printFrequencies("control", texts, frequenciesForControlDependence);
 			// printFrequencies("data", texts, frequenciesForDataDependence);
 			// printFrequencies("execution", texts,
@@ -266,12 +322,9 @@ public class DependenceDistiller {
 		frequency.incrementAndGet();
 	}
 
-	private static String getNormalizedText(final PDGNode<?> node) {
-		final NormalizedText fromNodeNormalizedText1 = new NormalizedText(
-				node.core);
-		final String fromNodeNormalizedText2 = NormalizedText
-				.normalize(fromNodeNormalizedText1.getText());
-		return fromNodeNormalizedText2;
+	private static String getNormalizedText(final PDGNode<?> node,
+			final NormalizedTextCache texts) {
+		return texts.getText(node.core);
 	}
 
 	private static void calculateFrequencies(
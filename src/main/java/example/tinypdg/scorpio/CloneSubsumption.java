@@ -0,0 +1,223 @@
+package example.tinypdg.scorpio;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import example.tinypdg.scorpio.data.ClonePairRecord;
+
+public class CloneSubsumption {
+
+	final private SortedSet<ClonePairRecord> clonepairs;
+	final private float threshold;
+
+	public CloneSubsumption(final SortedSet<ClonePairRecord> clonepairs,
+			final float threshold) {
+		assert null != clonepairs : "\"clonepairs\" is null.";
+		this.clonepairs = clonepairs;
+		this.threshold = threshold;
+	}
+
+	/**
+	 * Returns the given records without the subsumed ones. The records have
+	 * to be given in their order, and are held in memory only for one left
+	 * file at a time. Clone pairs only subsume each other if they share
+	 * nodes of their left methods, and the element IDs of a file are
+	 * consecutive, so the clone pairs that can subsume each other come
+	 * together.
+	 */
+	public static Iterator<ClonePairRecord> filter(
+			final Iterator<ClonePairRecord> records, final float threshold) {
+
+		assert null != records : "\"records\" is null.";
+
+		return new Iterator<ClonePairRecord>() {
+
+			private ClonePairRecord pending = records.hasNext() ? records
+					.next() : null;
+			private Iterator<ClonePairRecord> group = Collections
+					.<ClonePairRecord> emptyList().iterator();
+
+			@Override
+			public boolean hasNext() {
+				while (!this.group.hasNext() && (null != this.pending)) {
+					final SortedSet<ClonePairRecord> clonepairs = new TreeSet<ClonePairRecord>();
+					final String pathA = this.pending.pathA;
+					while ((null != this.pending)
+							&& pathA.equals(this.pending.pathA)) {
+						clonepairs.add(this.pending);
+						this.pending = records.hasNext() ? records.next()
+								: null;
+					}
+					new CloneSubsumption(clonepairs, threshold).perform();
+					this.group = clonepairs.iterator();
+				}
+				return this.group.hasNext();
+			}
+
+			@Override
+			public ClonePairRecord next() {
+				if (!this.hasNext()) {
+					throw new NoSuchElementException();
+				}
+				return this.group.next();
+			}
+
+			@Override
+			public void remove() {
+				throw new UnsupportedOperationException();
+			}
+		};
+	}
+
+	public int perform() {
+
+		final ClonePairRecord[] pairs = this.clonepairs
+				.toArray(new ClonePairRecord[0]);
+
+		// a pair is subsumed by any later pair (in the set order) that is
+		// at least as large and shares enough nodes on both sides, pairs
+		// sharing nodes always share paths and overlap in their node ranges
+		final Integer[] order = new Integer[pairs.length];
+		for (int index = 0; index < pairs.length; index++) {
+			order[index] = index;
+		}
+		Arrays.sort(order, new Comparator<Integer>() {
+
+			@Override
+			public int compare(final Integer o1, final Integer o2) {
+				final ClonePairRecord pair1 = pairs[o1];
+				final ClonePairRecord pair2 = pairs[o2];
+				final int pathAOrder = pair1.pathA.compareTo(pair2.pathA);
+				if (0 != pathAOrder) {
+					return pathAOrder;
+				}
+				final int pathBOrder = pair1.pathB.compareTo(pair2.pathB);
+				if (0 != pathBOrder) {
+					return pathBOrder;
+				}
+				return Integer.compare(getFirst(pair1.getLeftNodeIDs()),
+						getFirst(pair2.getLeftNodeIDs()));
+			}
+		});
+
+		final boolean[] subsumed = new boolean[pairs.length];
+		final int[] active = new int[pairs.length];
+		int numberOfActives = 0;
+		for (int position = 0; position < order.length; position++) {
+
+			final int current = order[position];
+			final ClonePairRecord pair = pairs[current];
+			final int[] left = pair.getLeftNodeIDs();
+			final int[] right = pair.getRightNodeIDs();
+			if ((0 == left.length) || (0 == right.length)) {
+				continue;
+			}
+
+			if ((0 < numberOfActives)
+					&& !samePaths(pairs[active[0]], pair)) {
+				numberOfActives = 0;
+			}
+
+			int remaining = 0;
+			for (int a = 0; a < numberOfActives; a++) {
+
+				final int other = active[a];
+				final int[] otherLeft = pairs[other].getLeftNodeIDs();
+				if (getLast(otherLeft) < left[0]) {
+					continue;
+				}
+				active[remaining++] = other;
+
+				final int[] otherRight = pairs[other].getRightNodeIDs();
+				if ((getLast(otherRight) < right[0])
+						|| (getLast(right) < otherRight[0])) {
+					continue;
+				}
+
+				final int i = Math.min(current, other);
+				final int j = Math.max(current, other);
+				if (subsumed[i]) {
+					continue;
+				}
+				if ((pairs[i].size() <= pairs[j].size())
+						&& this.sameOnOkValue(pairs[i], pairs[j])) {
+					subsumed[i] = true;
+				}
+			}
+			active[remaining++] = current;
+			numberOfActives = remaining;
+		}
+
+		int numberOfSubsumed = 0;
+		for (int index = 0; index < pairs.length; index++) {
+			if (subsumed[index]) {
+				this.clonepairs.remove(pairs[index]);
+				numberOfSubsumed++;
+			}
+		}
+		return numberOfSubsumed;
+	}
+
+	private boolean sameOnOkValue(final ClonePairRecord pair1,
+			final ClonePairRecord pair2) {
+
+		final int[] nodes1A = pair1.getLeftNodeIDs();
+		final int[] nodes2A = pair2.getLeftNodeIDs();
+		final int intersectionA = countIntersection(nodes1A, nodes2A);
+		if (0 == intersectionA) {
+			return false;
+		}
+
+		final int[] nodes1B = pair1.getRightNodeIDs();
+		final int[] nodes2B = pair2.getRightNodeIDs();
+		final int intersectionB = countIntersection(nodes1B, nodes2B);
+		if (0 == intersectionB) {
+			return false;
+		}
+
+		final float ok = Math.min(Math.max((float) intersectionA
+				/ (float) nodes1A.length, (float) intersectionA
+				/ (float) nodes2A.length), Math.max((float) intersectionB
+				/ (float) nodes1B.length, (float) intersectionB
+				/ (float) nodes2B.length));
+
+		return this.threshold <= ok;
+	}
+
+	private static boolean samePaths(final ClonePairRecord pair1,
+			final ClonePairRecord pair2) {
+		return pair1.pathA.equals(pair2.pathA)
+				&& pair1.pathB.equals(pair2.pathB);
+	}
+
+	private static int countIntersection(final int[] ids1, final int[] ids2) {
+		int count = 0;
+		int index1 = 0;
+		int index2 = 0;
+		while ((index1 < ids1.length) && (index2 < ids2.length)) {
+			if (ids1[index1] < ids2[index2]) {
+				index1++;
+			} else if (ids1[index1] > ids2[index2]) {
+				index2++;
+			} else {
+				count++;
+				index1++;
+				index2++;
+			}
+		}
+		return count;
+	}
+
+	private static int getFirst(final int[] ids) {
+		return 0 < ids.length ? ids[0] : Integer.MAX_VALUE;
+	}
+
+	private static int getLast(final int[] ids) {
+		return ids[ids.length - 1];
+	}
+}
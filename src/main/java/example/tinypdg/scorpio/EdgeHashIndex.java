@@ -0,0 +1,106 @@
+package example.tinypdg.scorpio;
+
+import java.util.Arrays;
+import java.util.SortedMap;
+
+import example.tinypdg.pdg.PDG;
+import example.tinypdg.pdg.edge.PDGEdge;
+
+public class EdgeHashIndex {
+
+	final private int numberOfPDGs;
+	final private long[] hashes;
+	final private int[] offsets;
+	final private int[] postings;
+
+	public EdgeHashIndex(final PDG[] pdgs,
+			final SortedMap<PDG, HashBucketTable<PDGEdge>> mappingPDGToPDGEdges) {
+
+		assert null != pdgs : "\"pdgs\" is null.";
+		assert null != mappingPDGToPDGEdges : "\"mappingPDGToPDGEdges\" is null.";
+
+		final long[][] hashesOfPDGs = new long[pdgs.length][];
+		int total = 0;
+		for (int index = 0; index < pdgs.length; index++) {
+			final HashBucketTable<PDGEdge> edgeBuckets = mappingPDGToPDGEdges
+					.get(pdgs[index]);
+			final int numberOfBuckets = null != edgeBuckets ? edgeBuckets
+					.getNumberOfBuckets() : 0;
+			hashesOfPDGs[index] = new long[numberOfBuckets];
+			for (int bucket = 0; bucket < numberOfBuckets; bucket++) {
+				hashesOfPDGs[index][bucket] = edgeBuckets.getHash(bucket);
+			}
+			total += numberOfBuckets;
+		}
+
+		final long[] entries = new long[total];
+		for (int index = 0, entry = 0; index < pdgs.length; index++) {
+			System.arraycopy(hashesOfPDGs[index], 0, entries, entry,
+					hashesOfPDGs[index].length);
+			entry += hashesOfPDGs[index].length;
+		}
+		Arrays.sort(entries);
+
+		int numberOfHashes = 0;
+		for (int entry = 0; entry < entries.length; entry++) {
+			if ((0 == entry) || (entries[entry] != entries[entry - 1])) {
+				entries[numberOfHashes++] = entries[entry];
+			}
+		}
+		this.hashes = Arrays.copyOf(entries, numberOfHashes);
+
+		// postings are filled in PDG order, so that each posting list is
+		// sorted by PDG index
+		final int[][] keysOfPDGs = new int[pdgs.length][];
+		this.offsets = new int[numberOfHashes + 1];
+		for (int index = 0; index < pdgs.length; index++) {
+			keysOfPDGs[index] = new int[hashesOfPDGs[index].length];
+			for (int bucket = 0; bucket < hashesOfPDGs[index].length; bucket++) {
+				final int key = Arrays.binarySearch(this.hashes,
+						hashesOfPDGs[index][bucket]);
+				assert 0 <= key : "invalid status.";
+				keysOfPDGs[index][bucket] = key;
+				this.offsets[key + 1]++;
+			}
+		}
+		for (int key = 0; key < numberOfHashes; key++) {
+			this.offsets[key + 1] += this.offsets[key];
+		}
+		this.numberOfPDGs = pdgs.length;
+		this.postings = new int[total];
+		final int[] positions = Arrays.copyOf(this.offsets, numberOfHashes);
+		for (int index = 0; index < pdgs.length; index++) {
+			for (final int key : keysOfPDGs[index]) {
+				this.postings[positions[key]++] = index;
+			}
+		}
+	}
+
+	public int size() {
+		return this.numberOfPDGs;
+	}
+
+	public int getNumberOfHashes() {
+		return this.hashes.length;
+	}
+
+	public boolean hasCandidate(final long[] hashes, final int threshold) {
+
+		assert null != hashes : "\"hashes\" is null.";
+		assert 0 < threshold : "\"threshold\" must be greater than 0.";
+
+		final int[] counts = new int[this.size()];
+		for (final long hash : hashes) {
+			final int key = Arrays.binarySearch(this.hashes, hash);
+			if (key < 0) {
+				continue;
+			}
+			for (int posting = this.offsets[key]; posting < this.offsets[key + 1]; posting++) {
+				if (threshold <= ++counts[this.postings[posting]]) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+}
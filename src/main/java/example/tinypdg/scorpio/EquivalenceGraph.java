@@ -0,0 +1,83 @@
+package example.tinypdg.scorpio;
+
+import example.tinypdg.pdg.FrozenPDG;
+
+public class EquivalenceGraph {
+
+	final public FrozenPDG graph;
+	final private int[] nodeClasses;
+	final private int[] edgeClassSizes;
+	final private int[] forwardEdges;
+	final private int[] backwardEdges;
+
+	public EquivalenceGraph(final FrozenPDG graph, final int[] nodeClasses,
+			final int[] edgeClassSizes) {
+
+		assert null != graph : "\"graph\" is null.";
+		assert null != nodeClasses : "\"nodeClasses\" is null.";
+		assert null != edgeClassSizes : "\"edgeClassSizes\" is null.";
+		assert graph.getNumberOfNodes() == nodeClasses.length : "\"nodeClasses\" has an invalid length.";
+		assert graph.getNumberOfEdges() == edgeClassSizes.length : "\"edgeClassSizes\" has an invalid length.";
+
+		this.graph = graph;
+		this.nodeClasses = nodeClasses;
+		this.edgeClassSizes = edgeClassSizes;
+
+		final int numberOfNodes = graph.getNumberOfNodes();
+		this.forwardEdges = new int[graph.getForwardBegin(numberOfNodes)];
+		this.backwardEdges = new int[graph.getBackwardBegin(numberOfNodes)];
+		for (int node = 0; node < numberOfNodes; node++) {
+			for (int position = graph.getForwardBegin(node); position < graph
+					.getForwardEnd(node); position++) {
+				this.forwardEdges[position] = graph.getForwardEdge(position);
+			}
+			this.sort(this.forwardEdges, graph.getForwardBegin(node),
+					graph.getForwardEnd(node));
+			for (int position = graph.getBackwardBegin(node); position < graph
+					.getBackwardEnd(node); position++) {
+				this.backwardEdges[position] = graph.getBackwardEdge(position);
+			}
+			this.sort(this.backwardEdges, graph.getBackwardBegin(node),
+					graph.getBackwardEnd(node));
+		}
+	}
+
+	public int getNodeClass(final int node) {
+		return this.nodeClasses[node];
+	}
+
+	public int getEdgeClassSize(final int edge) {
+		return this.edgeClassSizes[edge];
+	}
+
+	public int getForwardEdge(final int position) {
+		return this.forwardEdges[position];
+	}
+
+	public int getBackwardEdge(final int position) {
+		return this.backwardEdges[position];
+	}
+
+	// edges of a node are visited from the smallest equivalence class,
+	// ties are kept in the order of the frozen graph
+	private void sort(final int[] edges, final int begin, final int end) {
+		for (int i = begin + 1; i < end; i++) {
+			final int edge = edges[i];
+			int j = i - 1;
+			while ((begin <= j) && (this.compare(edge, edges[j]) < 0)) {
+				edges[j + 1] = edges[j];
+				j--;
+			}
+			edges[j + 1] = edge;
+		}
+	}
+
+	private int compare(final int edge1, final int edge2) {
+		final int size1 = this.edgeClassSizes[edge1];
+		final int size2 = this.edgeClassSizes[edge2];
+		if (size1 != size2) {
+			return size1 < size2 ? -1 : 1;
+		}
+		return edge1 < edge2 ? -1 : edge1 > edge2 ? 1 : 0;
+	}
+}
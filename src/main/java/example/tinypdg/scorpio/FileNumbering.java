@@ -0,0 +1,93 @@
+package example.tinypdg.scorpio;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import example.tinypdg.ast.SourceParser;
+import example.tinypdg.pe.ProgramElementInfo;
+
+/**
+ * Numbers the elements of some of the target files as if all of them were
+ * parsed in order: the first element of a file takes the ID after the ones
+ * taken by all the preceding files. The numbers of IDs taken by the files
+ * that are not parsed have to be set beforehand, and the ones of the parsed
+ * files are counted after they are visited, which happens in file order.
+ * Files parsed in separate passes over the same numbering therefore get
+ * IDs in the same relative order as in a full run.
+ */
+class FileNumbering implements SourceParser.Numbering {
+
+	final private List<File> files;
+	final private int firstID;
+	final private Map<String, Integer> numbersOfIDs;
+	final private Map<String, Integer> firstIDs;
+
+	// the file that was numbered last and its first ID
+	private int position;
+	private int nextID;
+
+	FileNumbering(final List<File> files, final int firstID) {
+		assert null != files : "\"files\" is null.";
+		this.files = files;
+		this.firstID = firstID;
+		this.numbersOfIDs = new HashMap<String, Integer>();
+		this.firstIDs = new HashMap<String, Integer>();
+		this.position = 0;
+		this.nextID = firstID;
+	}
+
+	/**
+	 * Returns a numbering of the same files from the same first ID, which
+	 * knows the numbers of IDs known to this one.
+	 */
+	FileNumbering restart() {
+		final FileNumbering numbering = new FileNumbering(this.files,
+				this.firstID);
+		numbering.numbersOfIDs.putAll(this.numbersOfIDs);
+		return numbering;
+	}
+
+	void setNumberOfIDs(final File file, final int numberOfIDs) {
+		assert 0 <= numberOfIDs : "\"numberOfIDs\" must not be negative.";
+		this.numbersOfIDs.put(file.getAbsolutePath(), numberOfIDs);
+	}
+
+	int getNumberOfIDs(final File file) {
+		final Integer number = this.numbersOfIDs.get(file.getAbsolutePath());
+		return null != number ? number : 0;
+	}
+
+	/**
+	 * Counts the IDs taken by the given file, which has just been visited.
+	 */
+	void count(final File file) {
+		final String path = file.getAbsolutePath();
+		assert this.firstIDs.containsKey(path) : "\"file\" is not numbered.";
+		this.numbersOfIDs.put(path,
+				ProgramElementInfo.getNextID() - this.firstIDs.get(path));
+	}
+
+	/**
+	 * Returns the ID after the ones taken by all the files.
+	 */
+	int getEndID() {
+		int id = this.firstID;
+		for (final File file : this.files) {
+			id += this.getNumberOfIDs(file);
+		}
+		return id;
+	}
+
+	@Override
+	public int getFirstID(final File file) {
+		final String path = file.getAbsolutePath();
+		while (!this.files.get(this.position).getAbsolutePath().equals(path)) {
+			this.nextID += this.getNumberOfIDs(this.files.get(this.position));
+			this.position++;
+		}
+		this.firstIDs.put(path, this.nextID);
+		return this.nextID;
+	}
+}
@@ -0,0 +1,132 @@
+package example.tinypdg.scorpio;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+public class HashBucketTable<T> {
+
+	final private long[] hashes;
+	final private int[] offsets;
+	final private Object[] elements;
+	final private int[] indices;
+
+	public HashBucketTable(final List<T> elements, final long[] hashes) {
+
+		assert null != elements : "\"elements\" is null.";
+		assert null != hashes : "\"hashes\" is null.";
+		assert elements.size() == hashes.length : "\"elements\" and \"hashes\" have different sizes.";
+
+		final Integer[] order = new Integer[hashes.length];
+		for (int index = 0; index < hashes.length; index++) {
+			order[index] = index;
+		}
+		Arrays.sort(order, new Comparator<Integer>() {
+
+			@Override
+			public int compare(final Integer o1, final Integer o2) {
+				return Long.compare(hashes[o1], hashes[o2]);
+			}
+		});
+
+		int numberOfBuckets = 0;
+		for (int entry = 0; entry < order.length; entry++) {
+			if ((0 == entry)
+					|| (hashes[order[entry]] != hashes[order[entry - 1]])) {
+				numberOfBuckets++;
+			}
+		}
+
+		this.hashes = new long[numberOfBuckets];
+		this.offsets = new int[numberOfBuckets + 1];
+		this.elements = new Object[order.length];
+		this.indices = new int[order.length];
+		for (int entry = 0, bucket = -1; entry < order.length; entry++) {
+			final long hash = hashes[order[entry]];
+			if ((-1 == bucket) || (hash != this.hashes[bucket])) {
+				bucket++;
+				this.hashes[bucket] = hash;
+				this.offsets[bucket] = entry;
+			}
+			this.indices[entry] = order[entry];
+			this.elements[entry] = elements.get(this.indices[entry]);
+		}
+		this.offsets[numberOfBuckets] = order.length;
+	}
+
+	public int getNumberOfBuckets() {
+		return this.hashes.length;
+	}
+
+	public int getNumberOfElements() {
+		return this.elements.length;
+	}
+
+	public long getHash(final int bucket) {
+		return this.hashes[bucket];
+	}
+
+	public long[] getHashes() {
+		return this.hashes.clone();
+	}
+
+	public int getBucketSize(final int bucket) {
+		return this.offsets[bucket + 1] - this.offsets[bucket];
+	}
+
+	@SuppressWarnings("unchecked")
+	public T getElement(final int bucket, final int index) {
+		assert 0 <= index && index < this.getBucketSize(bucket) : "\"index\" is out of range.";
+		return (T) this.elements[this.offsets[bucket] + index];
+	}
+
+	public int getIndex(final int bucket, final int index) {
+		assert 0 <= index && index < this.getBucketSize(bucket) : "\"index\" is out of range.";
+		return this.indices[this.offsets[bucket] + index];
+	}
+
+	public void copyBucket(final int bucket, final T[] destination,
+			final int position) {
+		System.arraycopy(this.elements, this.offsets[bucket], destination,
+				position, this.getBucketSize(bucket));
+	}
+
+	public int[] join(final HashBucketTable<T> table) {
+
+		final int numberOfBuckets1 = this.getNumberOfBuckets();
+		final int numberOfBuckets2 = null != table ? table
+				.getNumberOfBuckets() : 0;
+		final int[] joined = new int[(numberOfBuckets1 + numberOfBuckets2) * 2];
+
+		int length = 0;
+		int bucket1 = 0;
+		int bucket2 = 0;
+		while ((bucket1 < numberOfBuckets1) || (bucket2 < numberOfBuckets2)) {
+
+			if ((numberOfBuckets2 <= bucket2)
+					|| ((bucket1 < numberOfBuckets1) && (this.hashes[bucket1] < table.hashes[bucket2]))) {
+				if (1 < this.getBucketSize(bucket1)) {
+					joined[length++] = bucket1;
+					joined[length++] = -1;
+				}
+				bucket1++;
+			}
+
+			else if ((numberOfBuckets1 <= bucket1)
+					|| (this.hashes[bucket1] > table.hashes[bucket2])) {
+				if (1 < table.getBucketSize(bucket2)) {
+					joined[length++] = -1;
+					joined[length++] = bucket2;
+				}
+				bucket2++;
+			}
+
+			else {
+				joined[length++] = bucket1++;
+				joined[length++] = bucket2++;
+			}
+		}
+
+		return Arrays.copyOf(joined, length);
+	}
+}
@@ -1,84 +1,91 @@
 package example.tinypdg.scorpio;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.SortedMap;
-import java.util.TreeMap;
-import java.util.concurrent.atomic.AtomicInteger;
 
+import example.tinypdg.pdg.FrozenPDG;
 import example.tinypdg.pdg.PDG;
 import example.tinypdg.pdg.edge.PDGEdge;
 import example.tinypdg.pdg.node.PDGNode;
 
-public class HashCalculationThread implements Runnable {
-
-	final static private AtomicInteger INDEX = new AtomicInteger(0);
+public class HashCalculationThread implements IndexedTask {
 
 	final private PDG[] pdgs;
-	final private SortedMap<PDG, SortedMap<PDGNode<?>, Integer>> mappingPDGToPDGNodes;
-	final private SortedMap<PDG, SortedMap<PDGEdge, Integer>> mappingPDGToPDGEdges;
+	final private SortedMap<PDG, HashBucketTable<PDGNode<?>>> mappingPDGToPDGNodes;
+	final private SortedMap<PDG, HashBucketTable<PDGEdge>> mappingPDGToPDGEdges;
+	final private NormalizedTextCache texts;
+
+	public HashCalculationThread(
+			final SortedMap<PDG, HashBucketTable<PDGNode<?>>> mappingPDGToPDGNodes,
+			final SortedMap<PDG, HashBucketTable<PDGEdge>> mappingPDGToPDGEdges,
+			final NormalizedTextCache texts) {
+		this(new PDG[0], mappingPDGToPDGNodes, mappingPDGToPDGEdges, texts);
+	}
 
 	public HashCalculationThread(
 			final PDG[] pdgs,
-			final SortedMap<PDG, SortedMap<PDGNode<?>, Integer>> mappingPDGToPDGNodes,
-			final SortedMap<PDG, SortedMap<PDGEdge, Integer>> mappingPDGToPDGEdges) {
+			final SortedMap<PDG, HashBucketTable<PDGNode<?>>> mappingPDGToPDGNodes,
+			final SortedMap<PDG, HashBucketTable<PDGEdge>> mappingPDGToPDGEdges,
+			final NormalizedTextCache texts) {
 
 		assert null != pdgs : "\"pdgs\" is null.";
 		assert null != mappingPDGToPDGNodes : "\"mappingPDGToPDGNodes\" is null.";
 		assert null != mappingPDGToPDGEdges : "\"mappingPDGToPDGEdges\" is null.";
+		assert null != texts : "\"texts\" is null.";
 
 		this.pdgs = pdgs;
 		this.mappingPDGToPDGNodes = mappingPDGToPDGNodes;
 		this.mappingPDGToPDGEdges = mappingPDGToPDGEdges;
+		this.texts = texts;
 	}
 
 	@Override
-	public void run() {
-
-		for (int index = INDEX.getAndIncrement(); index < this.pdgs.length; index = INDEX
-				.getAndIncrement()) {
-
-			final PDG pdg = this.pdgs[index];
-
-			try {
-
-				final SortedMap<PDGNode<?>, Integer> mappingPDGNodeToHash = new TreeMap<PDGNode<?>, Integer>();
-				for (final PDGNode<?> node : pdg.getAllNodes()) {
-
-					final NormalizedText t1 = new NormalizedText(node.core);
-					final String t2 = NormalizedText.normalize(t1.getText());
-					final int hash = t2.hashCode();
-
-					mappingPDGNodeToHash.put(node, hash);
-				}
-				this.mappingPDGToPDGNodes.put(pdg, mappingPDGNodeToHash);
-
-				final SortedMap<PDGEdge, Integer> mappingPDGEdgeToHash = new TreeMap<PDGEdge, Integer>();
-				for (final PDGEdge edge : pdg.getAllEdges()) {
-
-					final NormalizedText t1 = new NormalizedText(
-							edge.fromNode.core);
-					final String fromNodeText = NormalizedText.normalize(t1
-							.getText());
-					final NormalizedText t2 = new NormalizedText(
-							edge.toNode.core);
-					final String toNodeText = NormalizedText.normalize(t2
-							.getText());
-					final StringBuilder edgeText = new StringBuilder();
-					edgeText.append(fromNodeText);
-					edgeText.append("-");
-					edgeText.append(edge.type.toString());
-					edgeText.append("->");
-					edgeText.append(toNodeText);
-					final int hash = edgeText.toString().hashCode();
-
-					mappingPDGEdgeToHash.put(edge, hash);
-				}
-				this.mappingPDGToPDGEdges.put(pdg, mappingPDGEdgeToHash);
-
-			} catch (Exception e) {
-				e.printStackTrace();
-				System.err.println("ERROR: failed to process the method "
-						+ pdg.unit.name + " in " + pdg.unit.path);
+	public int size() {
+		return this.pdgs.length;
+	}
+
+	@Override
+	public void process(final int index) {
+		this.calculate(this.pdgs[index]);
+	}
+
+	public void calculate(final PDG pdg) {
+
+		assert null != pdg : "\"pdg\" is null.";
+
+		try {
+
+			final FrozenPDG graph = pdg.freeze();
+
+			final int numberOfNodes = graph.getNumberOfNodes();
+			final List<PDGNode<?>> nodeList = new ArrayList<PDGNode<?>>(
+					numberOfNodes);
+			final long[] nodeHashes = new long[numberOfNodes];
+			for (int node = 0; node < numberOfNodes; node++) {
+				nodeHashes[node] = this.texts.getHash(graph.getNode(node).core);
+				nodeList.add(graph.getNode(node));
+			}
+			this.mappingPDGToPDGNodes.put(pdg,
+					new HashBucketTable<PDGNode<?>>(nodeList, nodeHashes));
+
+			final int numberOfEdges = graph.getNumberOfEdges();
+			final List<PDGEdge> edgeList = new ArrayList<PDGEdge>(
+					numberOfEdges);
+			final long[] edgeHashes = new long[numberOfEdges];
+			for (int edge = 0; edge < numberOfEdges; edge++) {
+				edgeHashes[edge] = StructuralHash.hash(
+						nodeHashes[graph.getFromNode(edge)],
+						graph.getType(edge), nodeHashes[graph.getToNode(edge)]);
+				edgeList.add(graph.getEdge(edge));
 			}
+			this.mappingPDGToPDGEdges.put(pdg, new HashBucketTable<PDGEdge>(
+					edgeList, edgeHashes));
+
+		} catch (Exception e) {
+			e.printStackTrace();
+			System.err.println("ERROR: failed to process the method "
+					+ pdg.unit.name + " in " + pdg.unit.path);
 		}
 	}
 }
@@ -0,0 +1,8 @@
+package example.tinypdg.scorpio;
+
+public interface IndexedTask {
+
+	int size();
+
+	void process(int index);
+}
@@ -0,0 +1,61 @@
+package example.tinypdg.scorpio;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import example.tinypdg.pe.ProgramElementInfo;
+
+public class NormalizedTextCache {
+
+	final private ConcurrentHashMap<Integer, CachedText> entries;
+
+	public NormalizedTextCache() {
+		this.entries = new ConcurrentHashMap<Integer, CachedText>();
+	}
+
+	public String getText(final ProgramElementInfo element) {
+		return this.getCachedText(element).text;
+	}
+
+	public long getHash(final ProgramElementInfo element) {
+		return this.getCachedText(element).hash;
+	}
+
+	public int size() {
+		return this.entries.size();
+	}
+
+	public void clear() {
+		this.entries.clear();
+	}
+
+	private CachedText getCachedText(final ProgramElementInfo element) {
+
+		assert null != element : "\"element\" is null.";
+
+		// the text is computed at most once even if threads ask for the
+		// same element together
+		return this.entries.computeIfAbsent(element.id,
+				new Function<Integer, CachedText>() {
+
+					@Override
+					public CachedText apply(final Integer id) {
+						final NormalizedText t1 = new NormalizedText(element);
+						final String t2 = NormalizedText.normalize(t1
+								.getText());
+						return new CachedText(t2, StructuralHash.hash(t2));
+					}
+				});
+	}
+
+	static class CachedText {
+
+		final String text;
+		final long hash;
+
+		CachedText(final String text, final long hash) {
+			this.text = text;
+			this.hash = hash;
+		}
+	}
+}
@@ -2,7 +2,6 @@ package example.tinypdg.scorpio;
 
 import java.util.List;
 import java.util.SortedSet;
-import java.util.concurrent.atomic.AtomicInteger;
 
 import example.tinypdg.cfg.node.CFGNodeFactory;
 import example.tinypdg.pdg.PDG;
@@ -10,9 +9,7 @@ import example.tinypdg.pdg.node.PDGNodeFactory;
 import example.tinypdg.pe.MethodInfo;
 import example.tinypdg.scorpio.pdg.PDGMergedNode;
 
-public class PDGGenerationThread implements Runnable {
-
-	final static private AtomicInteger INDEX = new AtomicInteger(0);
+public class PDGGenerationThread implements IndexedTask {
 
 	final private List<MethodInfo> methods;
 	final private SortedSet<PDG> pdgs;
@@ -23,16 +20,29 @@ public class PDGGenerationThread implements Runnable {
 	final private boolean useOfExecution;
 	final private boolean useOfMerging;
 	final private int threshold;
+	final private NormalizedTextCache texts;
 
 	public PDGGenerationThread(final List<MethodInfo> methods,
 			final SortedSet<PDG> pdgs, final CFGNodeFactory cfgNodeFactory,
 			final PDGNodeFactory pdgNodeFactory, final boolean useOfControl,
 			final boolean useOfData, final boolean useOfExecution,
 			final boolean useOfMerging, final int threshold) {
+		this(methods, pdgs, cfgNodeFactory, pdgNodeFactory, useOfControl,
+				useOfData, useOfExecution, useOfMerging, threshold,
+				new NormalizedTextCache());
+	}
+
+	public PDGGenerationThread(final List<MethodInfo> methods,
+			final SortedSet<PDG> pdgs, final CFGNodeFactory cfgNodeFactory,
+			final PDGNodeFactory pdgNodeFactory, final boolean useOfControl,
+			final boolean useOfData, final boolean useOfExecution,
+			final boolean useOfMerging, final int threshold,
+			final NormalizedTextCache texts) {
 		assert null != methods : "\"methods\" is null.";
 		assert null != pdgs : "\"pdgs\" is null.";
 		assert null != cfgNodeFactory : "\"cfgNodeFactory\" is null.";
 		assert null != pdgNodeFactory : "\"pdgNodeFactory\" is null.";
+		assert null != texts : "\"texts\" is null.";
 		this.methods = methods;
 		this.pdgs = pdgs;
 		this.cfgNodeFactory = cfgNodeFactory;
@@ -42,36 +52,54 @@ public class PDGGenerationThread implements Runnable {
 		this.useOfExecution = useOfExecution;
 		this.useOfMerging = useOfMerging;
 		this.threshold = threshold;
+		this.texts = texts;
 	}
 
 	@Override
-	public void run() {
-		for (int index = INDEX.getAndIncrement(); index < this.methods.size(); index = INDEX
-				.getAndIncrement()) {
-			final MethodInfo method = this.methods.get(index);
+	public int size() {
+		return this.methods.size();
+	}
 
-			try {
+	@Override
+	public void process(final int index) {
+		final PDG pdg = this.generate(this.methods.get(index));
+		if (null != pdg) {
+			this.pdgs.add(pdg);
+		}
+	}
+
+	public PDG generate(final MethodInfo method) {
 
-				final PDG pdg = new PDG(method, this.pdgNodeFactory,
-						this.cfgNodeFactory, this.useOfControl, this.useOfData,
-						this.useOfExecution, Integer.MAX_VALUE,
-						Integer.MAX_VALUE, Integer.MAX_VALUE);
+		assert null != method : "\"method\" is null.";
 
-				pdg.build();
-				if (pdg.getAllNodes().size() < this.threshold) {
-					continue;
-				}
+		try {
 
-				if (this.useOfMerging) {
-					PDGMergedNode.mergeNodes(pdg);
-				}
-				this.pdgs.add(pdg);
+			final PDG pdg = new PDG(method, this.pdgNodeFactory,
+					this.cfgNodeFactory, this.useOfControl, this.useOfData,
+					this.useOfExecution, Integer.MAX_VALUE, Integer.MAX_VALUE,
+					Integer.MAX_VALUE, true);
 
-			} catch (Exception e) {
-				e.printStackTrace();
-				System.err.println("ERROR: failed to process the method "
-						+ method.name + " in " + method.path);
+			pdg.build();
+			if (pdg.getAllNodes().size() < this.threshold) {
+				return null;
 			}
+
+			if (this.useOfMerging) {
+				PDGMergedNode.mergeNodes(pdg, this.texts);
+			}
+			pdg.freeze();
+			return pdg;
+
+		} catch (Exception e) {
+			e.printStackTrace();
+			System.err.println("ERROR: failed to process the method "
+					+ method.name + " in " + method.path);
+			return null;
+		} catch (StackOverflowError e) {
+			System.err.println("ERROR: failed to process the method "
+					+ method.name + " in " + method.path
+					+ " (stack overflow)");
+			return null;
 		}
 	}
 }
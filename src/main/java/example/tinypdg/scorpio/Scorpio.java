@@ -1,9 +1,18 @@
 package example.tinypdg.scorpio;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.SortedMap;
 import java.util.SortedSet;
 import java.util.TreeMap;
@@ -14,24 +23,38 @@ import org.apache.commons.cli.CommandLineParser;
 import org.apache.commons.cli.Option;
 import org.apache.commons.cli.Options;
 import org.apache.commons.cli.PosixParser;
-import org.eclipse.jdt.core.dom.CompilationUnit;
 
+import example.tinypdg.ast.SourceParser;
 import example.tinypdg.ast.TinyPDGASTVisitor;
 import example.tinypdg.cfg.node.CFGNodeFactory;
+import example.tinypdg.metrics.Metrics;
+import example.tinypdg.pdg.FrozenPDG;
 import example.tinypdg.pdg.PDG;
 import example.tinypdg.pdg.edge.PDGEdge;
 import example.tinypdg.pdg.node.PDGNode;
 import example.tinypdg.pdg.node.PDGNodeFactory;
 import example.tinypdg.pe.MethodInfo;
-import example.tinypdg.scorpio.data.ClonePairInfo;
+import example.tinypdg.pe.ProgramElementInfo;
+import example.tinypdg.scorpio.data.ClonePairLocation;
+import example.tinypdg.scorpio.data.ClonePairRecord;
 import example.tinypdg.scorpio.data.PDGPairInfo;
 import example.tinypdg.scorpio.io.BellonWriter;
+import example.tinypdg.scorpio.io.ClonePairSpool;
+import example.tinypdg.scorpio.io.PartialResult;
+import example.tinypdg.scorpio.io.ScorpioCache;
 import example.tinypdg.scorpio.io.Writer;
 
 public class Scorpio {
 
+	final static private int DEFAULT_BUFFER = 65536;
+
 	public static void main(String[] args) {
 
+		if ((0 < args.length) && args[0].equals("merge")) {
+			merge(Arrays.copyOfRange(args, 1, args.length));
+			return;
+		}
+
 		try {
 
 			final Options options = new Options();
@@ -70,6 +93,15 @@ public class Scorpio {
 				options.addOption(t);
 			}
 
+			{
+				final Option T = new Option("T", "stage-threads", true,
+						"number of threads of PDG generation, hash calculation and slicing (e.g. 4,2,8)");
+				T.setArgName("threads");
+				T.setArgs(1);
+				T.setRequired(false);
+				options.addOption(T);
+			}
+
 			{
 				final Option C = new Option("C", "control", true,
 						"use of control dependency");
@@ -106,6 +138,85 @@ public class Scorpio {
 				options.addOption(M);
 			}
 
+			{
+				final Option k = new Option("k", "sharing", true,
+						"minimum number of edge hashes shared by compared PDGs (0 compares all pairs)");
+				k.setArgName("number");
+				k.setArgs(1);
+				k.setRequired(false);
+				options.addOption(k);
+			}
+
+			{
+				final Option c = new Option("c", "cache", true,
+						"cache file for incremental detection");
+				c.setArgName("file");
+				c.setArgs(1);
+				c.setRequired(false);
+				options.addOption(c);
+			}
+
+			{
+				final Option e = new Option("e", "encoding", true,
+						"encoding of source files (UTF-8 by default, \"auto\" to detect)");
+				e.setArgName("charset");
+				e.setArgs(1);
+				e.setRequired(false);
+				options.addOption(e);
+			}
+
+			{
+				final Option B = new Option("B", "batch", false,
+						"parse source files in batches");
+				B.setRequired(false);
+				options.addOption(B);
+			}
+
+			{
+				final Option m = new Option("m", "metrics", true,
+						"output file of metrics in JSON");
+				m.setArgName("file");
+				m.setArgs(1);
+				m.setRequired(false);
+				options.addOption(m);
+			}
+
+			{
+				final Option x = new Option("x", "comparison-budget", true,
+						"maximum number of comparisons for slicing a PDG pair (0 means no limit)");
+				x.setArgName("number");
+				x.setArgs(1);
+				x.setRequired(false);
+				options.addOption(x);
+			}
+
+			{
+				final Option w = new Option("w", "time-budget", true,
+						"maximum milliseconds for slicing a PDG pair (0 means no limit)");
+				w.setArgName("milliseconds");
+				w.setArgs(1);
+				w.setRequired(false);
+				options.addOption(w);
+			}
+
+			{
+				final Option S = new Option("S", "shard", true,
+						"slice only the i-th of N partitions of PDG pairs and write a partial result to be merged");
+				S.setArgName("i/N");
+				S.setArgs(1);
+				S.setRequired(false);
+				options.addOption(S);
+			}
+
+			{
+				final Option b = new Option("b", "buffer", true,
+						"number of clone pairs buffered per thread before they are spilled to a temporary file");
+				b.setArgName("number");
+				b.setArgs(1);
+				b.setRequired(false);
+				options.addOption(b);
+			}
+
 			final CommandLineParser parser = new PosixParser();
 			final CommandLine cmd = parser.parse(options, args);
 
@@ -121,6 +232,94 @@ public class Scorpio {
 					.parseInt(cmd.getOptionValue("s"));
 			final int NUMBER_OF_THREADS = cmd.hasOption("t") ? Integer
 					.parseInt(cmd.getOptionValue("t")) : 1;
+			if (NUMBER_OF_THREADS < 1) {
+				System.err
+						.println("option of \"-t\" must be greater than 0.");
+				System.exit(0);
+			}
+			Charset charset = TinyPDGASTVisitor.DEFAULT_CHARSET;
+			if (cmd.hasOption("e")) {
+				try {
+					charset = SourceParser.getCharset(cmd.getOptionValue("e"));
+				} catch (final IllegalArgumentException e) {
+					System.err
+							.println("option of \"-e\" must be a supported charset or \"auto\".");
+					System.exit(0);
+				}
+			}
+
+			final int[] STAGE_THREADS = new int[] { NUMBER_OF_THREADS,
+					NUMBER_OF_THREADS, NUMBER_OF_THREADS };
+			if (cmd.hasOption("T")) {
+				final String[] values = cmd.getOptionValue("T").split(",");
+				if (STAGE_THREADS.length != values.length) {
+					System.err
+							.println("option of \"-T\" must have three numbers separated by commas.");
+					System.exit(0);
+				}
+				for (int i = 0; i < values.length; i++) {
+					STAGE_THREADS[i] = Integer.parseInt(values[i].trim());
+					if (STAGE_THREADS[i] < 1) {
+						System.err
+								.println("option of \"-T\" must be greater than 0.");
+						System.exit(0);
+					}
+				}
+			}
+			final int SHARING_THRESHOLD = cmd.hasOption("k") ? Integer
+					.parseInt(cmd.getOptionValue("k")) : 1;
+			if (SHARING_THRESHOLD < 0) {
+				System.err
+						.println("option of \"-k\" must not be negative.");
+				System.exit(0);
+			}
+
+			final long COMPARISON_BUDGET = cmd.hasOption("x") ? Long
+					.parseLong(cmd.getOptionValue("x")) : 0;
+			if (COMPARISON_BUDGET < 0) {
+				System.err
+						.println("option of \"-x\" must not be negative.");
+				System.exit(0);
+			}
+
+			final long TIME_BUDGET = cmd.hasOption("w") ? Long.parseLong(cmd
+					.getOptionValue("w")) : 0;
+			if (TIME_BUDGET < 0) {
+				System.err
+						.println("option of \"-w\" must not be negative.");
+				System.exit(0);
+			}
+
+			final int BUFFER = cmd.hasOption("b") ? Integer.parseInt(cmd
+					.getOptionValue("b")) : DEFAULT_BUFFER;
+			if (BUFFER < 1) {
+				System.err
+						.println("option of \"-b\" must be greater than 0.");
+				System.exit(0);
+			}
+
+			int SHARD = 0;
+			int NUMBER_OF_SHARDS = 1;
+			if (cmd.hasOption("S")) {
+				final String[] values = cmd.getOptionValue("S").split("/");
+				if (2 != values.length) {
+					System.err
+							.println("option of \"-S\" must be \"i/N\".");
+					System.exit(0);
+				}
+				SHARD = Integer.parseInt(values[0].trim());
+				NUMBER_OF_SHARDS = Integer.parseInt(values[1].trim());
+				if ((SHARD < 0) || (NUMBER_OF_SHARDS <= SHARD)) {
+					System.err
+							.println("option of \"-S\" must satisfy 0 <= i < N.");
+					System.exit(0);
+				}
+				if (cmd.hasOption("c")) {
+					System.err
+							.println("option of \"-S\" cannot be used with \"-c\".");
+					System.exit(0);
+				}
+			}
 
 			boolean useOfControl = !cmd.hasOption("C");
 			if (!useOfControl) {
@@ -174,114 +373,381 @@ public class Scorpio {
 				useOfMerging = false;
 			}
 
-			final long time1 = System.nanoTime();
-			System.out.print("generating PDGs ... ");
-			final PDG[] pdgArray;
-			{
-				final List<File> files = getFiles(target);
-				final List<MethodInfo> methods = new ArrayList<MethodInfo>();
+			final Metrics metrics = new Metrics("Scorpio");
+			final ScorpioExecutor executor = new ScorpioExecutor(
+					NUMBER_OF_THREADS);
+			final NormalizedTextCache texts = new NormalizedTextCache();
+			final SourceParser sourceParser = new SourceParser(
+					NUMBER_OF_THREADS, charset, cmd.hasOption("B"));
+
+			final List<File> files = getFiles(target);
+			final String settings = getSettings(target, SIZE_THRESHOLD,
+					SHARING_THRESHOLD, useOfControl, useOfData,
+					useOfExecution, useOfMerging, charset,
+					cmd.hasOption("B"), COMPARISON_BUDGET, TIME_BUDGET);
+			final File cacheFile = cmd.hasOption("c") ? new File(
+					cmd.getOptionValue("c")) : null;
+			final ScorpioCache cache = null != cacheFile ? ScorpioCache.load(
+					cacheFile, settings) : null;
+			final Map<String, String> digests = new HashMap<String, String>();
+			final Set<String> changedPaths = new HashSet<String>();
+			final SortedMap<PDG, HashBucketTable<PDGNode<?>>> mappingPDGToPDGNodes = Collections
+					.synchronizedSortedMap(new TreeMap<PDG, HashBucketTable<PDGNode<?>>>());
+			final SortedMap<PDG, HashBucketTable<PDGEdge>> mappingPDGToPDGEdges = Collections
+					.synchronizedSortedMap(new TreeMap<PDG, HashBucketTable<PDGEdge>>());
+
+			final long time0 = System.nanoTime();
+			final List<File> targetFiles;
+			final List<File> parsedFiles;
+			final FileNumbering numbering;
+			final PDG[] changedPDGs;
+			final int numberOfChangedMethods;
+			if (null != cache) {
+				System.out.print("checking changed files ... ");
+				final Metrics.Phase phase = metrics
+						.startPhase("checking changed files");
+				final List<File> changedFiles = new ArrayList<File>();
 				for (final File file : files) {
-					final CompilationUnit unit = TinyPDGASTVisitor
-							.createAST(file);
-					final TinyPDGASTVisitor visitor = new TinyPDGASTVisitor(
-							file.getAbsolutePath(), unit, methods);
-					unit.accept(visitor);
+					final String path = file.getAbsolutePath();
+					final String digest = ScorpioCache.digest(file);
+					digests.put(path, digest);
+					if (!cache.contains(path, digest)) {
+						changedFiles.add(file);
+						changedPaths.add(path);
+					}
 				}
 
-				final SortedSet<PDG> pdgs = Collections
-						.synchronizedSortedSet(new TreeSet<PDG>());
-				final CFGNodeFactory cfgNodeFactory = new CFGNodeFactory();
-				final PDGNodeFactory pdgNodeFactory = new PDGNodeFactory();
-				final Thread[] pdgGenerationThreads = new Thread[NUMBER_OF_THREADS];
-				for (int i = 0; i < pdgGenerationThreads.length; i++) {
-					pdgGenerationThreads[i] = new Thread(
-							new PDGGenerationThread(methods, pdgs,
-									cfgNodeFactory, pdgNodeFactory,
-									useOfControl, useOfData, useOfExecution,
-									useOfMerging, SIZE_THRESHOLD));
-					pdgGenerationThreads[i].start();
+				// the changed files are numbered as in a full run, so that
+				// their PDGs are sliced as they are without being built again
+				numbering = new FileNumbering(files,
+						ProgramElementInfo.getNextID());
+				for (final File file : files) {
+					final String path = file.getAbsolutePath();
+					if (!changedPaths.contains(path)) {
+						numbering.setNumberOfIDs(file,
+								cache.getNumberOfIDs(path));
+					}
 				}
-				for (final Thread thread : pdgGenerationThreads) {
-					try {
-						thread.join();
-					} catch (InterruptedException e) {
-						e.printStackTrace();
+				final List<MethodInfo> changedMethods = parseFiles(
+						changedFiles, sourceParser, numbering);
+				changedPDGs = generatePDGs(changedMethods, executor,
+						useOfControl, useOfData, useOfExecution, useOfMerging,
+						SIZE_THRESHOLD, texts);
+				executor.execute(new HashCalculationThread(changedPDGs,
+						mappingPDGToPDGNodes, mappingPDGToPDGEdges, texts));
+				numberOfChangedMethods = changedMethods.size();
+
+				targetFiles = selectFiles(files, changedPaths, changedPDGs,
+						cache, mappingPDGToPDGEdges, SHARING_THRESHOLD);
+				parsedFiles = new ArrayList<File>();
+				for (final File file : targetFiles) {
+					if (!changedPaths.contains(file.getAbsolutePath())) {
+						parsedFiles.add(file);
 					}
 				}
-				pdgArray = pdgs.toArray(new PDG[0]);
+				phase.end();
+				System.out.print("done: ");
+				printTime(System.nanoTime() - time0);
+			} else {
+				targetFiles = files;
+				parsedFiles = files;
+				numbering = null;
+				changedPDGs = new PDG[0];
+				numberOfChangedMethods = 0;
 			}
-			System.out.print("done: ");
-			final long time2 = System.nanoTime();
-			printTime(time2 - time1);
-
-			System.out.print("calculating hash values ... ");
-			final SortedMap<PDG, SortedMap<PDGNode<?>, Integer>> mappingPDGToPDGNodes = Collections
-					.synchronizedSortedMap(new TreeMap<PDG, SortedMap<PDGNode<?>, Integer>>());
-			final SortedMap<PDG, SortedMap<PDGEdge, Integer>> mappingPDGToPDGEdges = Collections
-					.synchronizedSortedMap(new TreeMap<PDG, SortedMap<PDGEdge, Integer>>());
+
+			final long time1 = System.nanoTime();
+			System.out.print("generating PDGs and detecting clone pairs ... ");
+			final ClonePairSpool spool = createSpool(BUFFER);
+			final long comparisons = Slicing.getNumberOfComparison();
+			final long slices = Slicing.getNumberOfSlices();
+			final ScorpioPipeline pipeline;
+			final List<PDGPairInfo> truncatedPairs;
 			{
-				final Thread[] hashCalculationThreads = new Thread[NUMBER_OF_THREADS];
-				for (int i = 0; i < hashCalculationThreads.length; i++) {
-					hashCalculationThreads[i] = new Thread(
-							new HashCalculationThread(pdgArray,
-									mappingPDGToPDGNodes, mappingPDGToPDGEdges));
-					hashCalculationThreads[i].start();
+				final PDGGenerationThread generation = new PDGGenerationThread(
+						new ArrayList<MethodInfo>(), new TreeSet<PDG>(),
+						new CFGNodeFactory(), new PDGNodeFactory(),
+						useOfControl, useOfData, useOfExecution,
+						useOfMerging, SIZE_THRESHOLD, texts);
+				final HashCalculationThread calculation = new HashCalculationThread(
+						mappingPDGToPDGNodes, mappingPDGToPDGEdges, texts);
+				final SlicingThread slicing = new SlicingThread(
+						mappingPDGToPDGNodes, mappingPDGToPDGEdges, spool,
+						SIZE_THRESHOLD, COMPARISON_BUDGET,
+						TIME_BUDGET * 1000l * 1000l);
+				pipeline = new ScorpioPipeline(sourceParser, generation,
+						calculation, slicing, mappingPDGToPDGEdges,
+						SHARING_THRESHOLD,
+						null != cache ? changedPaths : null, SHARD,
+						NUMBER_OF_SHARDS, STAGE_THREADS[0], STAGE_THREADS[1],
+						STAGE_THREADS[2]);
+				final Metrics.Phase detection = metrics
+						.startPhase("generating PDGs and detecting clone pairs");
+				if (null != numbering) {
+					pipeline.run(parsedFiles, numbering.restart(),
+							changedPDGs, numberOfChangedMethods);
+					ProgramElementInfo.setNextID(numbering.getEndID());
+				} else {
+					pipeline.run(parsedFiles);
 				}
-				for (final Thread thread : hashCalculationThreads) {
-					try {
-						thread.join();
-					} catch (InterruptedException e) {
-						e.printStackTrace();
+				slicing.complete();
+				detection.end();
+				truncatedPairs = slicing.getTruncatedPairs();
+			}
+			executor.shutdown();
+			final PDG[] pdgArray = pipeline.getPDGs();
+			System.out.print("done: ");
+			final long time5 = System.nanoTime();
+			printTime(time5 - time1);
+
+			// subsumed clone pairs are removed while the clone pairs are
+			// written
+			System.out.print("writing to a file ... ");
+			final Metrics.Phase writing = metrics
+					.startPhase("writing to a file");
+			final List<ClonePairLocation> cachedLocations = new ArrayList<ClonePairLocation>();
+			if (null != cache) {
+				for (final ClonePairLocation location : cache.getLocations()) {
+					if (digests.containsKey(location.pathA)
+							&& digests.containsKey(location.pathB)
+							&& !changedPaths.contains(location.pathA)
+							&& !changedPaths.contains(location.pathB)) {
+						cachedLocations.add(location);
 					}
 				}
 			}
+			int numberOfClonePairs = 0;
+			if (1 < NUMBER_OF_SHARDS) {
+				new PartialResult(settings, SHARD, NUMBER_OF_SHARDS, spool)
+						.save(new File(output));
+			} else {
+				final BellonWriter writer = new BellonWriter(output,
+						getLocations(spool, cachedLocations));
+				writer.write();
+				numberOfClonePairs = writer.getNumberOfWrittenClonePairs()
+						- cachedLocations.size();
+			}
+			writing.end();
 			System.out.print("done: ");
-			final long time3 = System.nanoTime();
-			printTime(time3 - time2);
+			final long time6 = System.nanoTime();
+			printTime(time6 - time5);
+
+			if (null != cache) {
+				System.out.print("updating the cache ... ");
+				final Metrics.Phase updating = metrics
+						.startPhase("updating the cache");
+				final Map<String, List<long[]>> edgeHashes = new HashMap<String, List<long[]>>();
+				for (final File file : targetFiles) {
+					edgeHashes.put(file.getAbsolutePath(),
+							new ArrayList<long[]>());
+				}
+				for (final PDG pdg : pdgArray) {
+					final HashBucketTable<PDGEdge> edgeBuckets = mappingPDGToPDGEdges
+							.get(pdg);
+					edgeHashes.get(pdg.unit.path).add(
+							null != edgeBuckets ? edgeBuckets.getHashes()
+									: new long[0]);
+				}
 
-			System.out.print("detecting clone pairs ... ");
-			final SortedSet<ClonePairInfo> clonepairs = Collections
-					.synchronizedSortedSet(new TreeSet<ClonePairInfo>());
-			{
-				final List<PDGPairInfo> pdgpairs = new ArrayList<PDGPairInfo>();
-				for (int i = 0; i < pdgArray.length; i++) {
-					for (int j = i + 1; j < pdgArray.length; j++) {
-						pdgpairs.add(new PDGPairInfo(pdgArray[i], pdgArray[j]));
+				final ScorpioCache updatedCache = new ScorpioCache(
+						cache.settings);
+				for (final File file : files) {
+					final String path = file.getAbsolutePath();
+					updatedCache.putFile(path, digests.get(path),
+							numbering.getNumberOfIDs(file),
+							edgeHashes.containsKey(path) ? edgeHashes
+									.get(path) : cache.getEdgeHashes(path));
+				}
+				for (final ClonePairLocation location : getLocations(spool,
+						Collections.<ClonePairLocation> emptyList())) {
+					updatedCache.addLocation(location);
+				}
+				for (final ClonePairLocation location : cachedLocations) {
+					updatedCache.addLocation(location);
+				}
+				updatedCache.save(cacheFile);
+				updating.end();
+				System.out.print("done: ");
+				printTime(System.nanoTime() - time6);
+			}
+
+			System.out.print("total elapsed time: ");
+			printTime(System.nanoTime() - time0);
+
+			if (null != cache) {
+				System.out.print("number of changed files: ");
+				printNumberOfChangedFiles(changedPaths.size(), files.size());
+				System.out.print("number of reused clone pairs: ");
+				printNumberOfReusedClonePairs(cachedLocations.size());
+			}
+
+			System.out.print("number of candidate PDG pairs: ");
+			printNumberOfCandidates(pipeline.getNumberOfPairs(),
+					(long) pdgArray.length * (pdgArray.length - 1) / 2);
+
+			System.out.print("number of comparisons: ");
+			printNumberOfComparison(Slicing.getNumberOfComparison()
+					- comparisons);
+
+			if ((0 < COMPARISON_BUDGET) || (0 < TIME_BUDGET)) {
+				for (final PDGPairInfo pair : truncatedPairs) {
+					System.err.println("truncated slicing between the method "
+							+ pair.left.unit.name + " in "
+							+ pair.left.unit.path + " and the method "
+							+ pair.right.unit.name + " in "
+							+ pair.right.unit.path);
+				}
+				System.out.print("number of truncated PDG pairs: ");
+				printNumberOfTruncatedPairs(truncatedPairs.size());
+			}
+
+			if (cmd.hasOption("m")) {
+				metrics.set("files", files.size());
+				metrics.set("analyzedFiles", targetFiles.size());
+				if (null != cache) {
+					metrics.set("changedFiles", changedPaths.size());
+					metrics.set("reusedClonePairs", cachedLocations.size());
+				}
+				metrics.set("methods", pipeline.getNumberOfMethods());
+				metrics.set("pdgs", pdgArray.length);
+				metrics.set("nodeHashBuckets", 0);
+				metrics.set("edgeHashBuckets", 0);
+				for (final PDG pdg : pdgArray) {
+					final FrozenPDG graph = pdg.freeze();
+					metrics.record("pdgNodes", graph.getNumberOfNodes());
+					metrics.record("pdgEdges", graph.getNumberOfEdges());
+					final HashBucketTable<PDGNode<?>> nodeBuckets = mappingPDGToPDGNodes
+							.get(pdg);
+					if (null != nodeBuckets) {
+						metrics.add("nodeHashBuckets",
+								nodeBuckets.getNumberOfBuckets());
+					}
+					final HashBucketTable<PDGEdge> edgeBuckets = mappingPDGToPDGEdges
+							.get(pdg);
+					if (null != edgeBuckets) {
+						metrics.add("edgeHashBuckets",
+								edgeBuckets.getNumberOfBuckets());
 					}
 				}
-				final PDGPairInfo[] pdgpairArray = pdgpairs
-						.toArray(new PDGPairInfo[0]);
-				final Thread[] slicingThreads = new Thread[NUMBER_OF_THREADS];
-				for (int i = 0; i < slicingThreads.length; i++) {
-					slicingThreads[i] = new Thread(new SlicingThread(
-							pdgpairArray, pdgArray, mappingPDGToPDGNodes,
-							mappingPDGToPDGEdges, clonepairs, SIZE_THRESHOLD));
-					slicingThreads[i].start();
+				final long all = (long) pdgArray.length
+						* (pdgArray.length - 1) / 2;
+				metrics.set("candidatePairs", pipeline.getNumberOfPairs());
+				metrics.set("prunedPairs", all - pipeline.getNumberOfPairs());
+				metrics.set("slices", Slicing.getNumberOfSlices() - slices);
+				metrics.set("comparisons", Slicing.getNumberOfComparison()
+						- comparisons);
+				metrics.set("truncatedPairs", truncatedPairs.size());
+				metrics.set("clonePairs", numberOfClonePairs);
+				metrics.set("spilledRuns", spool.getNumberOfSpilledRuns());
+				metrics.write(new File(cmd.getOptionValue("m")));
+			}
+
+			spool.close();
+
+		} catch (Exception e) {
+			System.err.println(e.getMessage());
+			System.exit(0);
+		}
+	}
+
+	// partial results are merged only if they come from the same analysis
+	// and cover every shard exactly once. since every shard assigns the
+	// same IDs, clone pairs detected by several shards are the same records
+	// and are read only once from the spool. records are handed to the
+	// spool in runs of its capacity, so that a shard is never in memory as
+	// a whole.
+	private static void merge(final String[] args) {
+
+		try {
+
+			final Options options = new Options();
+
+			{
+				final Option o = new Option("o", "output", true, "output file");
+				o.setArgName("file");
+				o.setArgs(1);
+				o.setRequired(true);
+				options.addOption(o);
+			}
+
+			{
+				final Option b = new Option("b", "buffer", true,
+						"number of clone pairs read before they are spilled to a temporary file");
+				b.setArgName("number");
+				b.setArgs(1);
+				b.setRequired(false);
+				options.addOption(b);
+			}
+
+			final CommandLineParser parser = new PosixParser();
+			final CommandLine cmd = parser.parse(options, args);
+			final String output = cmd.getOptionValue("o");
+			final int BUFFER = cmd.hasOption("b") ? Integer.parseInt(cmd
+					.getOptionValue("b")) : DEFAULT_BUFFER;
+			if (BUFFER < 1) {
+				System.err
+						.println("option of \"-b\" must be greater than 0.");
+				System.exit(0);
+			}
+			final String[] paths = cmd.getArgs();
+			if (0 == paths.length) {
+				System.err.println("no partial result is specified.");
+				System.exit(0);
+			}
+
+			final long time0 = System.nanoTime();
+			System.out.print("merging partial results ... ");
+			final ClonePairSpool spool = createSpool(BUFFER);
+			String settings = null;
+			boolean[] shards = null;
+			for (final String path : paths) {
+				final PartialResult result = PartialResult.load(new File(path));
+				if (null == settings) {
+					settings = result.settings;
+					shards = new boolean[result.numberOfShards];
+				} else if (!settings.equals(result.settings)
+						|| (shards.length != result.numberOfShards)) {
+					System.err.println(path
+							+ " is a partial result of another analysis.");
+					System.exit(0);
+				}
+				if (shards[result.shard]) {
+					System.err.println(path + " duplicates shard "
+							+ result.shard + ".");
+					System.exit(0);
 				}
-				for (final Thread thread : slicingThreads) {
-					try {
-						thread.join();
-					} catch (InterruptedException e) {
-						e.printStackTrace();
+				shards[result.shard] = true;
+				List<ClonePairRecord> records = new ArrayList<ClonePairRecord>();
+				for (final ClonePairRecord record : result.getRecords()) {
+					records.add(record);
+					if (spool.getCapacity() <= records.size()) {
+						spool.add(records);
+						records = new ArrayList<ClonePairRecord>();
 					}
 				}
+				spool.add(records);
+			}
+			for (int shard = 0; shard < shards.length; shard++) {
+				if (!shards[shard]) {
+					System.err.println("shard " + shard + " of "
+							+ shards.length + " is missing.");
+					System.exit(0);
+				}
 			}
 			System.out.print("done: ");
-			final long time4 = System.nanoTime();
-			printTime(time4 - time3);
+			final long time1 = System.nanoTime();
+			printTime(time1 - time0);
 
 			System.out.print("writing to a file ... ");
-			final Writer writer = new BellonWriter(output, clonepairs);
+			final Writer writer = new BellonWriter(output, getLocations(
+					spool, Collections.<ClonePairLocation> emptyList()));
 			writer.write();
+			spool.close();
 			System.out.print("done: ");
-			final long time5 = System.nanoTime();
-			printTime(time5 - time4);
+			printTime(System.nanoTime() - time1);
 
 			System.out.print("total elapsed time: ");
-			printTime(time5 - time1);
-
-			System.out.print("number of comparisons: ");
-			printNumberOfComparison(Slicing.getNumberOfComparison());
+			printTime(System.nanoTime() - time0);
 
 		} catch (Exception e) {
 			System.err.println(e.getMessage());
@@ -289,6 +755,138 @@ public class Scorpio {
 		}
 	}
 
+	// run files are written to a temporary directory, which is deleted
+	// when the JVM exits
+	private static ClonePairSpool createSpool(final int BUFFER)
+			throws IOException {
+		final File directory = Files.createTempDirectory("scorpio").toFile();
+		directory.deleteOnExit();
+		return new ClonePairSpool(directory, BUFFER);
+	}
+
+	// locations of the clone pairs in the spool that are not subsumed,
+	// followed by the given ones. the spool is merged again on every
+	// iteration, so that the clone pairs are never in memory together
+	private static Iterable<ClonePairLocation> getLocations(
+			final ClonePairSpool spool,
+			final List<ClonePairLocation> cachedLocations) {
+
+		return new Iterable<ClonePairLocation>() {
+
+			@Override
+			public Iterator<ClonePairLocation> iterator() {
+
+				final Iterator<ClonePairRecord> records = CloneSubsumption
+						.filter(spool.iterator(), 0.7f);
+				final Iterator<ClonePairLocation> cached = cachedLocations
+						.iterator();
+				return new Iterator<ClonePairLocation>() {
+
+					@Override
+					public boolean hasNext() {
+						return records.hasNext() || cached.hasNext();
+					}
+
+					@Override
+					public ClonePairLocation next() {
+						return records.hasNext() ? records.next()
+								.getLocation() : cached.next();
+					}
+
+					@Override
+					public void remove() {
+						throw new UnsupportedOperationException();
+					}
+				};
+			}
+		};
+	}
+
+	// the IDs taken by every file are counted right after it is visited
+	private static List<MethodInfo> parseFiles(final List<File> files,
+			final SourceParser parser, final FileNumbering numbering)
+			throws InterruptedException {
+
+		final List<MethodInfo> methods = new ArrayList<MethodInfo>();
+		parser.parse(files, numbering, new SourceParser.Handler() {
+
+			@Override
+			public void handle(final File file, final List<MethodInfo> m) {
+				numbering.count(file);
+				methods.addAll(m);
+			}
+		});
+		return methods;
+	}
+
+	private static PDG[] generatePDGs(final List<MethodInfo> methods,
+			final ScorpioExecutor executor, final boolean useOfControl,
+			final boolean useOfData, final boolean useOfExecution,
+			final boolean useOfMerging, final int SIZE_THRESHOLD,
+			final NormalizedTextCache texts) throws InterruptedException {
+
+		final SortedSet<PDG> pdgs = Collections
+				.synchronizedSortedSet(new TreeSet<PDG>());
+		final CFGNodeFactory cfgNodeFactory = new CFGNodeFactory();
+		final PDGNodeFactory pdgNodeFactory = new PDGNodeFactory();
+		executor.execute(new PDGGenerationThread(methods, pdgs,
+				cfgNodeFactory, pdgNodeFactory, useOfControl, useOfData,
+				useOfExecution, useOfMerging, SIZE_THRESHOLD, texts));
+		return pdgs.toArray(new PDG[0]);
+	}
+
+	// the unchanged files that share enough edge hashes with the PDGs of
+	// the changed files have to be sliced against them. the selected files
+	// are returned in their original order.
+	private static List<File> selectFiles(final List<File> files,
+			final Set<String> changedPaths, final PDG[] changedPDGs,
+			final ScorpioCache cache,
+			final SortedMap<PDG, HashBucketTable<PDGEdge>> mappingPDGToPDGEdges,
+			final int SHARING_THRESHOLD) {
+
+		final List<File> selectedFiles = new ArrayList<File>();
+		if (changedPaths.isEmpty()) {
+			return selectedFiles;
+		}
+
+		final EdgeHashIndex index = 0 < SHARING_THRESHOLD ? new EdgeHashIndex(
+				changedPDGs, mappingPDGToPDGEdges) : null;
+
+		FILE: for (final File file : files) {
+			final String path = file.getAbsolutePath();
+			if (changedPaths.contains(path)) {
+				selectedFiles.add(file);
+				continue FILE;
+			}
+			if (0 == changedPDGs.length) {
+				continue FILE;
+			}
+			for (final long[] hashes : cache.getEdgeHashes(path)) {
+				if ((null == index)
+						|| index.hasCandidate(hashes, SHARING_THRESHOLD)) {
+					selectedFiles.add(file);
+					continue FILE;
+				}
+			}
+		}
+
+		return selectedFiles;
+	}
+
+	private static String getSettings(final File target,
+			final int SIZE_THRESHOLD,
+			final int SHARING_THRESHOLD, final boolean useOfControl,
+			final boolean useOfData, final boolean useOfExecution,
+			final boolean useOfMerging, final Charset charset,
+			final boolean batch, final long COMPARISON_BUDGET,
+			final long TIME_BUDGET) {
+		return String.format(
+				"d=%s,s=%d,k=%d,C=%b,D=%b,E=%b,M=%b,e=%s,B=%b,x=%d,w=%d",
+				target.getAbsolutePath(), SIZE_THRESHOLD, SHARING_THRESHOLD,
+				useOfControl, useOfData, useOfExecution, useOfMerging,
+				charset.name(), batch, COMPARISON_BUDGET, TIME_BUDGET);
+	}
+
 	private static List<File> getFiles(final File file) {
 
 		final List<File> files = new ArrayList<File>();
@@ -300,7 +898,11 @@ public class Scorpio {
 		}
 
 		else if (file.isDirectory()) {
-			for (final File child : file.listFiles()) {
+			// listFiles returns the children in no particular order, but
+			// the order of the files decides the IDs of their elements
+			final File[] children = file.listFiles();
+			Arrays.sort(children);
+			for (final File child : children) {
 				files.addAll(getFiles(child));
 			}
 		}
@@ -317,6 +919,30 @@ public class Scorpio {
 		System.out.println(String.format("%1$,3d", number));
 	}
 
+	private static void printNumberOfCandidates(final long candidates,
+			final long all) {
+		System.out.print(String.format("%1$,3d", candidates));
+		System.out.print(" of ");
+		System.out.print(String.format("%1$,3d", all));
+		System.out.println(String.format(" (%1$.2f%% pruned)",
+				0 < all ? 100d * (all - candidates) / all : 0d));
+	}
+
+	private static void printNumberOfChangedFiles(final long changed,
+			final long all) {
+		System.out.print(String.format("%1$,3d", changed));
+		System.out.print(" of ");
+		System.out.println(String.format("%1$,3d", all));
+	}
+
+	private static void printNumberOfReusedClonePairs(final long number) {
+		System.out.println(String.format("%1$,3d", number));
+	}
+
+	private static void printNumberOfTruncatedPairs(final long number) {
+		System.out.println(String.format("%1$,3d", number));
+	}
+
 	private static void printNumberOfComparison(final long number) {
 		System.out.println(String.format("%1$,3d", number));
 	}
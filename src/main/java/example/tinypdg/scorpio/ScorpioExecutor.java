@@ -0,0 +1,63 @@
+package example.tinypdg.scorpio;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+public class ScorpioExecutor {
+
+	final private ForkJoinPool pool;
+	final private boolean owner;
+
+	public ScorpioExecutor(final int parallelism) {
+		assert 0 < parallelism : "\"parallelism\" must be greater than 0.";
+		this.pool = new ForkJoinPool(parallelism);
+		this.owner = true;
+	}
+
+	public ScorpioExecutor(final ForkJoinPool pool) {
+		assert null != pool : "\"pool\" is null.";
+		this.pool = pool;
+		this.owner = false;
+	}
+
+	public int getParallelism() {
+		return this.pool.getParallelism();
+	}
+
+	public void execute(final IndexedTask task) {
+		assert null != task : "\"task\" is null.";
+		this.pool.invoke(new RangeAction(task, 0, task.size()));
+	}
+
+	public void shutdown() {
+		if (this.owner) {
+			this.pool.shutdown();
+		}
+	}
+
+	static class RangeAction extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		final private IndexedTask task;
+		final private int start;
+		final private int end;
+
+		RangeAction(final IndexedTask task, final int start, final int end) {
+			this.task = task;
+			this.start = start;
+			this.end = end;
+		}
+
+		@Override
+		protected void compute() {
+			if (1 < this.end - this.start) {
+				final int middle = (this.start + this.end) >>> 1;
+				invokeAll(new RangeAction(this.task, this.start, middle),
+						new RangeAction(this.task, middle, this.end));
+			} else if (this.start < this.end) {
+				this.task.process(this.start);
+			}
+		}
+	}
+}
@@ -0,0 +1,352 @@
+package example.tinypdg.scorpio;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import example.tinypdg.ast.SourceParser;
+import example.tinypdg.pdg.PDG;
+import example.tinypdg.pdg.edge.PDGEdge;
+import example.tinypdg.pe.MethodInfo;
+import example.tinypdg.scorpio.data.PDGPairInfo;
+
+/**
+ * Runs parsing, PDG generation, hash calculation, candidate indexing and
+ * slicing as concurrent stages connected by bounded queues. Parsed files are
+ * visited on the calling thread in file order so that element IDs are
+ * assigned in the same order as in a sequential run, and indexing runs on a
+ * single thread. The other stages run on their own numbers of threads. A
+ * full queue blocks the stage feeding it. In a sharded run, only the pairs
+ * of the given shard are sliced.
+ */
+public class ScorpioPipeline {
+
+	final static private int QUEUE_CAPACITY = 256;
+
+	final private SourceParser parser;
+	final private PDGGenerationThread generation;
+	final private HashCalculationThread calculation;
+	final private SlicingThread slicing;
+	final private SortedMap<PDG, HashBucketTable<PDGEdge>> mappingPDGToPDGEdges;
+	final private int SHARING_THRESHOLD;
+	final private Set<String> changedPaths;
+	final private int shard;
+	final private int numberOfShards;
+	final private int generationThreads;
+	final private int calculationThreads;
+	final private int slicingThreads;
+
+	final private List<PDG> pdgs;
+	private long numberOfMethods;
+	private long numberOfPairs;
+
+	/**
+	 * @param changedPaths
+	 *            paths of the files whose methods have to be sliced, or
+	 *            <code>null</code> to slice the methods of all files. Pairs
+	 *            of two methods outside the changed files are skipped.
+	 * @param shard
+	 *            index of the shard whose pairs are sliced
+	 * @param numberOfShards
+	 *            number of shards that the pairs are partitioned into, 1
+	 *            for an unsharded run
+	 */
+	public ScorpioPipeline(final SourceParser parser,
+			final PDGGenerationThread generation,
+			final HashCalculationThread calculation,
+			final SlicingThread slicing,
+			final SortedMap<PDG, HashBucketTable<PDGEdge>> mappingPDGToPDGEdges,
+			final int SHARING_THRESHOLD, final Set<String> changedPaths,
+			final int shard, final int numberOfShards,
+			final int generationThreads, final int calculationThreads,
+			final int slicingThreads) {
+		assert null != parser : "\"parser\" is null.";
+		assert null != generation : "\"generation\" is null.";
+		assert null != calculation : "\"calculation\" is null.";
+		assert null != slicing : "\"slicing\" is null.";
+		assert null != mappingPDGToPDGEdges : "\"mappingPDGToPDGEdges\" is null.";
+		assert 0 <= SHARING_THRESHOLD : "\"SHARING_THRESHOLD\" must not be negative.";
+		assert 0 <= shard && shard < numberOfShards : "\"shard\" is out of range.";
+		assert 0 < generationThreads : "\"generationThreads\" must be greater than 0.";
+		assert 0 < calculationThreads : "\"calculationThreads\" must be greater than 0.";
+		assert 0 < slicingThreads : "\"slicingThreads\" must be greater than 0.";
+		this.parser = parser;
+		this.generation = generation;
+		this.calculation = calculation;
+		this.slicing = slicing;
+		this.mappingPDGToPDGEdges = mappingPDGToPDGEdges;
+		this.SHARING_THRESHOLD = SHARING_THRESHOLD;
+		this.changedPaths = changedPaths;
+		this.shard = shard;
+		this.numberOfShards = numberOfShards;
+		this.generationThreads = generationThreads;
+		this.calculationThreads = calculationThreads;
+		this.slicingThreads = slicingThreads;
+		this.pdgs = new ArrayList<PDG>();
+		this.numberOfMethods = 0;
+		this.numberOfPairs = 0;
+	}
+
+	public void run(final List<File> files) throws InterruptedException {
+		this.run(files, null, new PDG[0], 0);
+	}
+
+	/**
+	 * @param numbering
+	 *            gives the IDs of the first elements of the parsed files, or
+	 *            <code>null</code> to number them one after another
+	 * @param pdgs
+	 *            PDGs built and hashed beforehand from files that are not
+	 *            parsed again, which are indexed and sliced with the others
+	 * @param numberOfMethods
+	 *            number of methods of the files of the given PDGs
+	 */
+	public void run(final List<File> files,
+			final SourceParser.Numbering numbering, final PDG[] pdgs,
+			final long numberOfMethods) throws InterruptedException {
+
+		assert null != files : "\"files\" is null.";
+		assert null != pdgs : "\"pdgs\" is null.";
+		assert 0 <= numberOfMethods : "\"numberOfMethods\" must not be negative.";
+
+		// a pair of a PDG with itself stands for slicing within the PDG
+		final Stage<PDGPairInfo> slicer = new Stage<PDGPairInfo>(
+				this.slicingThreads) {
+
+			@Override
+			protected void consume(final PDGPairInfo pair) {
+				if (pair.left == pair.right) {
+					ScorpioPipeline.this.slicing.process(pair.left);
+				} else {
+					ScorpioPipeline.this.slicing.process(pair.left,
+							pair.right);
+				}
+			}
+		};
+
+		final StreamingEdgeHashIndex index = new StreamingEdgeHashIndex();
+		final Stage<PDG> indexer = new Stage<PDG>(1) {
+
+			@Override
+			protected void consume(final PDG pdg)
+					throws InterruptedException {
+				ScorpioPipeline.this.index(pdg, index, slicer);
+			}
+		};
+
+		final Stage<PDG> calculator = new Stage<PDG>(this.calculationThreads) {
+
+			@Override
+			protected void consume(final PDG pdg)
+					throws InterruptedException {
+				ScorpioPipeline.this.calculation.calculate(pdg);
+				indexer.put(pdg);
+			}
+		};
+
+		final Stage<MethodInfo> generator = new Stage<MethodInfo>(
+				this.generationThreads) {
+
+			@Override
+			protected void consume(final MethodInfo method)
+					throws InterruptedException {
+				final PDG pdg = ScorpioPipeline.this.generation
+						.generate(method);
+				if (null != pdg) {
+					calculator.put(pdg);
+				}
+			}
+		};
+
+		slicer.start();
+		indexer.start();
+		calculator.start();
+		generator.start();
+
+		// if the calling thread fails, the stage threads are interrupted so
+		// that none of them stays blocked on a queue
+		boolean completed = false;
+		try {
+			this.numberOfMethods += numberOfMethods;
+			for (final PDG pdg : pdgs) {
+				indexer.put(pdg);
+			}
+
+			this.parser.parse(files, numbering, new SourceParser.Handler() {
+
+				@Override
+				public void handle(final File file,
+						final List<MethodInfo> methods)
+						throws InterruptedException {
+					ScorpioPipeline.this.numberOfMethods += methods.size();
+					for (final MethodInfo method : methods) {
+						generator.put(method);
+					}
+				}
+			});
+
+			generator.finish();
+			calculator.finish();
+			indexer.finish();
+			slicer.finish();
+			completed = true;
+		} finally {
+			if (!completed) {
+				generator.abort();
+				calculator.abort();
+				indexer.abort();
+				slicer.abort();
+			}
+		}
+	}
+
+	public PDG[] getPDGs() {
+		return new TreeSet<PDG>(this.pdgs).toArray(new PDG[0]);
+	}
+
+	public long getNumberOfMethods() {
+		return this.numberOfMethods;
+	}
+
+	public long getNumberOfPairs() {
+		return this.numberOfPairs;
+	}
+
+	private void index(final PDG pdg, final StreamingEdgeHashIndex index,
+			final Stage<PDGPairInfo> slicer) throws InterruptedException {
+
+		final int[] candidates;
+		if (0 < this.SHARING_THRESHOLD) {
+			final HashBucketTable<PDGEdge> edgeBuckets = this.mappingPDGToPDGEdges
+					.get(pdg);
+			candidates = index.add(
+					null != edgeBuckets ? edgeBuckets.getHashes()
+							: new long[0], this.SHARING_THRESHOLD);
+		} else {
+			candidates = new int[this.pdgs.size()];
+			for (int candidate = 0; candidate < candidates.length; candidate++) {
+				candidates[candidate] = candidate;
+			}
+		}
+		this.pdgs.add(pdg);
+
+		final boolean changed = this.isChanged(pdg);
+		if (changed && this.isOwned(pdg, pdg)) {
+			slicer.put(new PDGPairInfo(pdg, pdg));
+		}
+
+		for (final int candidate : candidates) {
+			final PDG partner = this.pdgs.get(candidate);
+			if (!changed && !this.isChanged(partner)) {
+				continue;
+			}
+			final PDGPairInfo pair = partner.compareTo(pdg) < 0 ? new PDGPairInfo(
+					partner, pdg) : new PDGPairInfo(pdg, partner);
+			if (!this.isOwned(pair.left, pair.right)) {
+				continue;
+			}
+			this.numberOfPairs++;
+			slicer.put(pair);
+		}
+	}
+
+	// pairs are assigned to shards by the IDs of their methods, which are
+	// the same in every shard because all the shards parse the same files
+	// in the same order
+	private boolean isOwned(final PDG left, final PDG right) {
+		if (1 == this.numberOfShards) {
+			return true;
+		}
+		long key = ((long) left.unit.id << 32)
+				| (right.unit.id & 0xffffffffl);
+		key ^= key >>> 33;
+		key *= 0xff51afd7ed558ccdl;
+		key ^= key >>> 33;
+		return this.shard == (int) ((key >>> 1) % this.numberOfShards);
+	}
+
+	private boolean isChanged(final PDG pdg) {
+		return (null == this.changedPaths)
+				|| this.changedPaths.contains(pdg.unit.path);
+	}
+
+	abstract static class Stage<T> {
+
+		final static private Object END = new Object();
+
+		final private BlockingQueue<Object> queue;
+		final private List<Thread> threads;
+
+		Stage(final int numberOfThreads) {
+			this.queue = new ArrayBlockingQueue<Object>(QUEUE_CAPACITY
+					* numberOfThreads);
+			final List<Thread> threads = new ArrayList<Thread>();
+			for (int i = 0; i < numberOfThreads; i++) {
+				final Thread thread = new Thread() {
+
+					@Override
+					public void run() {
+						Stage.this.drain();
+					}
+				};
+				thread.setDaemon(true);
+				threads.add(thread);
+			}
+			this.threads = Collections.unmodifiableList(threads);
+		}
+
+		void start() {
+			for (final Thread thread : this.threads) {
+				thread.start();
+			}
+		}
+
+		void put(final T item) throws InterruptedException {
+			this.queue.put(item);
+		}
+
+		// must be called once all the stages feeding this stage finished
+		void finish() throws InterruptedException {
+			for (int i = 0; i < this.threads.size(); i++) {
+				this.queue.put(END);
+			}
+			for (final Thread thread : this.threads) {
+				thread.join();
+			}
+		}
+
+		void abort() {
+			for (final Thread thread : this.threads) {
+				thread.interrupt();
+			}
+		}
+
+		// a failure on an item only loses the item, a stage thread must keep
+		// draining since the stages feeding it block once the queue is full
+		@SuppressWarnings("unchecked")
+		private void drain() {
+			try {
+				for (Object item = this.queue.take(); END != item; item = this.queue
+						.take()) {
+					try {
+						this.consume((T) item);
+					} catch (final InterruptedException e) {
+						throw e;
+					} catch (final Throwable e) {
+						e.printStackTrace();
+					}
+				}
+			} catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		abstract protected void consume(T item) throws InterruptedException;
+	}
+}
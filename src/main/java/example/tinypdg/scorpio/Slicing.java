@@ -1,30 +1,36 @@
 package example.tinypdg.scorpio;
 
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
-import java.util.Set;
-import java.util.SortedMap;
-import java.util.SortedSet;
-import java.util.TreeSet;
 import java.util.concurrent.atomic.AtomicLong;
 
-import example.tinypdg.pdg.edge.PDGEdge;
+import example.tinypdg.pdg.FrozenPDG;
 import example.tinypdg.pdg.node.PDGNode;
 import example.tinypdg.scorpio.data.ClonePairInfo;
 import example.tinypdg.scorpio.data.NodePairInfo;
+import example.tinypdg.scorpio.data.NodePairSet;
 
 public class Slicing {
 
 	final static private AtomicLong NUMBER_OF_COMPARISON = new AtomicLong(0);
 
+	final static private AtomicLong NUMBER_OF_SLICES = new AtomicLong(0);
+
 	public static long getNumberOfComparison() {
 		return NUMBER_OF_COMPARISON.get();
 	}
 
-	final private SortedSet<NodePairInfo> checkedNodepairs;
-	final private SortedMap<PDGNode<?>, PDGNode<?>[]> mappingPDGNodeToPDGNodes;
-	final private SortedMap<PDGEdge, PDGEdge[]> mappingPDGEdgeToPDGEdges;
+	public static long getNumberOfSlices() {
+		return NUMBER_OF_SLICES.get();
+	}
+
+	final private NodePairSet checkedNodepairs;
+	final private SlicingBudget budget;
+	final private EquivalenceGraph graphA;
+	final private EquivalenceGraph graphB;
+	final private boolean intra;
+	final private boolean[] checkedNodesA;
+	final private boolean[] checkedNodesB;
 	final public String pathA;
 	final public String pathB;
 	final public PDGNode<?> startNodeA;
@@ -33,66 +39,71 @@ public class Slicing {
 	private ClonePairInfo clonepair;
 
 	public Slicing(final String pathA, final String pathB,
+			final EquivalenceGraph graphA, final EquivalenceGraph graphB,
+			final PDGNode<?> startNodeA, final PDGNode<?> startNodeB,
+			final NodePairSet checkedNodepairs) {
+		this(pathA, pathB, graphA, graphB, startNodeA, startNodeB,
+				checkedNodepairs, new SlicingBudget());
+	}
+
+	/**
+	 * @param budget
+	 *            budget that the comparisons of this slicing are taken from.
+	 *            When it runs out, the clone pair found so far is returned.
+	 */
+	public Slicing(final String pathA, final String pathB,
+			final EquivalenceGraph graphA, final EquivalenceGraph graphB,
 			final PDGNode<?> startNodeA, final PDGNode<?> startNodeB,
-			final SortedMap<PDGNode<?>, PDGNode<?>[]> mappingPDGNodeToPDGNodes,
-			final SortedMap<PDGEdge, PDGEdge[]> mappingPDGEdgeToPDGEdges,
-			final SortedSet<NodePairInfo> checkedNodepairs) {
+			final NodePairSet checkedNodepairs, final SlicingBudget budget) {
+		assert null != graphA : "\"graphA\" is null.";
+		assert null != graphB : "\"graphB\" is null.";
+		assert null != budget : "\"budget\" is null.";
 		this.checkedNodepairs = checkedNodepairs;
+		this.budget = budget;
+		this.graphA = graphA;
+		this.graphB = graphB;
+		this.intra = graphA.graph == graphB.graph;
+		this.checkedNodesA = new boolean[graphA.graph.getNumberOfNodes()];
+		this.checkedNodesB = this.intra ? new boolean[this.checkedNodesA.length]
+				: new boolean[graphB.graph.getNumberOfNodes()];
 		this.pathA = pathA;
 		this.pathB = pathB;
 		this.startNodeA = startNodeA;
 		this.startNodeB = startNodeB;
-		this.mappingPDGNodeToPDGNodes = mappingPDGNodeToPDGNodes;
-		this.mappingPDGEdgeToPDGEdges = mappingPDGEdgeToPDGEdges;
 		this.clonepair = null;
 	}
 
 	public ClonePairInfo perform() {
 		if (null == this.clonepair) {
-			final SortedSet<PDGNode<?>> checkedNodesA = new TreeSet<PDGNode<?>>();
-			final SortedSet<PDGNode<?>> checkedNodesB = new TreeSet<PDGNode<?>>();
-			this.clonepair = this.perform(this.startNodeA, this.startNodeB,
-					checkedNodesA, checkedNodesB);
+			final int nodeA = this.graphA.graph.getNodeIndex(this.startNodeA);
+			final int nodeB = this.graphB.graph.getNodeIndex(this.startNodeB);
+			assert 0 <= nodeA && 0 <= nodeB : "start nodes must be in the frozen graphs.";
+			NUMBER_OF_SLICES.incrementAndGet();
+			this.clonepair = this.perform(nodeA, nodeB);
 		}
 		return this.clonepair;
 	}
 
-	private ClonePairInfo perform(final PDGNode<?> nodeA,
-			final PDGNode<?> nodeB, final SortedSet<PDGNode<?>> checkedNodesA,
-			final SortedSet<PDGNode<?>> checkedNodesB) {
+	// checked nodes are exactly the nodes on the current recursion path,
+	// so they are marked on entry and unmarked on return
+	private ClonePairInfo perform(final int nodeA, final int nodeB) {
 
-		final NodePairInfo nodepair = new NodePairInfo(nodeA, nodeB);
-		if (this.checkedNodepairs.contains(nodepair)) {
+		final PDGNode<?> pdgNodeA = this.graphA.graph.getNode(nodeA);
+		final PDGNode<?> pdgNodeB = this.graphB.graph.getNode(nodeB);
+		if (this.checkedNodepairs.contains(pdgNodeA, pdgNodeB)) {
 			return new ClonePairInfo(this.pathA, this.pathB);
 		}
 
-		checkedNodesA.add(nodeA);
-		checkedNodesB.add(nodeB);
-
-		final SortedSet<PDGEdge> bEdgesA = nodeA.getBackwardEdges();
-		final SortedSet<PDGEdge> bEdgesB = nodeB.getBackwardEdges();
-		final SortedSet<PDGEdge> fEdgesA = nodeA.getForwardEdges();
-		final SortedSet<PDGEdge> fEdgesB = nodeB.getForwardEdges();
-
-		final PDGEdgeComparator comparator = new PDGEdgeComparator(
-				this.mappingPDGEdgeToPDGEdges);
-		final SortedSet<PDGEdge> bSortedEdgesA = new TreeSet<PDGEdge>(
-				comparator);
-		bSortedEdgesA.addAll(bEdgesA);
-		final SortedSet<PDGEdge> bSortedEdgesB = new TreeSet<PDGEdge>(
-				comparator);
-		bSortedEdgesB.addAll(bEdgesB);
-		final SortedSet<PDGEdge> fSortedEdgesA = new TreeSet<PDGEdge>(
-				comparator);
-		fSortedEdgesA.addAll(fEdgesA);
-		final SortedSet<PDGEdge> fSortedEdgesB = new TreeSet<PDGEdge>(
-				comparator);
-		fSortedEdgesB.addAll(fEdgesB);
+		this.checkedNodesA[nodeA] = true;
+		this.checkedNodesB[nodeB] = true;
 
 		final List<ClonePairInfo> bClonepairs = this.enlargeBackwardClonePair(
-				bSortedEdgesA, bSortedEdgesB, checkedNodesA, checkedNodesB);
+				nodeA, nodeB);
 		final List<ClonePairInfo> fClonepairs = this.enlargeForwardClonePair(
-				fSortedEdgesA, fSortedEdgesB, checkedNodesA, checkedNodesB);
+				nodeA, nodeB);
+
+		this.checkedNodesA[nodeA] = false;
+		this.checkedNodesB[nodeB] = false;
 
 		final List<ClonePairInfo> candidates = new ArrayList<ClonePairInfo>();
 		this.makeCandidates(candidates, bClonepairs);
@@ -105,8 +116,8 @@ public class Slicing {
 			}
 		}
 
-		this.checkedNodepairs.add(nodepair);
-		clonepair.addNodePair(nodepair);
+		this.checkedNodepairs.add(pdgNodeA, pdgNodeB);
+		clonepair.addNodePair(new NodePairInfo(pdgNodeA, pdgNodeB));
 		return clonepair;
 	}
 
@@ -116,7 +127,12 @@ public class Slicing {
 		assert null != candidates : "\"candidates\" is null.";
 		assert null != clonepairs : "\"clonepairs\" is null.";
 
+		// an empty clone pair would only become a copy of the candidate made
+		// from the next clone pair, so it is skipped
 		for (final ClonePairInfo clonepair : clonepairs) {
+			if (clonepair.isEmpty()) {
+				continue;
+			}
 			for (final ClonePairInfo candidate : candidates) {
 				if (!candidate.conflict(clonepair)) {
 					candidate.merge(clonepair);
@@ -129,57 +145,68 @@ public class Slicing {
 		}
 	}
 
-	private List<ClonePairInfo> enlargeBackwardClonePair(
-			final SortedSet<PDGEdge> edgesA, final SortedSet<PDGEdge> edgesB,
-			final Set<PDGNode<?>> checkedNodesA,
-			final Set<PDGNode<?>> checkedNodesB) {
+	private boolean isCheckedA(final int node) {
+		return this.checkedNodesA[node]
+				|| (this.intra && this.checkedNodesB[node]);
+	}
 
+	private boolean isCheckedB(final int node) {
+		return this.checkedNodesB[node]
+				|| (this.intra && this.checkedNodesA[node]);
+	}
+
+	private List<ClonePairInfo> enlargeBackwardClonePair(final int nodeA,
+			final int nodeB) {
+
+		final FrozenPDG graphA = this.graphA.graph;
+		final FrozenPDG graphB = this.graphB.graph;
 		final List<ClonePairInfo> clonepairs = new ArrayList<ClonePairInfo>();
 
-		EDGEA: for (final PDGEdge edgeA : edgesA) {
+		EDGEA: for (int positionA = graphA.getBackwardBegin(nodeA); positionA < graphA
+				.getBackwardEnd(nodeA); positionA++) {
 
-			if (checkedNodesA.contains(edgeA.fromNode)
-					|| checkedNodesB.contains(edgeA.fromNode)) {
+			final int edgeA = this.graphA.getBackwardEdge(positionA);
+			final int fromNodeA = graphA.getFromNode(edgeA);
+			if (this.isCheckedA(fromNodeA)) {
 				continue EDGEA;
 			}
 
-			final PDGNode<?>[] equivalentNodesA = this.mappingPDGNodeToPDGNodes
-					.get(edgeA.fromNode);
-			if (null == equivalentNodesA) {
+			final int equivalentNodesA = this.graphA.getNodeClass(fromNodeA);
+			if (-1 == equivalentNodesA) {
 				continue EDGEA;
 			}
 
-			EDGEB: for (final PDGEdge edgeB : edgesB) {
+			EDGEB: for (int positionB = graphB.getBackwardBegin(nodeB); positionB < graphB
+					.getBackwardEnd(nodeB); positionB++) {
 
-				if (checkedNodesB.contains(edgeB.fromNode)
-						|| checkedNodesA.contains(edgeB.fromNode)) {
+				final int edgeB = this.graphB.getBackwardEdge(positionB);
+				final int fromNodeB = graphB.getFromNode(edgeB);
+				if (this.isCheckedB(fromNodeB)) {
 					continue EDGEB;
 				}
 
-				final PDGNode<?>[] equivalentNodesB = this.mappingPDGNodeToPDGNodes
-						.get(edgeB.fromNode);
-				if (null == equivalentNodesB) {
+				final int equivalentNodesB = this.graphB
+						.getNodeClass(fromNodeB);
+				if (-1 == equivalentNodesB) {
 					continue EDGEB;
 				}
 
-				if (edgeA == edgeB) {
+				if (this.intra && (edgeA == edgeB)) {
 					continue EDGEB;
 				}
 
+				if (!this.budget.consume()) {
+					break EDGEA;
+				}
 				NUMBER_OF_COMPARISON.incrementAndGet();
 				if (equivalentNodesA == equivalentNodesB) {
 
-					if (edgeA.fromNode == edgeB.fromNode) {
+					if (this.intra && (fromNodeA == fromNodeB)) {
 						continue EDGEB;
 					}
 
-					final SortedSet<PDGNode<?>> newCheckedNodesA = new TreeSet<PDGNode<?>>(
-							checkedNodesA);
-					final SortedSet<PDGNode<?>> newCheckedNodesB = new TreeSet<PDGNode<?>>(
-							checkedNodesB);
-					final ClonePairInfo clonepair = this.perform(
-							edgeA.fromNode, edgeB.fromNode, newCheckedNodesA,
-							newCheckedNodesB);
+					final ClonePairInfo clonepair = this.perform(fromNodeA,
+							fromNodeB);
 					clonepairs.add(clonepair);
 				}
 			}
@@ -188,56 +215,57 @@ public class Slicing {
 		return clonepairs;
 	}
 
-	private List<ClonePairInfo> enlargeForwardClonePair(
-			final SortedSet<PDGEdge> edgesA, final SortedSet<PDGEdge> edgesB,
-			final Set<PDGNode<?>> checkedNodesA,
-			final Set<PDGNode<?>> checkedNodesB) {
+	private List<ClonePairInfo> enlargeForwardClonePair(final int nodeA,
+			final int nodeB) {
 
+		final FrozenPDG graphA = this.graphA.graph;
+		final FrozenPDG graphB = this.graphB.graph;
 		final List<ClonePairInfo> clonepairs = new ArrayList<ClonePairInfo>();
 
-		EDGEA: for (final PDGEdge edgeA : edgesA) {
+		EDGEA: for (int positionA = graphA.getForwardBegin(nodeA); positionA < graphA
+				.getForwardEnd(nodeA); positionA++) {
 
-			if (checkedNodesA.contains(edgeA.toNode)
-					|| checkedNodesB.contains(edgeA.toNode)) {
+			final int edgeA = this.graphA.getForwardEdge(positionA);
+			final int toNodeA = graphA.getToNode(edgeA);
+			if (this.isCheckedA(toNodeA)) {
 				continue EDGEA;
 			}
 
-			final PDGNode<?>[] equivalentNodesA = this.mappingPDGNodeToPDGNodes
-					.get(edgeA.toNode);
-			if (null == equivalentNodesA) {
+			final int equivalentNodesA = this.graphA.getNodeClass(toNodeA);
+			if (-1 == equivalentNodesA) {
 				continue EDGEA;
 			}
 
-			EDGEB: for (final PDGEdge edgeB : edgesB) {
+			EDGEB: for (int positionB = graphB.getForwardBegin(nodeB); positionB < graphB
+					.getForwardEnd(nodeB); positionB++) {
 
-				if (checkedNodesB.contains(edgeB.toNode)
-						|| checkedNodesA.contains(edgeB.toNode)) {
+				final int edgeB = this.graphB.getForwardEdge(positionB);
+				final int toNodeB = graphB.getToNode(edgeB);
+				if (this.isCheckedB(toNodeB)) {
 					continue EDGEB;
 				}
 
-				final PDGNode<?>[] equivalentNodesB = this.mappingPDGNodeToPDGNodes
-						.get(edgeB.toNode);
-				if (null == equivalentNodesB) {
+				final int equivalentNodesB = this.graphB.getNodeClass(toNodeB);
+				if (-1 == equivalentNodesB) {
 					continue EDGEB;
 				}
 
-				if (edgeA == edgeB) {
+				if (this.intra && (edgeA == edgeB)) {
 					continue EDGEB;
 				}
 
+				if (!this.budget.consume()) {
+					break EDGEA;
+				}
 				NUMBER_OF_COMPARISON.incrementAndGet();
 				if (equivalentNodesA == equivalentNodesB) {
 
-					if (edgeA.toNode == edgeB.toNode) {
+					if (this.intra && (toNodeA == toNodeB)) {
 						continue EDGEB;
 					}
 
-					final SortedSet<PDGNode<?>> newCheckedNodesA = new TreeSet<PDGNode<?>>(
-							checkedNodesA);
-					final SortedSet<PDGNode<?>> newCheckedNodesB = new TreeSet<PDGNode<?>>(
-							checkedNodesB);
-					final ClonePairInfo clonepair = this.perform(edgeA.toNode,
-							edgeB.toNode, newCheckedNodesA, newCheckedNodesB);
+					final ClonePairInfo clonepair = this.perform(toNodeA,
+							toNodeB);
 					clonepairs.add(clonepair);
 				}
 			}
@@ -245,36 +273,4 @@ public class Slicing {
 
 		return clonepairs;
 	}
-
-	class PDGEdgeComparator implements Comparator<PDGEdge> {
-
-		final private SortedMap<PDGEdge, PDGEdge[]> mappingPDGEdgeToPDFEdge;
-
-		PDGEdgeComparator(
-				final SortedMap<PDGEdge, PDGEdge[]> mappingPDGEdgeToPDGEdges) {
-			this.mappingPDGEdgeToPDFEdge = mappingPDGEdgeToPDGEdges;
-		}
-
-		@Override
-		public int compare(final PDGEdge o1, final PDGEdge o2) {
-
-			PDGEdge[] edgesA = this.mappingPDGEdgeToPDFEdge.get(o1);
-			PDGEdge[] edgesB = this.mappingPDGEdgeToPDFEdge.get(o2);
-
-			if (null == edgesA) {
-				edgesA = new PDGEdge[0];
-			}
-			if (null == edgesB) {
-				edgesB = new PDGEdge[0];
-			}
-
-			if (edgesA.length < edgesB.length) {
-				return -1;
-			} else if (edgesA.length > edgesB.length) {
-				return 1;
-			} else {
-				return o1.compareTo(o2);
-			}
-		}
-	}
 }
@@ -0,0 +1,66 @@
+package example.tinypdg.scorpio;
+
+/**
+ * Amount of work allowed for slicing a single PDG pair, as a number of node
+ * comparisons and as elapsed time from the creation of the budget. A limit
+ * of 0 stands for no limit. Once a limit is reached the budget stays
+ * exhausted. Instances are not thread-safe.
+ */
+public class SlicingBudget {
+
+	// the clock is read once in this many comparisons
+	final static private int CLOCK_INTERVAL = 256;
+
+	final private long maxComparisons;
+	final private long deadline;
+	private long comparisons;
+	private boolean exhausted;
+
+	public SlicingBudget() {
+		this(0, 0);
+	}
+
+	public SlicingBudget(final long maxComparisons, final long maxNanos) {
+		assert 0 <= maxComparisons : "\"maxComparisons\" must not be negative.";
+		assert 0 <= maxNanos : "\"maxNanos\" must not be negative.";
+		this.maxComparisons = maxComparisons;
+		this.deadline = 0 < maxNanos ? System.nanoTime() + maxNanos : 0;
+		this.comparisons = 0;
+		this.exhausted = false;
+	}
+
+	/**
+	 * Takes one comparison from the budget, and returns false without taking
+	 * it when the budget is exhausted.
+	 */
+	public boolean consume() {
+
+		if (this.exhausted) {
+			return false;
+		}
+
+		if ((0 < this.maxComparisons)
+				&& (this.maxComparisons <= this.comparisons)) {
+			this.exhausted = true;
+			return false;
+		}
+
+		if ((0 != this.deadline)
+				&& (0 == this.comparisons % CLOCK_INTERVAL)
+				&& (0 <= System.nanoTime() - this.deadline)) {
+			this.exhausted = true;
+			return false;
+		}
+
+		this.comparisons++;
+		return true;
+	}
+
+	public boolean isExhausted() {
+		return this.exhausted;
+	}
+
+	public long getNumberOfComparisons() {
+		return this.comparisons;
+	}
+}
@@ -1,6 +1,9 @@
 package example.tinypdg.scorpio;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map.Entry;
@@ -8,306 +11,365 @@ import java.util.SortedMap;
 import java.util.SortedSet;
 import java.util.TreeMap;
 import java.util.TreeSet;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
 
+import example.tinypdg.pdg.FrozenPDG;
 import example.tinypdg.pdg.PDG;
 import example.tinypdg.pdg.edge.PDGEdge;
 import example.tinypdg.pdg.node.PDGNode;
 import example.tinypdg.scorpio.data.ClonePairInfo;
-import example.tinypdg.scorpio.data.NodePairInfo;
+import example.tinypdg.scorpio.data.ClonePairRecord;
+import example.tinypdg.scorpio.data.NodePairSet;
 import example.tinypdg.scorpio.data.PDGPairInfo;
+import example.tinypdg.scorpio.io.ClonePairSpool;
 
-public class SlicingThread implements Runnable {
+public class SlicingThread {
 
-	final static private AtomicInteger PAIRINDEX = new AtomicInteger(0);
-	final static private AtomicInteger SINGLEINDEX = new AtomicInteger(0);
-
-	final private PDGPairInfo[] pdgpairs;
-	final private PDG[] pdgs;
-
-	final private SortedMap<PDG, SortedMap<PDGNode<?>, Integer>> mapPDGToPDGNodes;
-	final private SortedMap<PDG, SortedMap<PDGEdge, Integer>> mapPDGToPDGEdges;
-	final private SortedSet<ClonePairInfo> clonepairs;
+	final private SortedMap<PDG, HashBucketTable<PDGNode<?>>> mapPDGToPDGNodes;
+	final private SortedMap<PDG, HashBucketTable<PDGEdge>> mapPDGToPDGEdges;
+	final private ClonePairSpool spool;
 	final private int SIZE_THRESHOLD;
+	final private long maxComparisons;
+	final private long maxNanos;
+	final private ConcurrentMap<Thread, Worker> workers;
+	final private List<PDGPairInfo> truncatedPairs;
+	final private AtomicReference<IOException> failure;
+
+	public SlicingThread(
+			final SortedMap<PDG, HashBucketTable<PDGNode<?>>> mapPDGToPDGNodes,
+			final SortedMap<PDG, HashBucketTable<PDGEdge>> mapPDGToPDGEdges,
+			final ClonePairSpool spool, final int SIZE_THRESHOLD) {
+		this(mapPDGToPDGNodes, mapPDGToPDGEdges, spool, SIZE_THRESHOLD, 0,
+				0);
+	}
 
-	SlicingThread(
-			final PDGPairInfo[] pdgpairs,
-			final PDG[] pdgs,
-			final SortedMap<PDG, SortedMap<PDGNode<?>, Integer>> mapPDGToPDGNodes,
-			final SortedMap<PDG, SortedMap<PDGEdge, Integer>> mapPDGToPDGEdges,
-			final SortedSet<ClonePairInfo> clonepairs, final int SIZE_THRESHOLD) {
-		assert null != pdgpairs : "\"pdgpairs\" is null.";
-		assert null != pdgs : "\"pdgs\" is null.";
+	/**
+	 * @param spool
+	 *            spool that receives the detected clone pairs as records, so
+	 *            that they do not keep their PDGs in memory
+	 * @param maxComparisons
+	 *            number of comparisons allowed for slicing a single PDG pair,
+	 *            or 0 for no limit
+	 * @param maxNanos
+	 *            time allowed for slicing a single PDG pair, or 0 for no limit
+	 */
+	public SlicingThread(
+			final SortedMap<PDG, HashBucketTable<PDGNode<?>>> mapPDGToPDGNodes,
+			final SortedMap<PDG, HashBucketTable<PDGEdge>> mapPDGToPDGEdges,
+			final ClonePairSpool spool, final int SIZE_THRESHOLD,
+			final long maxComparisons,
+			final long maxNanos) {
 		assert null != mapPDGToPDGNodes : "\"mapPDGToPDGNodes\"";
 		assert null != mapPDGToPDGEdges : "\"mapPDGToPDGEdges\" is null.";
-		assert null != clonepairs : "\"clonepairs\" is null.";
+		assert null != spool : "\"spool\" is null.";
 		assert 0 < SIZE_THRESHOLD : "\"THRESHOLD\" must be greater than 0.";
-		this.pdgpairs = pdgpairs;
-		this.pdgs = pdgs;
+		assert 0 <= maxComparisons : "\"maxComparisons\" must not be negative.";
+		assert 0 <= maxNanos : "\"maxNanos\" must not be negative.";
 		this.mapPDGToPDGNodes = mapPDGToPDGNodes;
 		this.mapPDGToPDGEdges = mapPDGToPDGEdges;
-		this.clonepairs = clonepairs;
+		this.spool = spool;
 		this.SIZE_THRESHOLD = SIZE_THRESHOLD;
+		this.maxComparisons = maxComparisons;
+		this.maxNanos = maxNanos;
+		this.workers = new ConcurrentHashMap<Thread, Worker>();
+		this.truncatedPairs = new ArrayList<PDGPairInfo>();
+		this.failure = new AtomicReference<IOException>();
 	}
 
-	@Override
-	public void run() {
+	public void process(final PDG left, final PDG right) {
+		final Worker worker = this.getWorker();
+		final SlicingBudget budget = this.createBudget();
+		this.detectClonePairs(left, right, worker.clonepairs,
+				worker.checkedNodepairs, budget);
+		if (budget.isExhausted()) {
+			worker.truncatedPairs.add(new PDGPairInfo(left, right));
+		}
+		this.store(worker);
+	}
 
-		final SortedSet<ClonePairInfo> clonepairs = new TreeSet<ClonePairInfo>();
+	public void process(final PDG pdg) {
 
-		for (int index = PAIRINDEX.getAndIncrement(); index < this.pdgpairs.length; index = PAIRINDEX
-				.getAndIncrement()) {
+		assert null != pdg : "\"pdg\" is null.";
 
-			final PDG pdgA = this.pdgpairs[index].left;
-			final PDG pdgB = this.pdgpairs[index].right;
-			final String pathA = pdgA.unit.path;
-			final String pathB = pdgB.unit.path;
+		final Worker worker = this.getWorker();
+		final SlicingBudget budget = this.createBudget();
+		final String path = pdg.unit.path;
+		worker.clonepairs.clear();
 
-			try {
+		try {
 
-				final SortedMap<PDGNode<?>, Integer> mappingPDGNodeToHashA = this.mapPDGToPDGNodes
-						.get(pdgA);
-				final SortedMap<PDGNode<?>, Integer> mappingPDGNodeToHashB = this.mapPDGToPDGNodes
-						.get(pdgB);
-				final SortedMap<Integer, List<PDGNode<?>>> mappingHashToPDGNodes = new TreeMap<Integer, List<PDGNode<?>>>();
-				this.registerNodes(mappingHashToPDGNodes, mappingPDGNodeToHashA);
-				this.registerNodes(mappingHashToPDGNodes, mappingPDGNodeToHashB);
-				final SortedMap<PDGNode<?>, PDGNode<?>[]> mappingPDGNodeToPDGNodes = new TreeMap<PDGNode<?>, PDGNode<?>[]>();
-				for (final List<PDGNode<?>> list : mappingHashToPDGNodes
-						.values()) {
-					if (1 < list.size()) {
-						final PDGNode<?>[] nodes = list
-								.toArray(new PDGNode<?>[0]);
-						for (final PDGNode<?> node : nodes) {
-							mappingPDGNodeToPDGNodes.put(node, nodes);
-						}
-					}
-				}
+			final FrozenPDG graph = pdg.freeze();
 
-				final SortedMap<PDGEdge, Integer> mappingPDGEdgeToHashA = this.mapPDGToPDGEdges
-						.get(pdgA);
-				final SortedMap<PDGEdge, Integer> mappingPDGEdgeToHashB = this.mapPDGToPDGEdges
-						.get(pdgB);
+			final HashBucketTable<PDGNode<?>> nodeBuckets = this.mapPDGToPDGNodes
+					.get(pdg);
+			final int[] nodeClasses = new int[graph.getNumberOfNodes()];
+			Arrays.fill(nodeClasses, -1);
+			final int[] joinedNodeBuckets = nodeBuckets.join(null);
+			for (int bucket = 0; bucket < joinedNodeBuckets.length; bucket += 2) {
+				assign(nodeBuckets, joinedNodeBuckets[bucket], nodeClasses,
+						bucket / 2);
+			}
 
-				final SortedSet<PDGEdge> edgesA = pdgA.getAllEdges();
-				final SortedSet<PDGEdge> edgesB = pdgB.getAllEdges();
+			final HashBucketTable<PDGEdge> edgeBuckets = this.mapPDGToPDGEdges
+					.get(pdg);
+			final int[] edgeClassSizes = new int[graph.getNumberOfEdges()];
+			final SortedSet<PDGEdge[]> sortedPDGEdges = new TreeSet<PDGEdge[]>(
+					new PDGEdgesComparator());
+			final int[] joinedEdgeBuckets = edgeBuckets.join(null);
+			for (int bucket = 0; bucket < joinedEdgeBuckets.length; bucket += 2) {
+				final PDGEdge[] edges = makeEquivalenceClass(edgeBuckets,
+						joinedEdgeBuckets[bucket], null, -1, new PDGEdge[0]);
+				assign(edgeBuckets, joinedEdgeBuckets[bucket],
+						edgeClassSizes, edges.length);
+				sortedPDGEdges.add(edges);
+			}
 
-				final SortedMap<Integer, List<PDGEdge>> mappingHashToPDGEdges = new TreeMap<Integer, List<PDGEdge>>();
-				this.registerEdges(mappingHashToPDGEdges, mappingPDGEdgeToHashA);
-				this.registerEdges(mappingHashToPDGEdges, mappingPDGEdgeToHashB);
+			final EquivalenceGraph equivalenceGraph = new EquivalenceGraph(
+					graph, nodeClasses, edgeClassSizes);
+			final NodePairSet checkedNodepairs = worker.checkedNodepairs;
+			checkedNodepairs.clear();
+			CLASS: for (final PDGEdge[] edges : sortedPDGEdges) {
+				for (int x = 0; x < edges.length; x++) {
+					for (int y = x + 1; y < edges.length; y++) {
 
-				final SortedMap<PDGEdge, PDGEdge[]> mappingPDGEdgeToPDGEdges = new TreeMap<PDGEdge, PDGEdge[]>();
-				for (final List<PDGEdge> list : mappingHashToPDGEdges.values()) {
-					if (1 < list.size()) {
-						final PDGEdge[] edges = list.toArray(new PDGEdge[0]);
-						for (final PDGEdge edge : edges) {
-							mappingPDGEdgeToPDGEdges.put(edge, edges);
+						final PDGEdge edgeA = edges[x];
+						final PDGEdge edgeB = edges[y];
+
+						if (checkedNodepairs.contains(edgeA.fromNode,
+								edgeB.fromNode)) {
+							continue;
 						}
-					}
-				}
 
-				final SortedSet<PDGEdge[]> sortedPDGEdges = new TreeSet<PDGEdge[]>(
-						new PDGEdgesComparator());
-				for (final List<PDGEdge> list : mappingHashToPDGEdges.values()) {
-					if (1 < list.size()) {
-						final PDGEdge[] edges = list.toArray(new PDGEdge[0]);
-						sortedPDGEdges.add(edges);
-					}
-				}
+						if (edgeA.connectedWith(edgeB)) {
+							continue;
+						}
 
-				final SortedSet<NodePairInfo> checkedNodepairs = new TreeSet<NodePairInfo>();
-				for (final PDGEdge[] edges : sortedPDGEdges) {
-					for (int x = 0; x < edges.length; x++) {
-						for (int y = 0; y < edges.length; y++) {
-
-							if (x == y) {
-								continue;
-							}
-
-							final PDGEdge edgeA = edges[x];
-							final PDGEdge edgeB = edges[y];
-
-							if (!(edgesA.contains(edgeA) && edgesB
-									.contains(edgeB))) {
-								continue;
-							}
-
-							final NodePairInfo nodepair = new NodePairInfo(
-									edgeA.fromNode, edgeB.fromNode);
-							if (checkedNodepairs.contains(nodepair)) {
-								continue;
-							}
-
-							if (edgeA.connectedWith(edgeB)) {
-								continue;
-							}
-
-							final Slicing slicing = new Slicing(pathA, pathB,
-									edgeA.fromNode, edgeB.fromNode,
-									mappingPDGNodeToPDGNodes,
-									mappingPDGEdgeToPDGEdges, checkedNodepairs);
-							final ClonePairInfo clonepair = slicing.perform();
-							if (this.SIZE_THRESHOLD <= clonepair.size()) {
-								clonepairs.add(clonepair);
-							}
+						final Slicing slicing = new Slicing(path, path,
+								equivalenceGraph, equivalenceGraph,
+								edgeA.fromNode, edgeB.fromNode,
+								checkedNodepairs, budget);
+						final ClonePairInfo clonepair = slicing.perform();
+						if (this.SIZE_THRESHOLD <= clonepair.size()) {
+							worker.clonepairs.add(clonepair);
+						}
+						if (budget.isExhausted()) {
+							break CLASS;
 						}
 					}
 				}
-
-			} catch (Exception e) {
-				e.printStackTrace();
-				System.err
-						.println("ERROR: failed to detect clones between the method "
-								+ pdgA.unit.name
-								+ " in "
-								+ pathA
-								+ " and the method"
-								+ pdgB.unit.name
-								+ " in "
-								+ pathB);
 			}
+
+		} catch (Exception e) {
+			e.printStackTrace();
+			System.err
+					.println("ERROR: failed to detect clones in the method "
+							+ pdg.unit.name + " in " + path);
 		}
 
-		for (int index = SINGLEINDEX.getAndIncrement(); index < this.pdgs.length; index = SINGLEINDEX
-				.getAndIncrement()) {
+		if (budget.isExhausted()) {
+			worker.truncatedPairs.add(new PDGPairInfo(pdg, pdg));
+		}
+		this.store(worker);
+	}
 
-			final PDG pdg = this.pdgs[index];
-			final String path = pdg.unit.path;
+	/**
+	 * Hands the clone pairs buffered by all the threads over to the spool
+	 * given on construction. Subsumed clone pairs are not removed here,
+	 * since subsumption has to see the clone pairs of all the PDG pairs, see
+	 * {@link CloneSubsumption}. A failure to write the clone pairs to the
+	 * spool during slicing is thrown here.
+	 */
+	public void complete() throws IOException {
+		if (null != this.failure.get()) {
+			throw this.failure.get();
+		}
+		for (final Worker worker : this.workers.values()) {
+			this.spool.add(worker.records);
+			this.truncatedPairs.addAll(worker.truncatedPairs);
+		}
+		this.workers.clear();
+		Collections.sort(this.truncatedPairs, new Comparator<PDGPairInfo>() {
+			@Override
+			public int compare(final PDGPairInfo o1, final PDGPairInfo o2) {
+				final int order = o1.left.compareTo(o2.left);
+				return 0 != order ? order : o1.right.compareTo(o2.right);
+			}
+		});
+	}
 
+	/**
+	 * Returns the PDG pairs whose slicing ran out of budget, which is known
+	 * after {@link #complete()}. A pair of a PDG with itself stands for the
+	 * slicing within the PDG.
+	 */
+	public List<PDGPairInfo> getTruncatedPairs() {
+		return Collections.unmodifiableList(this.truncatedPairs);
+	}
+
+	// the clone pairs of a PDG pair are turned into records right away, so
+	// that they do not keep the PDGs in memory
+	private void store(final Worker worker) {
+		for (final ClonePairInfo clonepair : worker.clonepairs) {
+			worker.records.add(new ClonePairRecord(clonepair));
+		}
+		worker.clonepairs.clear();
+		if (this.spool.getCapacity() <= worker.records.size()) {
 			try {
+				this.spool.add(worker.records);
+			} catch (final IOException e) {
+				this.failure.compareAndSet(null, e);
+			}
+			worker.records = new ArrayList<ClonePairRecord>();
+		}
+	}
 
-				final SortedMap<PDGNode<?>, Integer> mappingPDGNodeToHash = this.mapPDGToPDGNodes
-						.get(pdg);
-				final SortedMap<Integer, List<PDGNode<?>>> mappingHashToPDGNodes = new TreeMap<Integer, List<PDGNode<?>>>();
-				this.registerNodes(mappingHashToPDGNodes, mappingPDGNodeToHash);
-				final SortedMap<PDGNode<?>, PDGNode<?>[]> mappingPDGNodeToPDGNodes = new TreeMap<PDGNode<?>, PDGNode<?>[]>();
-				for (final List<PDGNode<?>> list : mappingHashToPDGNodes
-						.values()) {
-					if (1 < list.size()) {
-						final PDGNode<?>[] nodes = list
-								.toArray(new PDGNode<?>[0]);
-						for (final PDGNode<?> node : nodes) {
-							mappingPDGNodeToPDGNodes.put(node, nodes);
-						}
-					}
-				}
+	private SlicingBudget createBudget() {
+		return new SlicingBudget(this.maxComparisons, this.maxNanos);
+	}
 
-				final SortedMap<PDGEdge, Integer> mappingPDGEdgeToHash = this.mapPDGToPDGEdges
-						.get(pdg);
-				final SortedMap<Integer, List<PDGEdge>> mappingHashToPDGEdges = new TreeMap<Integer, List<PDGEdge>>();
-				this.registerEdges(mappingHashToPDGEdges, mappingPDGEdgeToHash);
-				final SortedMap<PDGEdge, PDGEdge[]> mappingPDGEdgeToPDGEdges = new TreeMap<PDGEdge, PDGEdge[]>();
-				for (final List<PDGEdge> list : mappingHashToPDGEdges.values()) {
-					if (1 < list.size()) {
-						final PDGEdge[] edges = list.toArray(new PDGEdge[0]);
-						for (final PDGEdge edge : edges) {
-							mappingPDGEdgeToPDGEdges.put(edge, edges);
-						}
-					}
-				}
+	private Worker getWorker() {
+		final Thread thread = Thread.currentThread();
+		Worker worker = this.workers.get(thread);
+		if (null == worker) {
+			worker = new Worker();
+			this.workers.put(thread, worker);
+		}
+		return worker;
+	}
 
-				final SortedSet<PDGEdge[]> sortedPDGEdges = new TreeSet<PDGEdge[]>(
-						new PDGEdgesComparator());
-				for (final List<PDGEdge> list : mappingHashToPDGEdges.values()) {
-					if (1 < list.size()) {
-						final PDGEdge[] edges = list.toArray(new PDGEdge[0]);
-						sortedPDGEdges.add(edges);
-					}
+	private void detectClonePairs(final PDG pdgA, final PDG pdgB,
+			final SortedSet<ClonePairInfo> clonepairs,
+			final NodePairSet checkedNodepairs, final SlicingBudget budget) {
+
+		final String pathA = pdgA.unit.path;
+		final String pathB = pdgB.unit.path;
+		clonepairs.clear();
+
+		try {
+
+			final FrozenPDG graphA = pdgA.freeze();
+			final FrozenPDG graphB = pdgB.freeze();
+
+			final HashBucketTable<PDGNode<?>> nodeBucketsA = this.mapPDGToPDGNodes
+					.get(pdgA);
+			final HashBucketTable<PDGNode<?>> nodeBucketsB = this.mapPDGToPDGNodes
+					.get(pdgB);
+			final int[] nodeClassesA = new int[graphA.getNumberOfNodes()];
+			final int[] nodeClassesB = new int[graphB.getNumberOfNodes()];
+			Arrays.fill(nodeClassesA, -1);
+			Arrays.fill(nodeClassesB, -1);
+			final int[] joinedNodeBuckets = nodeBucketsA.join(nodeBucketsB);
+			for (int bucket = 0; bucket < joinedNodeBuckets.length; bucket += 2) {
+				assign(nodeBucketsA, joinedNodeBuckets[bucket], nodeClassesA,
+						bucket / 2);
+				assign(nodeBucketsB, joinedNodeBuckets[bucket + 1],
+						nodeClassesB, bucket / 2);
+			}
+
+			final HashBucketTable<PDGEdge> edgeBucketsA = this.mapPDGToPDGEdges
+					.get(pdgA);
+			final HashBucketTable<PDGEdge> edgeBucketsB = this.mapPDGToPDGEdges
+					.get(pdgB);
+			final int[] edgeClassSizesA = new int[graphA.getNumberOfEdges()];
+			final int[] edgeClassSizesB = new int[graphB.getNumberOfEdges()];
+			final SortedMap<PDGEdge[], Integer> sortedPDGEdges = new TreeMap<PDGEdge[], Integer>(
+					new PDGEdgesComparator());
+			final int[] joinedEdgeBuckets = edgeBucketsA.join(edgeBucketsB);
+			for (int bucket = 0; bucket < joinedEdgeBuckets.length; bucket += 2) {
+				final PDGEdge[] edges = makeEquivalenceClass(edgeBucketsA,
+						joinedEdgeBuckets[bucket], edgeBucketsB,
+						joinedEdgeBuckets[bucket + 1], new PDGEdge[0]);
+				assign(edgeBucketsA, joinedEdgeBuckets[bucket],
+						edgeClassSizesA, edges.length);
+				assign(edgeBucketsB, joinedEdgeBuckets[bucket + 1],
+						edgeClassSizesB, edges.length);
+				if ((-1 != joinedEdgeBuckets[bucket])
+						&& (-1 != joinedEdgeBuckets[bucket + 1])) {
+					sortedPDGEdges.put(edges, edgeBucketsA
+							.getBucketSize(joinedEdgeBuckets[bucket]));
 				}
+			}
 
-				final SortedSet<NodePairInfo> checkedNodepairs = new TreeSet<NodePairInfo>();
-				for (final PDGEdge[] edges : sortedPDGEdges) {
-					for (int x = 0; x < edges.length; x++) {
-						for (int y = x + 1; y < edges.length; y++) {
-
-							final PDGEdge edgeA = edges[x];
-							final PDGEdge edgeB = edges[y];
-
-							final NodePairInfo nodepair = new NodePairInfo(
-									edgeA.fromNode, edgeB.fromNode);
-							if (checkedNodepairs.contains(nodepair)) {
-								continue;
-							}
-
-							if (edgeA.connectedWith(edgeB)) {
-								continue;
-							}
-
-							final Slicing slicing = new Slicing(path, path,
-									edgeA.fromNode, edgeB.fromNode,
-									mappingPDGNodeToPDGNodes,
-									mappingPDGEdgeToPDGEdges, checkedNodepairs);
-							final ClonePairInfo clonepair = slicing.perform();
-							if (this.SIZE_THRESHOLD <= clonepair.size()) {
-								clonepairs.add(clonepair);
-							}
+			final EquivalenceGraph equivalenceGraphA = new EquivalenceGraph(
+					graphA, nodeClassesA, edgeClassSizesA);
+			final EquivalenceGraph equivalenceGraphB = new EquivalenceGraph(
+					graphB, nodeClassesB, edgeClassSizesB);
+
+			checkedNodepairs.clear();
+			CLASS: for (final Entry<PDGEdge[], Integer> entry : sortedPDGEdges
+					.entrySet()) {
+				final PDGEdge[] edges = entry.getKey();
+				final int sizeA = entry.getValue();
+				for (int x = 0; x < sizeA; x++) {
+					for (int y = sizeA; y < edges.length; y++) {
+
+						final PDGEdge edgeA = edges[x];
+						final PDGEdge edgeB = edges[y];
+
+						if (checkedNodepairs.contains(edgeA.fromNode,
+								edgeB.fromNode)) {
+							continue;
 						}
-					}
-				}
 
-			} catch (Exception e) {
-				e.printStackTrace();
-				System.err
-						.println("ERROR: failed to detect clones in the method "
-								+ pdg.unit.name + " in " + path);
-			}
-		}
+						if (edgeA.connectedWith(edgeB)) {
+							continue;
+						}
 
-		{
-			final ClonePairInfo[] pairs = clonepairs
-					.toArray(new ClonePairInfo[0]);
-			for (int i = 0; i < pairs.length; i++) {
-				for (int j = i + 1; j < pairs.length; j++) {
-					if (this.sameOnOkValue(pairs[i], pairs[j], 0.7f)) {
-						if (pairs[i].size() <= pairs[j].size()) {
-							clonepairs.remove(pairs[i]);
+						final Slicing slicing = new Slicing(pathA, pathB,
+								equivalenceGraphA, equivalenceGraphB,
+								edgeA.fromNode, edgeB.fromNode,
+								checkedNodepairs, budget);
+						final ClonePairInfo clonepair = slicing.perform();
+						if (this.SIZE_THRESHOLD <= clonepair.size()) {
+							clonepairs.add(clonepair);
+						}
+						if (budget.isExhausted()) {
+							break CLASS;
 						}
 					}
 				}
 			}
-		}
 
-		this.clonepairs.addAll(clonepairs);
+		} catch (Exception e) {
+			e.printStackTrace();
+			System.err
+					.println("ERROR: failed to detect clones between the method "
+							+ pdgA.unit.name
+							+ " in "
+							+ pathA
+							+ " and the method"
+							+ pdgB.unit.name
+							+ " in "
+							+ pathB);
+		}
 	}
 
-	private void registerNodes(
-			final SortedMap<Integer, List<PDGNode<?>>> mappingHashToPDGNodes,
-			final SortedMap<PDGNode<?>, Integer> mappingPDGNodeToHash) {
-
-		assert null != mappingHashToPDGNodes : "\"mappingHashToPDGNodes\" is null.";
-		assert null != mappingPDGNodeToHash : "\"mappingPDGNodeToHash\" is null.";
-
-		for (final Entry<PDGNode<?>, Integer> entry : mappingPDGNodeToHash
-				.entrySet()) {
-			final Integer hash = entry.getValue();
-			final PDGNode<?> node = entry.getKey();
-			List<PDGNode<?>> nodes = mappingHashToPDGNodes.get(hash);
-			if (null == nodes) {
-				nodes = new ArrayList<PDGNode<?>>();
-				mappingHashToPDGNodes.put(hash, nodes);
+	private static void assign(final HashBucketTable<?> buckets,
+			final int bucket, final int[] values, final int value) {
+		if (-1 != bucket) {
+			for (int index = 0; index < buckets.getBucketSize(bucket); index++) {
+				values[buckets.getIndex(bucket, index)] = value;
 			}
-			nodes.add(node);
 		}
 	}
 
-	private void registerEdges(
-			final SortedMap<Integer, List<PDGEdge>> mappingHashToPDGEdges,
-			final SortedMap<PDGEdge, Integer> mappingPDGEdgeToHash) {
-
-		assert null != mappingHashToPDGEdges : "\"mappingHashToPDGEdges\" is null.";
-		assert null != mappingPDGEdgeToHash : "\"mappingPDGEdgeToHash\" is null.";
-
-		for (final Entry<PDGEdge, Integer> entry : mappingPDGEdgeToHash
-				.entrySet()) {
-			final Integer hash = entry.getValue();
-			final PDGEdge edge = entry.getKey();
-			List<PDGEdge> edges = mappingHashToPDGEdges.get(hash);
-			if (null == edges) {
-				edges = new ArrayList<PDGEdge>();
-				mappingHashToPDGEdges.put(hash, edges);
-			}
-			edges.add(edge);
+	private static <T> T[] makeEquivalenceClass(
+			final HashBucketTable<T> bucketsA, final int bucketA,
+			final HashBucketTable<T> bucketsB, final int bucketB,
+			final T[] prototype) {
+
+		final int sizeA = -1 != bucketA ? bucketsA.getBucketSize(bucketA) : 0;
+		final int sizeB = -1 != bucketB ? bucketsB.getBucketSize(bucketB) : 0;
+		final T[] elements = Arrays.copyOf(prototype, sizeA + sizeB);
+		if (0 < sizeA) {
+			bucketsA.copyBucket(bucketA, elements, 0);
 		}
+		if (0 < sizeB) {
+			bucketsB.copyBucket(bucketB, elements, sizeA);
+		}
+		return elements;
 	}
 
 	private boolean sameOnGoodValue(final ClonePairInfo pair1,
@@ -338,30 +400,6 @@ public class SlicingThread implements Runnable {
 		return threshold <= good;
 	}
 
-	private boolean sameOnOkValue(final ClonePairInfo pair1,
-			final ClonePairInfo pair2, final float threshold) {
-
-		final SortedSet<PDGNode<?>> edges1A = pair1.getLeftNodes();
-		final SortedSet<PDGNode<?>> edges2A = pair2.getLeftNodes();
-		final SortedSet<PDGNode<?>> intersectionA = new TreeSet<PDGNode<?>>();
-		intersectionA.addAll(edges1A);
-		intersectionA.retainAll(edges2A);
-
-		final SortedSet<PDGNode<?>> edges1B = pair1.getRightNodes();
-		final SortedSet<PDGNode<?>> edges2B = pair2.getRightNodes();
-		final SortedSet<PDGNode<?>> intersectionB = new TreeSet<PDGNode<?>>();
-		intersectionB.addAll(edges1B);
-		intersectionB.retainAll(edges2B);
-
-		final float ok = Math.min(Math.max((float) intersectionA.size()
-				/ (float) edges1A.size(), (float) intersectionA.size()
-				/ (float) edges2A.size()), Math.max(
-				(float) intersectionB.size() / (float) edges1B.size(),
-				(float) intersectionB.size() / (float) edges2B.size()));
-
-		return threshold <= ok;
-	}
-
 	class PDGEdgesComparator implements Comparator<PDGEdge[]> {
 
 		@Override
@@ -377,4 +415,12 @@ public class SlicingThread implements Runnable {
 		}
 
 	}
+
+	static class Worker {
+
+		final SortedSet<ClonePairInfo> clonepairs = new TreeSet<ClonePairInfo>();
+		List<ClonePairRecord> records = new ArrayList<ClonePairRecord>();
+		final NodePairSet checkedNodepairs = new NodePairSet();
+		final List<PDGPairInfo> truncatedPairs = new ArrayList<PDGPairInfo>();
+	}
 }
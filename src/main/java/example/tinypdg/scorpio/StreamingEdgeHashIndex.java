@@ -0,0 +1,96 @@
+package example.tinypdg.scorpio;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Inverted index from edge hashes to PDGs that grows one PDG at a time.
+ * Every added PDG is matched only against the PDGs added before it, so
+ * each candidate pair is reported exactly once whatever the arrival order
+ * is. Instances are not thread-safe.
+ */
+public class StreamingEdgeHashIndex {
+
+	final private Map<Long, Integer> keys;
+	private int[][] postings;
+	private int[] lengths;
+	private int[] counts;
+	private int[] partners;
+	private int size;
+
+	public StreamingEdgeHashIndex() {
+		this.keys = new HashMap<Long, Integer>();
+		this.postings = new int[16][];
+		this.lengths = new int[16];
+		this.counts = new int[16];
+		this.partners = new int[16];
+		this.size = 0;
+	}
+
+	public int size() {
+		return this.size;
+	}
+
+	public int getNumberOfHashes() {
+		return this.keys.size();
+	}
+
+	/**
+	 * Adds the distinct edge hashes of a new PDG and returns the sorted
+	 * indices of the previously added PDGs sharing at least the given
+	 * number of hashes with it. The new PDG gets the index {@link #size()}
+	 * had before the call.
+	 */
+	public int[] add(final long[] hashes, final int threshold) {
+
+		assert null != hashes : "\"hashes\" is null.";
+		assert 0 < threshold : "\"threshold\" must be greater than 0.";
+
+		if (this.counts.length <= this.size) {
+			this.counts = new int[this.size * 2];
+			this.partners = new int[this.size * 2];
+		}
+
+		final int index = this.size++;
+		int numberOfPartners = 0;
+		for (final long hash : hashes) {
+			Integer key = this.keys.get(hash);
+			if (null == key) {
+				key = this.keys.size();
+				this.keys.put(hash, key);
+				if (this.postings.length <= key) {
+					this.postings = Arrays.copyOf(this.postings, key * 2);
+					this.lengths = Arrays.copyOf(this.lengths, key * 2);
+				}
+				this.postings[key] = new int[2];
+			}
+
+			final int[] posting = this.postings[key];
+			for (int i = 0; i < this.lengths[key]; i++) {
+				if (0 == this.counts[posting[i]]++) {
+					this.partners[numberOfPartners++] = posting[i];
+				}
+			}
+
+			if (posting.length <= this.lengths[key]) {
+				this.postings[key] = Arrays.copyOf(posting, posting.length * 2);
+			}
+			this.postings[key][this.lengths[key]++] = index;
+		}
+
+		int numberOfCandidates = 0;
+		for (int i = 0; i < numberOfPartners; i++) {
+			final int partner = this.partners[i];
+			if (threshold <= this.counts[partner]) {
+				this.partners[numberOfCandidates++] = partner;
+			}
+			this.counts[partner] = 0;
+		}
+
+		final int[] candidates = Arrays.copyOf(this.partners,
+				numberOfCandidates);
+		Arrays.sort(candidates);
+		return candidates;
+	}
+}
@@ -0,0 +1,40 @@
+package example.tinypdg.scorpio;
+
+import example.tinypdg.pdg.edge.PDGEdge;
+
+public class StructuralHash {
+
+	final static private long OFFSET_BASIS = 0xcbf29ce484222325l;
+	final static private long PRIME = 0x100000001b3l;
+
+	public static long hash(final CharSequence text) {
+		assert null != text : "\"text\" is null.";
+		long hash = OFFSET_BASIS;
+		for (int index = 0; index < text.length(); index++) {
+			final char c = text.charAt(index);
+			hash = (hash ^ (c & 0xff)) * PRIME;
+			hash = (hash ^ (c >>> 8)) * PRIME;
+		}
+		return mix(hash ^ text.length());
+	}
+
+	public static long hash(final long fromNodeHash, final PDGEdge.TYPE type,
+			final long toNodeHash) {
+		assert null != type : "\"type\" is null.";
+		long hash = fromNodeHash * 0x9e3779b97f4a7c15l;
+		hash ^= (type.ordinal() + 1) * 0xc2b2ae3d27d4eb4fl;
+		hash = Long.rotateLeft(hash, 31) * 0x165667b19e3779f9l;
+		hash ^= toNodeHash;
+		return mix(hash);
+	}
+
+	private static long mix(final long key) {
+		long h = key;
+		h ^= h >>> 33;
+		h *= 0xff51afd7ed558ccdl;
+		h ^= h >>> 33;
+		h *= 0xc4ceb9fe1a85ec53l;
+		h ^= h >>> 33;
+		return h;
+	}
+}
@@ -1,35 +1,81 @@
 package example.tinypdg.scorpio.data;
 
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
 
+import example.tinypdg.pdg.node.PDGMethodEnterNode;
 import example.tinypdg.pdg.node.PDGNode;
+import example.tinypdg.pdg.node.PDGNormalNode;
+import example.tinypdg.scorpio.pdg.PDGMergedNode;
 
+/**
+ * Node pairs of a clone pair are kept in immutable trees that merging
+ * shares instead of copying, so that building up clone pairs during slicing
+ * costs the merge of the element arrays only. Since a tree can be shared by
+ * several merged trees, the node pairs form a DAG, and the sorted set of
+ * node pairs is made from it when it is first needed.
+ */
 public class ClonePairInfo implements Comparable<ClonePairInfo> {
 
+	final static private int[] EMPTY = new int[0];
+
 	final public String pathA;
 	final public String pathB;
-	final private SortedSet<NodePairInfo> nodePairs;
+	private NodePairTree pairs;
+	private SortedSet<NodePairInfo> nodePairs;
+	private int[] leftElements;
+	private int[] rightElements;
+	private int[] leftNodeIDs;
+	private int[] rightNodeIDs;
 
 	public ClonePairInfo(final String pathA, final String pathB) {
 		this.pathA = pathA;
 		this.pathB = pathB;
-		this.nodePairs = new TreeSet<NodePairInfo>();
+		this.pairs = null;
+		this.nodePairs = null;
+		this.leftElements = EMPTY;
+		this.rightElements = EMPTY;
 	}
 
 	public void addNodePair(final NodePairInfo nodePair) {
 		assert null != nodePair : "\"nodePair\" is null.";
-		this.nodePairs.add(nodePair);
+		if ((null != this.nodePairs) && this.nodePairs.contains(nodePair)) {
+			return;
+		}
+		this.add(new NodePairTree(nodePair));
+		this.leftElements = union(this.leftElements,
+				getElements(nodePair.nodeA));
+		this.rightElements = union(this.rightElements,
+				getElements(nodePair.nodeB));
 	}
 
 	public void merge(final ClonePairInfo merged) {
 		assert null != merged : "\"merged\" is null.";
-		this.nodePairs.addAll(merged.nodePairs);
+		if (null == merged.pairs) {
+			return;
+		}
+		this.add(merged.pairs);
+		this.leftElements = union(this.leftElements, merged.leftElements);
+		this.rightElements = union(this.rightElements, merged.rightElements);
+	}
+
+	/**
+	 * Returns whether this clone pair has no node pairs. A clone pair can
+	 * have node pairs but no elements, and then it is not empty.
+	 */
+	public boolean isEmpty() {
+		return null == this.pairs;
 	}
 
 	public CodeFragmentInfo getLeftCodeFragment() {
 		final CodeFragmentInfo codefragment = new CodeFragmentInfo();
-		for (final NodePairInfo pair : this.nodePairs) {
+		for (final NodePairInfo pair : this.getNodePairSet()) {
 			codefragment.merge(new CodeFragmentInfo(pair.nodeA));
 		}
 		return codefragment;
@@ -37,7 +83,7 @@ public class ClonePairInfo implements Comparable<ClonePairInfo> {
 
 	public CodeFragmentInfo getRightCodeFragment() {
 		final CodeFragmentInfo codefragment = new CodeFragmentInfo();
-		for (final NodePairInfo edgepair : this.nodePairs) {
+		for (final NodePairInfo edgepair : this.getNodePairSet()) {
 			codefragment.merge(new CodeFragmentInfo(edgepair.nodeB));
 		}
 		return codefragment;
@@ -45,7 +91,7 @@ public class ClonePairInfo implements Comparable<ClonePairInfo> {
 
 	public SortedSet<PDGNode<?>> getLeftNodes() {
 		final SortedSet<PDGNode<?>> nodes = new TreeSet<PDGNode<?>>();
-		for (final NodePairInfo pair : this.nodePairs) {
+		for (final NodePairInfo pair : this.getNodePairSet()) {
 			nodes.add(pair.nodeA);
 		}
 		return nodes;
@@ -53,22 +99,48 @@ public class ClonePairInfo implements Comparable<ClonePairInfo> {
 
 	public SortedSet<PDGNode<?>> getRightNodes() {
 		final SortedSet<PDGNode<?>> nodes = new TreeSet<PDGNode<?>>();
-		for (final NodePairInfo pair : this.nodePairs) {
+		for (final NodePairInfo pair : this.getNodePairSet()) {
 			nodes.add(pair.nodeB);
 		}
 		return nodes;
 	}
 
+	public int[] getLeftNodeIDs() {
+		if (null == this.leftNodeIDs) {
+			this.leftNodeIDs = this.getNodeIDs(true);
+		}
+		return this.leftNodeIDs;
+	}
+
+	public int[] getRightNodeIDs() {
+		if (null == this.rightNodeIDs) {
+			this.rightNodeIDs = this.getNodeIDs(false);
+		}
+		return this.rightNodeIDs;
+	}
+
+	/**
+	 * Returns the sorted IDs of the program elements of the left code
+	 * fragment, which determine the order and the size of clone pairs.
+	 */
+	public int[] getLeftElements() {
+		return this.leftElements.clone();
+	}
+
+	public int[] getRightElements() {
+		return this.rightElements.clone();
+	}
+
 	public int compareTo(final ClonePairInfo clonepair) {
 
-		final int leftOrder = this.getLeftCodeFragment().compareTo(
-				clonepair.getLeftCodeFragment());
+		final int leftOrder = compare(this.leftElements,
+				clonepair.leftElements);
 		if (0 != leftOrder) {
 			return leftOrder;
 		}
 
-		final int rightOrder = this.getRightCodeFragment().compareTo(
-				clonepair.getRightCodeFragment());
+		final int rightOrder = compare(this.rightElements,
+				clonepair.rightElements);
 		if (0 != rightOrder) {
 			return rightOrder;
 		}
@@ -77,27 +149,194 @@ public class ClonePairInfo implements Comparable<ClonePairInfo> {
 	}
 
 	public int size() {
-		final CodeFragmentInfo left = this.getLeftCodeFragment();
-		final CodeFragmentInfo right = this.getRightCodeFragment();
-		return Math.min(left.size(), right.size());
+		return Math.min(this.leftElements.length, this.rightElements.length);
 	}
 
 	public boolean conflict(final ClonePairInfo clonepair) {
 		assert null != clonepair : "\"clonepair\" is null.";
-		return this.getLeftCodeFragment().conflict(
-				clonepair.getLeftCodeFragment())
-				|| this.getRightCodeFragment().conflict(
-						clonepair.getRightCodeFragment())
-				|| this.getLeftCodeFragment().conflict(
-						clonepair.getRightCodeFragment())
-				|| this.getRightCodeFragment().conflict(
-						clonepair.getLeftCodeFragment());
-
+		return intersect(this.leftElements, clonepair.leftElements)
+				|| intersect(this.rightElements, clonepair.rightElements)
+				|| intersect(this.leftElements, clonepair.rightElements)
+				|| intersect(this.rightElements, clonepair.leftElements);
 	}
 
 	public SortedSet<NodePairInfo> getNodePairs() {
 		final SortedSet<NodePairInfo> nodepairs = new TreeSet<NodePairInfo>();
-		nodepairs.addAll(this.nodePairs);
+		nodepairs.addAll(this.getNodePairSet());
 		return nodepairs;
 	}
+
+	private void add(final NodePairTree tree) {
+		this.pairs = null != this.pairs ? new NodePairTree(this.pairs, tree)
+				: tree;
+		this.nodePairs = null;
+		this.leftNodeIDs = null;
+		this.rightNodeIDs = null;
+	}
+
+	private SortedSet<NodePairInfo> getNodePairSet() {
+		if (null == this.nodePairs) {
+			final SortedSet<NodePairInfo> nodePairs = new TreeSet<NodePairInfo>();
+			if (null != this.pairs) {
+
+				// a shared tree is expanded once however many merged trees
+				// contain it
+				final Set<NodePairTree> expanded = Collections
+						.newSetFromMap(new IdentityHashMap<NodePairTree, Boolean>());
+				final Deque<NodePairTree> trees = new ArrayDeque<NodePairTree>();
+				trees.push(this.pairs);
+				while (!trees.isEmpty()) {
+					final NodePairTree tree = trees.pop();
+					if (null != tree.pair) {
+						nodePairs.add(tree.pair);
+					} else if (expanded.add(tree)) {
+						trees.push(tree.right);
+						trees.push(tree.left);
+					}
+				}
+			}
+			this.nodePairs = nodePairs;
+		}
+		return this.nodePairs;
+	}
+
+	private int[] getNodeIDs(final boolean left) {
+
+		final SortedSet<NodePairInfo> nodePairs = this.getNodePairSet();
+		final int[] ids = new int[nodePairs.size()];
+		int length = 0;
+		for (final NodePairInfo pair : nodePairs) {
+			ids[length++] = left ? pair.nodeA.core.id : pair.nodeB.core.id;
+		}
+		Arrays.sort(ids);
+
+		int distinct = 0;
+		for (int index = 0; index < length; index++) {
+			if ((0 == distinct) || (ids[distinct - 1] != ids[index])) {
+				ids[distinct++] = ids[index];
+			}
+		}
+		return distinct == ids.length ? ids : Arrays.copyOf(ids, distinct);
+	}
+
+	private static int[] getElements(final PDGNode<?> node) {
+
+		if (node instanceof PDGMergedNode) {
+			final SortedSet<PDGNormalNode<?>> originalNodes = ((PDGMergedNode) node)
+					.getOriginalNodes();
+			final int[] elements = new int[originalNodes.size()];
+			int index = 0;
+			for (final PDGNode<?> originalNode : originalNodes) {
+				elements[index++] = originalNode.core.id;
+			}
+			Arrays.sort(elements);
+			return elements;
+		}
+
+		else if (node instanceof PDGMethodEnterNode) {
+			return EMPTY;
+		}
+
+		else {
+			return new int[] { node.core.id };
+		}
+	}
+
+	private static int[] union(final int[] elements1, final int[] elements2) {
+
+		if (0 == elements2.length) {
+			return elements1;
+		} else if (0 == elements1.length) {
+			return elements2;
+		}
+
+		final int[] union = new int[elements1.length + elements2.length];
+		int index1 = 0;
+		int index2 = 0;
+		int length = 0;
+		while ((index1 < elements1.length) && (index2 < elements2.length)) {
+			if (elements1[index1] < elements2[index2]) {
+				union[length++] = elements1[index1++];
+			} else if (elements1[index1] > elements2[index2]) {
+				union[length++] = elements2[index2++];
+			} else {
+				union[length++] = elements1[index1++];
+				index2++;
+			}
+		}
+		while (index1 < elements1.length) {
+			union[length++] = elements1[index1++];
+		}
+		while (index2 < elements2.length) {
+			union[length++] = elements2[index2++];
+		}
+
+		if (length == elements1.length) {
+			return elements1;
+		}
+		return length == union.length ? union : Arrays.copyOf(union, length);
+	}
+
+	private static boolean intersect(final int[] elements1,
+			final int[] elements2) {
+
+		if ((0 == elements1.length) || (0 == elements2.length)
+				|| (elements1[elements1.length - 1] < elements2[0])
+				|| (elements2[elements2.length - 1] < elements1[0])) {
+			return false;
+		}
+
+		int index1 = 0;
+		int index2 = 0;
+		while ((index1 < elements1.length) && (index2 < elements2.length)) {
+			if (elements1[index1] < elements2[index2]) {
+				index1++;
+			} else if (elements1[index1] > elements2[index2]) {
+				index2++;
+			} else {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	static int compare(final int[] elements1, final int[] elements2) {
+
+		final int length = Math.min(elements1.length, elements2.length);
+		for (int index = 0; index < length; index++) {
+			if (elements1[index] < elements2[index]) {
+				return -1;
+			} else if (elements1[index] > elements2[index]) {
+				return 1;
+			}
+		}
+
+		if (elements1.length < elements2.length) {
+			return -1;
+		} else if (elements1.length > elements2.length) {
+			return 1;
+		} else {
+			return 0;
+		}
+	}
+
+	// either a single node pair or the concatenation of two trees
+	static class NodePairTree {
+
+		final NodePairInfo pair;
+		final NodePairTree left;
+		final NodePairTree right;
+
+		NodePairTree(final NodePairInfo pair) {
+			this.pair = pair;
+			this.left = null;
+			this.right = null;
+		}
+
+		NodePairTree(final NodePairTree left, final NodePairTree right) {
+			this.pair = null;
+			this.left = left;
+			this.right = right;
+		}
+	}
 }
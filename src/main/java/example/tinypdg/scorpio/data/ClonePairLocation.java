@@ -0,0 +1,75 @@
+package example.tinypdg.scorpio.data;
+
+import java.util.Comparator;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import example.tinypdg.pe.ProgramElementInfo;
+
+/**
+ * Line ranges of the code fragments of a clone pair, detached from their
+ * PDGs. Each side holds the distinct (startLine, endLine) pairs of its
+ * elements in locational order, flattened into a single array.
+ */
+public class ClonePairLocation {
+
+	final public String pathA;
+	final public String pathB;
+	final private int[] rangesA;
+	final private int[] rangesB;
+
+	public ClonePairLocation(final ClonePairInfo clonepair) {
+		this(clonepair.pathA, getRanges(clonepair.getLeftCodeFragment()),
+				clonepair.pathB, getRanges(clonepair.getRightCodeFragment()));
+	}
+
+	public ClonePairLocation(final String pathA, final int[] rangesA,
+			final String pathB, final int[] rangesB) {
+		assert null != pathA : "\"pathA\" is null.";
+		assert null != pathB : "\"pathB\" is null.";
+		assert null != rangesA && 0 < rangesA.length
+				&& 0 == rangesA.length % 2 : "\"rangesA\" is invalid.";
+		assert null != rangesB && 0 < rangesB.length
+				&& 0 == rangesB.length % 2 : "\"rangesB\" is invalid.";
+		this.pathA = pathA;
+		this.pathB = pathB;
+		this.rangesA = rangesA;
+		this.rangesB = rangesB;
+	}
+
+	public int[] getLeftRanges() {
+		return this.rangesA.clone();
+	}
+
+	public int[] getRightRanges() {
+		return this.rangesB.clone();
+	}
+
+	private static int[] getRanges(final CodeFragmentInfo codefragment) {
+
+		final SortedSet<ProgramElementInfo> elements = new TreeSet<ProgramElementInfo>(
+				new Comparator<ProgramElementInfo>() {
+
+					@Override
+					public int compare(final ProgramElementInfo o1,
+							final ProgramElementInfo o2) {
+						if (o1.startLine != o2.startLine) {
+							return o1.startLine < o2.startLine ? -1 : 1;
+						} else if (o1.endLine != o2.endLine) {
+							return o1.endLine < o2.endLine ? -1 : 1;
+						} else {
+							return 0;
+						}
+					}
+				});
+		elements.addAll(codefragment.getElements());
+
+		final int[] ranges = new int[elements.size() * 2];
+		int index = 0;
+		for (final ProgramElementInfo element : elements) {
+			ranges[index++] = element.startLine;
+			ranges[index++] = element.endLine;
+		}
+		return ranges;
+	}
+}
@@ -0,0 +1,118 @@
+package example.tinypdg.scorpio.data;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * A detected clone pair detached from its PDGs. It keeps what is needed to
+ * order and de-duplicate clone pairs (the element IDs), to remove subsumed
+ * clone pairs (the node IDs) and to write them out (the line ranges), so
+ * that PDGs do not have to stay in memory until the results are written.
+ * Records are ordered the same way as the {@link ClonePairInfo}s they are
+ * made from.
+ */
+public class ClonePairRecord implements Comparable<ClonePairRecord> {
+
+	final public String pathA;
+	final public String pathB;
+	final private int[] leftElements;
+	final private int[] rightElements;
+	final private int[] leftNodeIDs;
+	final private int[] rightNodeIDs;
+	final private ClonePairLocation location;
+
+	public ClonePairRecord(final ClonePairInfo clonepair) {
+		this(clonepair.getLeftElements(), clonepair.getRightElements(),
+				clonepair.getLeftNodeIDs(), clonepair.getRightNodeIDs(),
+				new ClonePairLocation(clonepair));
+	}
+
+	public ClonePairRecord(final int[] leftElements,
+			final int[] rightElements, final int[] leftNodeIDs,
+			final int[] rightNodeIDs, final ClonePairLocation location) {
+		assert null != leftElements : "\"leftElements\" is null.";
+		assert null != rightElements : "\"rightElements\" is null.";
+		assert null != leftNodeIDs : "\"leftNodeIDs\" is null.";
+		assert null != rightNodeIDs : "\"rightNodeIDs\" is null.";
+		assert null != location : "\"location\" is null.";
+		this.pathA = location.pathA;
+		this.pathB = location.pathB;
+		this.leftElements = leftElements;
+		this.rightElements = rightElements;
+		this.leftNodeIDs = leftNodeIDs;
+		this.rightNodeIDs = rightNodeIDs;
+		this.location = location;
+	}
+
+	public int[] getLeftNodeIDs() {
+		return this.leftNodeIDs;
+	}
+
+	public int[] getRightNodeIDs() {
+		return this.rightNodeIDs;
+	}
+
+	public ClonePairLocation getLocation() {
+		return this.location;
+	}
+
+	public int size() {
+		return Math.min(this.leftElements.length, this.rightElements.length);
+	}
+
+	@Override
+	public int compareTo(final ClonePairRecord record) {
+		assert null != record : "\"record\" is null.";
+		final int leftOrder = ClonePairInfo.compare(this.leftElements,
+				record.leftElements);
+		if (0 != leftOrder) {
+			return leftOrder;
+		}
+		return ClonePairInfo.compare(this.rightElements, record.rightElements);
+	}
+
+	public void write(final DataOutput output) throws IOException {
+		assert null != output : "\"output\" is null.";
+		output.writeUTF(this.pathA);
+		output.writeUTF(this.pathB);
+		writeInts(output, this.leftElements);
+		writeInts(output, this.rightElements);
+		writeInts(output, this.leftNodeIDs);
+		writeInts(output, this.rightNodeIDs);
+		writeInts(output, this.location.getLeftRanges());
+		writeInts(output, this.location.getRightRanges());
+	}
+
+	public static ClonePairRecord read(final DataInput input)
+			throws IOException {
+		assert null != input : "\"input\" is null.";
+		final String pathA = input.readUTF();
+		final String pathB = input.readUTF();
+		final int[] leftElements = readInts(input);
+		final int[] rightElements = readInts(input);
+		final int[] leftNodeIDs = readInts(input);
+		final int[] rightNodeIDs = readInts(input);
+		final int[] rangesA = readInts(input);
+		final int[] rangesB = readInts(input);
+		return new ClonePairRecord(leftElements, rightElements, leftNodeIDs,
+				rightNodeIDs, new ClonePairLocation(pathA, rangesA, pathB,
+						rangesB));
+	}
+
+	private static int[] readInts(final DataInput input) throws IOException {
+		final int[] values = new int[input.readInt()];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = input.readInt();
+		}
+		return values;
+	}
+
+	private static void writeInts(final DataOutput output, final int[] values)
+			throws IOException {
+		output.writeInt(values.length);
+		for (final int value : values) {
+			output.writeInt(value);
+		}
+	}
+}
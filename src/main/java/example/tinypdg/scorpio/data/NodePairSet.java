@@ -0,0 +1,103 @@
+package example.tinypdg.scorpio.data;
+
+import java.util.Arrays;
+
+import example.tinypdg.pdg.node.PDGNode;
+
+public class NodePairSet {
+
+	final static private long EMPTY = -1l;
+	final static private int INITIAL_CAPACITY = 64;
+
+	private long[] keys;
+	private int size;
+
+	public NodePairSet() {
+		this.keys = new long[INITIAL_CAPACITY];
+		Arrays.fill(this.keys, EMPTY);
+		this.size = 0;
+	}
+
+	public boolean add(final PDGNode<?> nodeA, final PDGNode<?> nodeB) {
+
+		assert null != nodeA : "\"nodeA\" is null.";
+		assert null != nodeB : "\"nodeB\" is null.";
+
+		if (this.keys.length <= (this.size + 1) * 2) {
+			this.rehash(this.keys.length * 2);
+		}
+
+		final long key = getKey(nodeA, nodeB);
+		final int slot = this.find(this.keys, key);
+		if (EMPTY != this.keys[slot]) {
+			return false;
+		}
+
+		this.keys[slot] = key;
+		this.size++;
+		return true;
+	}
+
+	public boolean contains(final PDGNode<?> nodeA, final PDGNode<?> nodeB) {
+
+		assert null != nodeA : "\"nodeA\" is null.";
+		assert null != nodeB : "\"nodeB\" is null.";
+
+		return EMPTY != this.keys[this.find(this.keys, getKey(nodeA, nodeB))];
+	}
+
+	public int size() {
+		return this.size;
+	}
+
+	public boolean isEmpty() {
+		return 0 == this.size;
+	}
+
+	public void clear() {
+		if (0 < this.size) {
+			final int capacity = Math.max(INITIAL_CAPACITY,
+					Integer.highestOneBit(this.size) * 4);
+			if (capacity < this.keys.length) {
+				this.keys = new long[capacity];
+			}
+			Arrays.fill(this.keys, EMPTY);
+			this.size = 0;
+		}
+	}
+
+	private int find(final long[] keys, final long key) {
+		final int mask = keys.length - 1;
+		int slot = mix(key) & mask;
+		while ((EMPTY != keys[slot]) && (key != keys[slot])) {
+			slot = (slot + 1) & mask;
+		}
+		return slot;
+	}
+
+	private void rehash(final int capacity) {
+		final long[] keys = new long[capacity];
+		Arrays.fill(keys, EMPTY);
+		for (final long key : this.keys) {
+			if (EMPTY != key) {
+				keys[this.find(keys, key)] = key;
+			}
+		}
+		this.keys = keys;
+	}
+
+	private static long getKey(final PDGNode<?> nodeA, final PDGNode<?> nodeB) {
+		assert 0 <= nodeA.core.id && 0 <= nodeB.core.id : "invalid id.";
+		return ((long) nodeA.core.id << 32) | nodeB.core.id;
+	}
+
+	private static int mix(final long key) {
+		long h = key;
+		h ^= h >>> 33;
+		h *= 0xff51afd7ed558ccdl;
+		h ^= h >>> 33;
+		h *= 0xc4ceb9fe1a85ec53l;
+		h ^= h >>> 33;
+		return (int) h;
+	}
+}
@@ -3,18 +3,39 @@ package example.tinypdg.scorpio.io;
 import java.io.BufferedWriter;
 import java.io.FileWriter;
 import java.io.IOException;
-import java.util.Comparator;
+import java.util.Collections;
 import java.util.SortedSet;
 import java.util.TreeSet;
 
-import example.tinypdg.pe.ProgramElementInfo;
 import example.tinypdg.scorpio.data.ClonePairInfo;
+import example.tinypdg.scorpio.data.ClonePairLocation;
 
 public class BellonWriter extends Writer {
 
+	final private Iterable<ClonePairLocation> locations;
+	private int numberOfWrittenClonePairs;
+
 	public BellonWriter(final String path,
 			final SortedSet<ClonePairInfo> clonepairs) {
+		this(path, clonepairs, Collections.<ClonePairLocation> emptyList());
+	}
+
+	public BellonWriter(final String path,
+			final SortedSet<ClonePairInfo> clonepairs,
+			final Iterable<ClonePairLocation> locations) {
 		super(path, clonepairs);
+		assert null != locations : "\"locations\" is null.";
+		this.locations = locations;
+		this.numberOfWrittenClonePairs = 0;
+	}
+
+	/**
+	 * Makes a writer of clone pairs that are already detached from their
+	 * PDGs. The locations are written in the order they are iterated.
+	 */
+	public BellonWriter(final String path,
+			final Iterable<ClonePairLocation> locations) {
+		this(path, new TreeSet<ClonePairInfo>(), locations);
 	}
 
 	@Override
@@ -26,31 +47,11 @@ public class BellonWriter extends Writer {
 					this.path));
 
 			for (final ClonePairInfo clonepair : this.clonepairs) {
+				this.write(writer, new ClonePairLocation(clonepair));
+			}
 
-				final SortedSet<ProgramElementInfo> elementsA = new TreeSet<ProgramElementInfo>(
-						new LocationalComparator());
-				final SortedSet<ProgramElementInfo> elementsB = new TreeSet<ProgramElementInfo>(
-						new LocationalComparator());
-				elementsA.addAll(clonepair.getLeftCodeFragment().getElements());
-				elementsB
-						.addAll(clonepair.getRightCodeFragment().getElements());
-
-				writer.write(clonepair.pathA);
-				writer.write("\t");
-				writer.write(Integer.toString(elementsA.first().startLine));
-				writer.write("\t");
-				writer.write(Integer.toString(elementsA.last().endLine));
-				writer.write("\t");
-				writer.write(clonepair.pathB);
-				writer.write("\t");
-				writer.write(Integer.toString(elementsB.first().startLine));
-				writer.write("\t");
-				writer.write(Integer.toString(elementsB.last().endLine));
-				writer.write("\t");
-				writer.write(this.generateGapsText(elementsA));
-				writer.write("\t");
-				writer.write(this.generateGapsText(elementsB));
-				writer.newLine();
+			for (final ClonePairLocation location : this.locations) {
+				this.write(writer, location);
 			}
 
 			writer.close();
@@ -61,54 +62,61 @@ public class BellonWriter extends Writer {
 		}
 	}
 
-	private String generateGapsText(final SortedSet<ProgramElementInfo> elements) {
+	public int getNumberOfWrittenClonePairs() {
+		return this.numberOfWrittenClonePairs;
+	}
 
-		final SortedSet<Integer> lines = new TreeSet<Integer>();
-		for (int line = elements.first().startLine; line <= elements.last().endLine; line++) {
-			lines.add(line);
-		}
+	private void write(final BufferedWriter writer,
+			final ClonePairLocation location) throws IOException {
+
+		this.numberOfWrittenClonePairs++;
+
+		final int[] rangesA = location.getLeftRanges();
+		final int[] rangesB = location.getRightRanges();
+
+		writer.write(location.pathA);
+		writer.write("\t");
+		writer.write(Integer.toString(rangesA[0]));
+		writer.write("\t");
+		writer.write(Integer.toString(rangesA[rangesA.length - 1]));
+		writer.write("\t");
+		writer.write(location.pathB);
+		writer.write("\t");
+		writer.write(Integer.toString(rangesB[0]));
+		writer.write("\t");
+		writer.write(Integer.toString(rangesB[rangesB.length - 1]));
+		writer.write("\t");
+		writer.write(this.generateGapsText(rangesA));
+		writer.write("\t");
+		writer.write(this.generateGapsText(rangesB));
+		writer.newLine();
+	}
 
-		for (final ProgramElementInfo element : elements) {
-			for (int line = element.startLine; line <= element.endLine; line++) {
-				lines.remove(line);
+	private String generateGapsText(final int[] ranges) {
+
+		final int first = ranges[0];
+		final int last = ranges[ranges.length - 1];
+		final boolean[] covered = new boolean[Math.max(0, last - first + 1)];
+		for (int index = 0; index < ranges.length; index += 2) {
+			for (int line = Math.max(first, ranges[index]); line <= Math.min(
+					last, ranges[index + 1]); line++) {
+				covered[line - first] = true;
 			}
 		}
 
 		final StringBuilder text = new StringBuilder();
-		if (lines.isEmpty()) {
-			text.append("-");
-		} else {
-			for (final int line : lines) {
+		for (int line = first; line <= last; line++) {
+			if (!covered[line - first]) {
 				text.append(Integer.toString(line));
 				text.append(",");
 			}
+		}
+		if (0 == text.length()) {
+			text.append("-");
+		} else {
 			text.deleteCharAt(text.length() - 1);
 		}
 
 		return text.toString();
 	}
-
-	class LocationalComparator implements Comparator<ProgramElementInfo> {
-
-		@Override
-		public int compare(final ProgramElementInfo o1,
-				final ProgramElementInfo o2) {
-
-			assert null != o1 : "\"o1\" is null.";
-			assert null != o2 : "\"o2\" is null.";
-
-			if (o1.startLine < o2.startLine) {
-				return -1;
-			} else if (o1.startLine > o2.startLine) {
-				return 1;
-			} else if (o1.endLine < o2.endLine) {
-				return -1;
-			} else if (o1.endLine > o2.endLine) {
-				return 1;
-			} else {
-				return 0;
-			}
-		}
-
-	}
 }
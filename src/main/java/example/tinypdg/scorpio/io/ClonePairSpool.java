@@ -0,0 +1,247 @@
+package example.tinypdg.scorpio.io;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+import example.tinypdg.scorpio.data.ClonePairRecord;
+
+/**
+ * Collects clone pair records in sorted runs, so that the number of records
+ * kept in memory does not depend on the number of detected clone pairs.
+ * Each thread buffers its own records and hands them over as a run. Runs of
+ * at least the given capacity are written to files in the given directory,
+ * smaller ones are kept in memory. The records of all runs are read back in
+ * the order of {@link ClonePairRecord} by merging the runs, and equal
+ * records are read only once.
+ */
+public class ClonePairSpool implements Iterable<ClonePairRecord> {
+
+	final private File directory;
+	final private int capacity;
+	final private List<File> files;
+	final private List<List<ClonePairRecord>> runs;
+
+	public ClonePairSpool(final File directory, final int capacity) {
+		assert null != directory : "\"directory\" is null.";
+		assert 0 < capacity : "\"capacity\" must be greater than 0.";
+		this.directory = directory;
+		this.capacity = capacity;
+		this.files = new ArrayList<File>();
+		this.runs = new ArrayList<List<ClonePairRecord>>();
+	}
+
+	/**
+	 * Returns the number of records that a thread should buffer before
+	 * handing them over.
+	 */
+	public int getCapacity() {
+		return this.capacity;
+	}
+
+	/**
+	 * Adds the given records as a run. The list is sorted and must not be
+	 * used by the caller afterwards.
+	 */
+	public void add(final List<ClonePairRecord> records) throws IOException {
+
+		assert null != records : "\"records\" is null.";
+
+		if (records.isEmpty()) {
+			return;
+		}
+
+		Collections.sort(records);
+		if (records.size() < this.capacity) {
+			synchronized (this) {
+				this.runs.add(records);
+			}
+			return;
+		}
+
+		final File file = File.createTempFile("clonepairs", ".run",
+				this.directory);
+		file.deleteOnExit();
+		synchronized (this) {
+			this.files.add(file);
+		}
+		final DataOutputStream stream = new DataOutputStream(
+				new BufferedOutputStream(new FileOutputStream(file)));
+		try {
+			stream.writeInt(records.size());
+			for (final ClonePairRecord record : records) {
+				record.write(stream);
+			}
+		} finally {
+			stream.close();
+		}
+	}
+
+	/**
+	 * Returns the number of runs written to files.
+	 */
+	public synchronized int getNumberOfSpilledRuns() {
+		return this.files.size();
+	}
+
+	/**
+	 * Deletes the files of the runs. The spool must not be used afterwards.
+	 */
+	public synchronized void close() {
+		for (final File file : this.files) {
+			file.delete();
+		}
+		this.files.clear();
+		this.runs.clear();
+	}
+
+	/**
+	 * Returns the records of all the runs in their order. Reading a run
+	 * file can fail with an {@link UncheckedIOException}.
+	 */
+	@Override
+	public synchronized Iterator<ClonePairRecord> iterator() {
+
+		final List<Iterator<ClonePairRecord>> runs = new ArrayList<Iterator<ClonePairRecord>>();
+		try {
+			for (final File file : this.files) {
+				runs.add(new RunReader(file));
+			}
+		} catch (final IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		for (final List<ClonePairRecord> run : this.runs) {
+			runs.add(run.iterator());
+		}
+
+		return new MergingIterator(runs);
+	}
+
+	// runs are merged with a heap of their heads, so that equal records
+	// come one after another and only the first of them is returned
+	static class MergingIterator implements Iterator<ClonePairRecord> {
+
+		final private List<Iterator<ClonePairRecord>> runs;
+		final private PriorityQueue<Head> heads;
+		private ClonePairRecord next;
+
+		MergingIterator(final List<Iterator<ClonePairRecord>> runs) {
+			this.runs = runs;
+			this.heads = new PriorityQueue<Head>(Math.max(1, runs.size()));
+			for (int index = 0; index < runs.size(); index++) {
+				this.advance(index);
+			}
+			this.next = this.poll(null);
+		}
+
+		@Override
+		public boolean hasNext() {
+			return null != this.next;
+		}
+
+		@Override
+		public ClonePairRecord next() {
+			if (null == this.next) {
+				throw new NoSuchElementException();
+			}
+			final ClonePairRecord current = this.next;
+			this.next = this.poll(current);
+			return current;
+		}
+
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+
+		private ClonePairRecord poll(final ClonePairRecord previous) {
+			while (!this.heads.isEmpty()) {
+				final Head head = this.heads.poll();
+				this.advance(head.run);
+				if ((null == previous)
+						|| (0 != previous.compareTo(head.record))) {
+					return head.record;
+				}
+			}
+			return null;
+		}
+
+		private void advance(final int run) {
+			final Iterator<ClonePairRecord> iterator = this.runs.get(run);
+			if (iterator.hasNext()) {
+				this.heads.add(new Head(iterator.next(), run));
+			}
+		}
+	}
+
+	static class Head implements Comparable<Head> {
+
+		final ClonePairRecord record;
+		final int run;
+
+		Head(final ClonePairRecord record, final int run) {
+			this.record = record;
+			this.run = run;
+		}
+
+		@Override
+		public int compareTo(final Head head) {
+			final int order = this.record.compareTo(head.record);
+			return 0 != order ? order : Integer.compare(this.run, head.run);
+		}
+	}
+
+	static class RunReader implements Iterator<ClonePairRecord> {
+
+		final private DataInputStream stream;
+		private int remaining;
+
+		RunReader(final File file) throws IOException {
+			this.stream = new DataInputStream(new BufferedInputStream(
+					new FileInputStream(file)));
+			this.remaining = this.stream.readInt();
+			if (0 == this.remaining) {
+				this.stream.close();
+			}
+		}
+
+		@Override
+		public boolean hasNext() {
+			return 0 < this.remaining;
+		}
+
+		@Override
+		public ClonePairRecord next() {
+			if (0 == this.remaining) {
+				throw new NoSuchElementException();
+			}
+			try {
+				final ClonePairRecord record = ClonePairRecord
+						.read(this.stream);
+				if (0 == --this.remaining) {
+					this.stream.close();
+				}
+				return record;
+			} catch (final IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+	}
+}
@@ -0,0 +1,189 @@
+package example.tinypdg.scorpio.io;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import example.tinypdg.scorpio.data.ClonePairRecord;
+
+/**
+ * Clone pairs detected by one shard of a sharded Scorpio run. Subsumed clone
+ * pairs are kept, because a clone pair of one shard can subsume clone pairs
+ * of other shards. The settings of the run are stored so that only results
+ * of the same analysis are merged. Records are written one after another as
+ * they are iterated, and the records of a loaded result are read from its
+ * file as they are iterated, so that they do not have to be in memory
+ * together.
+ */
+public class PartialResult {
+
+	final static private String MAGIC = "tinypdg-scorpio-partial";
+	final static private int VERSION = 2;
+
+	final public String settings;
+	final public int shard;
+	final public int numberOfShards;
+	final private Iterable<ClonePairRecord> records;
+
+	public PartialResult(final String settings, final int shard,
+			final int numberOfShards, final Iterable<ClonePairRecord> records) {
+		assert null != settings : "\"settings\" is null.";
+		assert 0 <= shard && shard < numberOfShards : "\"shard\" is out of range.";
+		assert null != records : "\"records\" is null.";
+		this.settings = settings;
+		this.shard = shard;
+		this.numberOfShards = numberOfShards;
+		this.records = records;
+	}
+
+	public Iterable<ClonePairRecord> getRecords() {
+		return this.records;
+	}
+
+	/**
+	 * Reads the header of the result stored in the given file. Its records
+	 * are read from the file every time they are iterated, which can fail
+	 * with an {@link UncheckedIOException}.
+	 */
+	public static PartialResult load(final File file) throws IOException {
+
+		assert null != file : "\"file\" is null.";
+
+		final DataInputStream stream = new DataInputStream(
+				new BufferedInputStream(new FileInputStream(file)));
+		try {
+			if (!MAGIC.equals(stream.readUTF())
+					|| (VERSION != stream.readInt())) {
+				throw new IOException(file.getPath()
+						+ " is not a partial result of this version.");
+			}
+			final String settings = stream.readUTF();
+			final int shard = stream.readInt();
+			final int numberOfShards = stream.readInt();
+			if ((shard < 0) || (numberOfShards <= shard)) {
+				throw new IOException(file.getPath()
+						+ " has an invalid shard.");
+			}
+			return new PartialResult(settings, shard, numberOfShards,
+					new Iterable<ClonePairRecord>() {
+
+						@Override
+						public Iterator<ClonePairRecord> iterator() {
+							try {
+								return new RecordReader(file);
+							} catch (final IOException e) {
+								throw new UncheckedIOException(e);
+							}
+						}
+					});
+		} finally {
+			stream.close();
+		}
+	}
+
+	/**
+	 * Writes this result to the given file through a temporary file, so
+	 * that an interrupted shard leaves no partial result behind.
+	 */
+	public void save(final File file) throws IOException {
+
+		assert null != file : "\"file\" is null.";
+
+		final File temporary = File.createTempFile("." + file.getName()
+				+ ".", ".tmp", file.getAbsoluteFile().getParentFile());
+		try {
+			final DataOutputStream stream = new DataOutputStream(
+					new BufferedOutputStream(new FileOutputStream(temporary)));
+			try {
+				stream.writeUTF(MAGIC);
+				stream.writeInt(VERSION);
+				stream.writeUTF(this.settings);
+				stream.writeInt(this.shard);
+				stream.writeInt(this.numberOfShards);
+				for (final ClonePairRecord record : this.records) {
+					stream.writeBoolean(true);
+					record.write(stream);
+				}
+				stream.writeBoolean(false);
+			} finally {
+				stream.close();
+			}
+			Files.move(temporary.toPath(), file.toPath(),
+					StandardCopyOption.ATOMIC_MOVE,
+					StandardCopyOption.REPLACE_EXISTING);
+		} finally {
+			Files.deleteIfExists(temporary.toPath());
+		}
+	}
+
+	static class RecordReader implements Iterator<ClonePairRecord> {
+
+		final private DataInputStream stream;
+		private boolean hasNext;
+
+		RecordReader(final File file) throws IOException {
+			this.stream = new DataInputStream(new BufferedInputStream(
+					new FileInputStream(file)));
+			try {
+				this.stream.readUTF();
+				this.stream.readInt();
+				this.stream.readUTF();
+				this.stream.readInt();
+				this.stream.readInt();
+				this.advance();
+			} catch (final IOException e) {
+				this.stream.close();
+				throw e;
+			}
+		}
+
+		@Override
+		public boolean hasNext() {
+			return this.hasNext;
+		}
+
+		@Override
+		public ClonePairRecord next() {
+			if (!this.hasNext) {
+				throw new NoSuchElementException();
+			}
+			try {
+				final ClonePairRecord record = ClonePairRecord
+						.read(this.stream);
+				this.advance();
+				return record;
+			} catch (final IOException e) {
+				this.hasNext = false;
+				try {
+					this.stream.close();
+				} catch (final IOException closing) {
+					e.addSuppressed(closing);
+				}
+				throw new UncheckedIOException(e);
+			}
+		}
+
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+
+		// the file is closed after the last record
+		private void advance() throws IOException {
+			this.hasNext = this.stream.readBoolean();
+			if (!this.hasNext) {
+				this.stream.close();
+			}
+		}
+	}
+}
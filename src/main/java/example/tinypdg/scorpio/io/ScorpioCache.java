@@ -0,0 +1,273 @@
+package example.tinypdg.scorpio.io;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import example.tinypdg.scorpio.data.ClonePairLocation;
+
+/**
+ * On-disk state of a previous Scorpio run. For every target file it keeps
+ * the content digest, the number of element IDs taken by the file and the
+ * edge hash dictionaries of the file's PDGs, and it keeps the locations of
+ * all detected clone pairs. A cache is only valid
+ * for the detection settings it was created with.
+ */
+public class ScorpioCache {
+
+	final static private String MAGIC = "tinypdg-scorpio-cache";
+	final static private int VERSION = 3;
+
+	final public String settings;
+	final private Map<String, String> digests;
+	final private Map<String, Integer> numbersOfIDs;
+	final private Map<String, List<long[]>> edgeHashes;
+	final private List<ClonePairLocation> locations;
+
+	public ScorpioCache(final String settings) {
+		assert null != settings : "\"settings\" is null.";
+		this.settings = settings;
+		this.digests = new LinkedHashMap<String, String>();
+		this.numbersOfIDs = new HashMap<String, Integer>();
+		this.edgeHashes = new LinkedHashMap<String, List<long[]>>();
+		this.locations = new ArrayList<ClonePairLocation>();
+	}
+
+	public void putFile(final String path, final String digest,
+			final int numberOfIDs, final List<long[]> edgeHashes) {
+		assert null != path : "\"path\" is null.";
+		assert null != digest : "\"digest\" is null.";
+		assert 0 <= numberOfIDs : "\"numberOfIDs\" must not be negative.";
+		assert null != edgeHashes : "\"edgeHashes\" is null.";
+		this.digests.put(path, digest);
+		this.numbersOfIDs.put(path, numberOfIDs);
+		this.edgeHashes.put(path, edgeHashes);
+	}
+
+	public boolean contains(final String path, final String digest) {
+		return null != digest && digest.equals(this.digests.get(path));
+	}
+
+	public int getNumberOfIDs(final String path) {
+		final Integer number = this.numbersOfIDs.get(path);
+		return null != number ? number : 0;
+	}
+
+	public List<long[]> getEdgeHashes(final String path) {
+		final List<long[]> hashes = this.edgeHashes.get(path);
+		return null != hashes ? Collections.unmodifiableList(hashes)
+				: Collections.<long[]> emptyList();
+	}
+
+	public void addLocation(final ClonePairLocation location) {
+		assert null != location : "\"location\" is null.";
+		this.locations.add(location);
+	}
+
+	public List<ClonePairLocation> getLocations() {
+		return Collections.unmodifiableList(this.locations);
+	}
+
+	public static String digest(final File file) throws IOException {
+
+		final MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch (final NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+
+		final InputStream stream = new FileInputStream(file);
+		try {
+			final byte[] buffer = new byte[8192];
+			for (int length = stream.read(buffer); 0 <= length; length = stream
+					.read(buffer)) {
+				digest.update(buffer, 0, length);
+			}
+		} finally {
+			stream.close();
+		}
+
+		final StringBuilder text = new StringBuilder();
+		for (final byte b : digest.digest()) {
+			text.append(String.format("%02x", b));
+		}
+		return text.toString();
+	}
+
+	/**
+	 * Reads the cache stored in the given file. An empty cache is returned
+	 * when the file does not exist, cannot be read, or was created with
+	 * different settings. Counts in the file are checked against its length
+	 * before anything is allocated for them.
+	 */
+	public static ScorpioCache load(final File file, final String settings) {
+
+		assert null != file : "\"file\" is null.";
+		assert null != settings : "\"settings\" is null.";
+
+		final ScorpioCache cache = new ScorpioCache(settings);
+		if (!file.isFile()) {
+			return cache;
+		}
+
+		// no count can exceed the number of its elements that fit in the
+		// file, given the fewest bytes each of them takes
+		final long length = file.length();
+		try {
+			final DataInputStream stream = new DataInputStream(
+					new BufferedInputStream(new FileInputStream(file)));
+			try {
+				if (!MAGIC.equals(stream.readUTF())
+						|| (VERSION != stream.readInt())
+						|| !settings.equals(stream.readUTF())) {
+					return cache;
+				}
+
+				final int numberOfFiles = readCount(stream, length / 4);
+				for (int i = 0; i < numberOfFiles; i++) {
+					final String path = stream.readUTF();
+					final String digest = stream.readUTF();
+					final int numberOfIDs = readCount(stream,
+							Integer.MAX_VALUE);
+					final int numberOfPDGs = readCount(stream, length / 4);
+					final List<long[]> edgeHashes = new ArrayList<long[]>(
+							numberOfPDGs);
+					for (int j = 0; j < numberOfPDGs; j++) {
+						final long[] hashes = new long[readCount(stream,
+								length / 8)];
+						for (int k = 0; k < hashes.length; k++) {
+							hashes[k] = stream.readLong();
+						}
+						edgeHashes.add(hashes);
+					}
+					cache.putFile(path, digest, numberOfIDs, edgeHashes);
+				}
+
+				final int numberOfLocations = readCount(stream, length / 12);
+				for (int i = 0; i < numberOfLocations; i++) {
+					final String pathA = stream.readUTF();
+					final int[] rangesA = readRanges(stream, length);
+					final String pathB = stream.readUTF();
+					final int[] rangesB = readRanges(stream, length);
+					cache.addLocation(new ClonePairLocation(pathA, rangesA,
+							pathB, rangesB));
+				}
+			} finally {
+				stream.close();
+			}
+		} catch (final IOException | RuntimeException e) {
+			System.err.println("ignoring unreadable cache " + file.getPath()
+					+ ": " + e.toString());
+			return new ScorpioCache(settings);
+		}
+
+		return cache;
+	}
+
+	/**
+	 * Writes this cache to the given file. The cache is written to a
+	 * temporary file next to it first and then moved over it, so that the
+	 * previous cache survives a run that dies while writing.
+	 */
+	public void save(final File file) throws IOException {
+
+		assert null != file : "\"file\" is null.";
+
+		final File temporary = File.createTempFile("." + file.getName()
+				+ ".", ".tmp", file.getAbsoluteFile().getParentFile());
+		try {
+			this.write(temporary);
+			Files.move(temporary.toPath(), file.toPath(),
+					StandardCopyOption.ATOMIC_MOVE,
+					StandardCopyOption.REPLACE_EXISTING);
+		} finally {
+			Files.deleteIfExists(temporary.toPath());
+		}
+	}
+
+	private void write(final File file) throws IOException {
+
+		final DataOutputStream stream = new DataOutputStream(
+				new BufferedOutputStream(new FileOutputStream(file)));
+		try {
+			stream.writeUTF(MAGIC);
+			stream.writeInt(VERSION);
+			stream.writeUTF(this.settings);
+
+			stream.writeInt(this.digests.size());
+			for (final Map.Entry<String, String> entry : this.digests
+					.entrySet()) {
+				stream.writeUTF(entry.getKey());
+				stream.writeUTF(entry.getValue());
+				stream.writeInt(this.numbersOfIDs.get(entry.getKey()));
+				final List<long[]> edgeHashes = this.edgeHashes.get(entry
+						.getKey());
+				stream.writeInt(edgeHashes.size());
+				for (final long[] hashes : edgeHashes) {
+					stream.writeInt(hashes.length);
+					for (final long hash : hashes) {
+						stream.writeLong(hash);
+					}
+				}
+			}
+
+			stream.writeInt(this.locations.size());
+			for (final ClonePairLocation location : this.locations) {
+				stream.writeUTF(location.pathA);
+				writeInts(stream, location.getLeftRanges());
+				stream.writeUTF(location.pathB);
+				writeInts(stream, location.getRightRanges());
+			}
+		} finally {
+			stream.close();
+		}
+	}
+
+	private static int readCount(final DataInputStream stream,
+			final long maximum) throws IOException {
+		final int count = stream.readInt();
+		if ((count < 0) || (maximum < count)) {
+			throw new IOException("invalid count " + count);
+		}
+		return count;
+	}
+
+	// ranges are non-empty (startLine, endLine) pairs
+	private static int[] readRanges(final DataInputStream stream,
+			final long length) throws IOException {
+		final int[] values = new int[readCount(stream, length / 4)];
+		if ((0 == values.length) || (0 != values.length % 2)) {
+			throw new IOException("invalid ranges of " + values.length
+					+ " values");
+		}
+		for (int i = 0; i < values.length; i++) {
+			values[i] = stream.readInt();
+		}
+		return values;
+	}
+
+	private static void writeInts(final DataOutputStream stream,
+			final int[] values) throws IOException {
+		stream.writeInt(values.length);
+		for (final int value : values) {
+			stream.writeInt(value);
+		}
+	}
+}
@@ -10,13 +10,19 @@ import example.tinypdg.pdg.edge.PDGExecutionDependenceEdge;
 import example.tinypdg.pdg.node.PDGNode;
 import example.tinypdg.pdg.node.PDGNormalNode;
 import example.tinypdg.pe.ProgramElementInfo;
-import example.tinypdg.scorpio.NormalizedText;
+import example.tinypdg.scorpio.NormalizedTextCache;
 
 public class PDGMergedNode extends PDGNormalNode<ProgramElementInfo> {
 
 	public static void mergeNodes(final PDG pdg) {
+		mergeNodes(pdg, new NormalizedTextCache());
+	}
+
+	public static void mergeNodes(final PDG pdg,
+			final NormalizedTextCache texts) {
 
 		assert null != pdg : "\"pdg\" is null.";
+		assert null != texts : "\"texts\" is null.";
 
 		MERGE: while (true) {
 
@@ -35,22 +41,14 @@ public class PDGMergedNode extends PDGNormalNode<ProgramElementInfo> {
 					continue;
 				}
 
-				final NormalizedText fromNodeText = new NormalizedText(
-						fromNode.core);
-				final NormalizedText toNodeText = new NormalizedText(
-						toNode.core);
-				if (NormalizedText.normalize(fromNodeText.getText()).equals(
-						NormalizedText.normalize(toNodeText.getText()))) {
+				if (texts.getText(fromNode.core).equals(
+						texts.getText(toNode.core))) {
 
 					final PDGMergedNode mergedNode = new PDGMergedNode(
 							(PDGNormalNode<?>) fromNode,
 							(PDGNormalNode<?>) toNode);
 
-					fromNode.removeForwardEdge(edge);
-					toNode.removeBackwardEdge(edge);
-
-					replace(fromNode, mergedNode);
-					replace(toNode, mergedNode);
+					pdg.mergeNodes(edge, mergedNode);
 
 					continue MERGE;
 				}
@@ -60,44 +58,6 @@ public class PDGMergedNode extends PDGNormalNode<ProgramElementInfo> {
 		}
 	}
 
-	private static void replace(final PDGNode<?> replacedNode,
-			final PDGNode<?> replacingNode) {
-
-		assert null != replacedNode : "\"replacedNode\" is null.";
-		assert null != replacingNode : "\"replacingNode\" is null.";
-
-		final SortedSet<PDGEdge> backwardEdges = replacedNode
-				.getBackwardEdges();
-		for (final PDGEdge backwardEdge : backwardEdges) {
-			final boolean b1 = backwardEdge.fromNode
-					.removeForwardEdge(backwardEdge);
-			final boolean b2 = replacedNode.removeBackwardEdge(backwardEdge);
-
-			assert b1 : "invalid status.";
-			assert b2 : "invalid status.";
-
-			final PDGEdge newBackwardEdge = backwardEdge
-					.replaceToNode(replacingNode);
-			backwardEdge.fromNode.addForwardEdge(newBackwardEdge);
-			replacingNode.addBackwardEdge(newBackwardEdge);
-		}
-
-		final SortedSet<PDGEdge> forwardEdges = replacedNode.getForwardEdges();
-		for (final PDGEdge forwardEdge : forwardEdges) {
-			final boolean b1 = forwardEdge.toNode
-					.removeBackwardEdge(forwardEdge);
-			final boolean b2 = replacedNode.removeForwardEdge(forwardEdge);
-
-			assert b1 : "invalid status.";
-			assert b2 : "invalid status.";
-
-			final PDGEdge newForwardEdge = forwardEdge
-					.replaceFromNode(replacingNode);
-			forwardEdge.toNode.addBackwardEdge(newForwardEdge);
-			replacingNode.addForwardEdge(newForwardEdge);
-		}
-	}
-
 	final private SortedSet<PDGNormalNode<?>> originalNodes;
 
 	public PDGMergedNode(final PDGNormalNode<?> node1,
@@ -0,0 +1,80 @@
+package example.tinypdg;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import example.tinypdg.ast.SourceParser;
+import example.tinypdg.pdg.PDG;
+import example.tinypdg.pe.MethodInfo;
+
+/**
+ * Source files and PDGs for the unit tests.
+ */
+public class TestSources {
+
+	public static File write(final File directory, final String name,
+			final String source) throws IOException {
+		final File file = new File(directory, name);
+		Files.write(file.toPath(), source.getBytes(StandardCharsets.UTF_8));
+		return file;
+	}
+
+	public static List<MethodInfo> parse(final File... files)
+			throws InterruptedException {
+		return new SourceParser(1).parse(Arrays.asList(files));
+	}
+
+	public static PDG build(final MethodInfo method) {
+		final PDG pdg = new PDG(method, true, true, true);
+		pdg.build();
+		return pdg;
+	}
+
+	public static List<PDG> build(final List<MethodInfo> methods) {
+		final List<PDG> pdgs = new ArrayList<PDG>();
+		for (final MethodInfo method : methods) {
+			pdgs.add(build(method));
+		}
+		return pdgs;
+	}
+
+	/**
+	 * Returns a class with the given number of methods, each made of the
+	 * given number of statements over a few local variables.
+	 */
+	public static String generate(final String name,
+			final int numberOfMethods, final int numberOfStatements) {
+		final StringBuilder text = new StringBuilder();
+		text.append("public class ").append(name).append(" {\n");
+		for (int method = 0; method < numberOfMethods; method++) {
+			text.append("\tint method").append(method)
+					.append("(int a, int b) {\n");
+			text.append("\t\tint c = a + b;\n");
+			for (int statement = 0; statement < numberOfStatements; statement++) {
+				switch (statement % 4) {
+				case 0:
+					text.append("\t\ta = a + c;\n");
+					break;
+				case 1:
+					text.append("\t\tif (a < b) {\n\t\t\tb = b - a;\n\t\t}\n");
+					break;
+				case 2:
+					text.append("\t\tc = a * b;\n");
+					break;
+				default:
+					text.append("\t\twhile (c < a) {\n\t\t\tc++;\n\t\t}\n");
+					break;
+				}
+			}
+			text.append("\t\treturn a + b + c;\n");
+			text.append("\t}\n");
+		}
+		text.append("}\n");
+		return text.toString();
+	}
+}
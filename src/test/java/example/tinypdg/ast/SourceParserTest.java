@@ -0,0 +1,73 @@
+package example.tinypdg.ast;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import example.tinypdg.TestSources;
+import example.tinypdg.pe.MethodInfo;
+
+public class SourceParserTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testFileOrder() throws Exception {
+
+		final List<File> files = new ArrayList<File>();
+		for (int file = 0; file < 40; file++) {
+			files.add(TestSources.write(this.folder.getRoot(), "Class"
+					+ file + ".java", TestSources.generate("Class" + file,
+					1 + file % 3, 1 + file % 5)));
+		}
+
+		final List<MethodInfo> sequential = new SourceParser(1)
+				.parse(files);
+		assertMethodsInFileOrder(files, sequential);
+
+		for (final SourceParser parser : new SourceParser[] {
+				new SourceParser(4),
+				new SourceParser(1, StandardCharsets.UTF_8, true),
+				new SourceParser(4, StandardCharsets.UTF_8, true) }) {
+			final List<MethodInfo> methods = parser.parse(files);
+			assertMethodsInFileOrder(files, methods);
+			assertEquals(sequential.size(), methods.size());
+			for (int method = 0; method < methods.size(); method++) {
+				assertEquals(sequential.get(method).name,
+						methods.get(method).name);
+				assertEquals(sequential.get(method).startLine,
+						methods.get(method).startLine);
+			}
+		}
+	}
+
+	// methods come in file order, and element IDs increase with it
+	private static void assertMethodsInFileOrder(final List<File> files,
+			final List<MethodInfo> methods) {
+		int file = 0;
+		int count = 0;
+		for (int method = 0; method < methods.size(); method++) {
+			while (!methods.get(method).path.equals(files.get(file)
+					.getAbsolutePath())) {
+				assertEquals(1 + file % 3, count);
+				file++;
+				count = 0;
+			}
+			assertEquals("method" + count, methods.get(method).name);
+			count++;
+			if (0 < method) {
+				assertTrue(methods.get(method - 1).id < methods.get(method).id);
+			}
+		}
+		assertEquals(files.size() - 1, file);
+	}
+}
@@ -0,0 +1,77 @@
+package example.tinypdg.pdg;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import example.tinypdg.TestSources;
+import example.tinypdg.pdg.edge.PDGEdge;
+import example.tinypdg.pdg.node.PDGNode;
+
+public class FrozenPDGTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testLookups() throws Exception {
+
+		final File file = TestSources.write(this.folder.getRoot(),
+				"Frozen.java", TestSources.generate("Frozen", 2, 12));
+		final List<PDG> pdgs = TestSources.build(TestSources.parse(file));
+		final PDG pdg = pdgs.get(0);
+		final FrozenPDG graph = pdg.freeze();
+		assertSame(graph, pdg.freeze());
+		assertSame(pdg, graph.pdg);
+
+		final List<PDGNode<?>> nodes = new ArrayList<PDGNode<?>>(
+				pdg.getAllNodes());
+		assertEquals(nodes.size(), graph.getNumberOfNodes());
+		for (int node = 0; node < nodes.size(); node++) {
+			assertSame(nodes.get(node), graph.getNode(node));
+			assertEquals(node, graph.getNodeIndex(nodes.get(node)));
+		}
+
+		final List<PDGEdge> edges = new ArrayList<PDGEdge>(pdg.getAllEdges());
+		assertEquals(edges.size(), graph.getNumberOfEdges());
+		for (int edge = 0; edge < edges.size(); edge++) {
+			assertSame(edges.get(edge), graph.getEdge(edge));
+			assertEquals(edge, graph.getEdgeIndex(edges.get(edge)));
+			assertSame(edges.get(edge).fromNode,
+					graph.getNode(graph.getFromNode(edge)));
+			assertSame(edges.get(edge).toNode,
+					graph.getNode(graph.getToNode(edge)));
+			assertSame(edges.get(edge).type, graph.getType(edge));
+		}
+
+		for (int node = 0; node < nodes.size(); node++) {
+			final SortedSet<PDGEdge> forward = new TreeSet<PDGEdge>();
+			for (int position = graph.getForwardBegin(node); position < graph
+					.getForwardEnd(node); position++) {
+				forward.add(graph.getEdge(graph.getForwardEdge(position)));
+			}
+			assertEquals(nodes.get(node).getForwardEdges(), forward);
+
+			final SortedSet<PDGEdge> backward = new TreeSet<PDGEdge>();
+			for (int position = graph.getBackwardBegin(node); position < graph
+					.getBackwardEnd(node); position++) {
+				backward.add(graph.getEdge(graph.getBackwardEdge(position)));
+			}
+			assertEquals(nodes.get(node).getBackwardEdges(), backward);
+		}
+
+		// nodes of another PDG are not in the frozen graph
+		for (final PDGNode<?> node : pdgs.get(1).getAllNodes()) {
+			assertEquals(-1, graph.getNodeIndex(node));
+		}
+	}
+}
@@ -0,0 +1,68 @@
+package example.tinypdg.pdg;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import example.tinypdg.TestSources;
+import example.tinypdg.cfg.node.CFGNodeFactory;
+import example.tinypdg.pdg.node.PDGNodeFactory;
+import example.tinypdg.pe.MethodInfo;
+
+public class PDGTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	// deep enough to overflow the stack of the recursive traversals
+	@Test
+	public void testLargeMethod() throws Exception {
+
+		final StringBuilder text = new StringBuilder();
+		text.append("public class Large {\n");
+		text.append("\tint method(int a, int b) {\n");
+		for (int statement = 0; statement < 10000; statement++) {
+			switch (statement % 3) {
+			case 0:
+				text.append("\t\ta = a + b;\n");
+				break;
+			case 1:
+				text.append("\t\tif (a < b) {\n\t\t\ta = b;\n");
+				text.append("\t\t} else {\n\t\t\ta = b + 1;\n\t\t}\n");
+				break;
+			default:
+				text.append("\t\tb = a - b;\n");
+				break;
+			}
+		}
+		text.append("\t\treturn a + b;\n");
+		text.append("\t}\n");
+		text.append("}\n");
+
+		final File file = TestSources.write(this.folder.getRoot(),
+				"Large.java", text.toString());
+		final List<MethodInfo> methods = TestSources.parse(file);
+		assertEquals(1, methods.size());
+
+		int numberOfNodes = 0;
+		for (final boolean useReachingDefinitions : new boolean[] { true,
+				false }) {
+			final PDG pdg = new PDG(methods.get(0), new PDGNodeFactory(),
+					new CFGNodeFactory(), true, true, true, Integer.MAX_VALUE,
+					Integer.MAX_VALUE, Integer.MAX_VALUE,
+					useReachingDefinitions);
+			pdg.build();
+			if (0 == numberOfNodes) {
+				numberOfNodes = pdg.getAllNodes().size();
+			}
+			assertEquals(numberOfNodes, pdg.getAllNodes().size());
+		}
+		assertTrue(10000 < numberOfNodes);
+	}
+}
@@ -0,0 +1,78 @@
+package example.tinypdg.pdg;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import example.tinypdg.TestSources;
+import example.tinypdg.cfg.node.CFGNodeFactory;
+import example.tinypdg.pdg.edge.PDGDataDependenceEdge;
+import example.tinypdg.pdg.edge.PDGEdge;
+import example.tinypdg.pdg.node.PDGNodeFactory;
+import example.tinypdg.pe.MethodInfo;
+
+public class ReachingDefinitionsTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testSameEdgesAsSearch() throws Exception {
+
+		final List<File> files = new ArrayList<File>();
+		files.add(TestSources.write(this.folder.getRoot(), "Generated.java",
+				TestSources.generate("Generated", 3, 40)));
+		for (int test = 1; test <= 24; test++) {
+			final File file = new File(String.format(
+					"src/test/java/test%03d/Test%03d.java", test, test));
+			if (file.isFile()) {
+				files.add(file);
+			}
+		}
+
+		final List<MethodInfo> methods = TestSources.parse(files
+				.toArray(new File[0]));
+		assertFalse(methods.isEmpty());
+
+		int numberOfEdges = 0;
+		for (final MethodInfo method : methods) {
+			for (final int distance : new int[] { Integer.MAX_VALUE, 3 }) {
+				final SortedSet<String> expected = getDataDependences(method,
+						distance, false);
+				assertEquals(method.path + " " + method.name, expected,
+						getDataDependences(method, distance, true));
+				numberOfEdges += expected.size();
+			}
+		}
+		assertFalse(0 == numberOfEdges);
+	}
+
+	private static SortedSet<String> getDataDependences(
+			final MethodInfo method, final int distance,
+			final boolean useReachingDefinitions) {
+
+		final PDG pdg = new PDG(method, new PDGNodeFactory(),
+				new CFGNodeFactory(), true, true, true, Integer.MAX_VALUE,
+				distance, Integer.MAX_VALUE, useReachingDefinitions);
+		pdg.build();
+
+		final SortedSet<String> edges = new TreeSet<String>();
+		for (final PDGEdge edge : pdg.getAllEdges()) {
+			if (edge instanceof PDGDataDependenceEdge) {
+				edges.add(edge.fromNode.core.id + " -> "
+						+ edge.toNode.core.id + " "
+						+ ((PDGDataDependenceEdge) edge).data);
+			}
+		}
+		return edges;
+	}
+}
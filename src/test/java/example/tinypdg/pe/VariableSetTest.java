@@ -0,0 +1,47 @@
+package example.tinypdg.pe;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import org.junit.Test;
+
+public class VariableSetTest {
+
+	@Test
+	public void testSortedSet() {
+
+		final TreeSet<String> expected = new TreeSet<String>(Arrays.asList(
+				"i", "a", "sum", "b", "i", "x"));
+		final VariableSet variables = VariableSet.of(Arrays.asList("i", "a",
+				"sum", "b", "i", "x"));
+
+		assertEquals(expected, variables);
+		assertEquals(expected.hashCode(), variables.hashCode());
+		assertEquals(expected.toString(), variables.toString());
+		assertEquals("a", variables.first());
+		assertEquals("x", variables.last());
+		assertTrue(variables.contains("sum"));
+		assertFalse(variables.contains("j"));
+
+		assertEquals(expected.subSet("b", "sum"), variables.subSet("b", "sum"));
+		assertEquals(expected.headSet("c"), variables.headSet("c"));
+		assertEquals(expected.tailSet("j"), variables.tailSet("j"));
+		assertFalse(variables.tailSet("j").contains("i"));
+
+		assertSame(variables, VariableSet.of(variables));
+		assertSame(VariableSet.EMPTY, VariableSet.of(new TreeSet<String>()));
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void testImmutable() {
+		final SortedSet<String> variables = VariableSet.of(Arrays
+				.asList("a"));
+		variables.add("b");
+	}
+}
@@ -0,0 +1,136 @@
+package example.tinypdg.scorpio;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import example.tinypdg.TestSources;
+import example.tinypdg.pdg.PDG;
+import example.tinypdg.pdg.node.PDGNode;
+import example.tinypdg.scorpio.data.ClonePairInfo;
+import example.tinypdg.scorpio.data.ClonePairRecord;
+import example.tinypdg.scorpio.data.NodePairInfo;
+
+public class CloneSubsumptionTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testMatchesPairwiseRule() throws Exception {
+
+		final File file1 = TestSources.write(this.folder.getRoot(),
+				"First.java", TestSources.generate("First", 3, 16));
+		final File file2 = TestSources.write(this.folder.getRoot(),
+				"Second.java", TestSources.generate("Second", 2, 16));
+		final List<PDG> pdgs = TestSources.build(TestSources.parse(file1,
+				file2));
+
+		final Random random = new Random(3);
+		int removed = 0;
+		for (int round = 0; round < 30; round++) {
+			final SortedSet<ClonePairInfo> clonepairs = new TreeSet<ClonePairInfo>();
+			for (int i = 0; i < 40; i++) {
+				clonepairs.add(createClonePair(pdgs, random));
+			}
+			final SortedSet<ClonePairInfo> expected = new TreeSet<ClonePairInfo>(
+					clonepairs);
+			removePairwise(expected, 0.7f);
+
+			final SortedSet<ClonePairRecord> records = toRecords(clonepairs);
+			final SortedSet<ClonePairRecord> filtered = new TreeSet<ClonePairRecord>();
+			final Iterator<ClonePairRecord> iterator = CloneSubsumption
+					.filter(records.iterator(), 0.7f);
+			while (iterator.hasNext()) {
+				filtered.add(iterator.next());
+			}
+			final int subsumed = new CloneSubsumption(records, 0.7f)
+					.perform();
+			assertEquals(toRecords(expected), records);
+			assertEquals(toRecords(expected), filtered);
+			removed += subsumed;
+		}
+		assertTrue(0 < removed);
+	}
+
+	// nodes are taken from windows of two PDGs, so that clone pairs of the
+	// same PDGs overlap often. clone pairs are never empty, as in detection
+	private static ClonePairInfo createClonePair(final List<PDG> pdgs,
+			final Random random) {
+		final PDG pdgA = pdgs.get(random.nextInt(pdgs.size()));
+		final PDG pdgB = pdgs.get(random.nextInt(pdgs.size()));
+		final List<PDGNode<?>> nodesA = new ArrayList<PDGNode<?>>(
+				pdgA.getAllNodes());
+		final List<PDGNode<?>> nodesB = new ArrayList<PDGNode<?>>(
+				pdgB.getAllNodes());
+		final int length = 1 + random.nextInt(8);
+		final int startA = random.nextInt(nodesA.size() - length);
+		final int startB = random.nextInt(nodesB.size() - length);
+		final ClonePairInfo clonepair = new ClonePairInfo(pdgA.unit.path,
+				pdgB.unit.path);
+		for (int i = 0; i < length; i++) {
+			if ((0 == i) || (0 != random.nextInt(4))) {
+				clonepair.addNodePair(new NodePairInfo(
+						nodesA.get(startA + i), nodesB.get(startB + i)));
+			}
+		}
+		return clonepair;
+	}
+
+	private static SortedSet<ClonePairRecord> toRecords(
+			final SortedSet<ClonePairInfo> clonepairs) {
+		final SortedSet<ClonePairRecord> records = new TreeSet<ClonePairRecord>();
+		for (final ClonePairInfo clonepair : clonepairs) {
+			records.add(new ClonePairRecord(clonepair));
+		}
+		return records;
+	}
+
+	// the rule applied to every pair of clone pairs in the set order
+	private static void removePairwise(
+			final SortedSet<ClonePairInfo> clonepairs, final float threshold) {
+		final ClonePairInfo[] pairs = clonepairs.toArray(new ClonePairInfo[0]);
+		for (int i = 0; i < pairs.length; i++) {
+			for (int j = i + 1; j < pairs.length; j++) {
+				if (sameOnOkValue(pairs[i], pairs[j], threshold)
+						&& (pairs[i].size() <= pairs[j].size())) {
+					clonepairs.remove(pairs[i]);
+				}
+			}
+		}
+	}
+
+	private static boolean sameOnOkValue(final ClonePairInfo pair1,
+			final ClonePairInfo pair2, final float threshold) {
+
+		final SortedSet<PDGNode<?>> nodes1A = pair1.getLeftNodes();
+		final SortedSet<PDGNode<?>> nodes2A = pair2.getLeftNodes();
+		final SortedSet<PDGNode<?>> intersectionA = new TreeSet<PDGNode<?>>(
+				nodes1A);
+		intersectionA.retainAll(nodes2A);
+
+		final SortedSet<PDGNode<?>> nodes1B = pair1.getRightNodes();
+		final SortedSet<PDGNode<?>> nodes2B = pair2.getRightNodes();
+		final SortedSet<PDGNode<?>> intersectionB = new TreeSet<PDGNode<?>>(
+				nodes1B);
+		intersectionB.retainAll(nodes2B);
+
+		final float ok = Math.min(
+				Math.max((float) intersectionA.size() / nodes1A.size(),
+						(float) intersectionA.size() / nodes2A.size()),
+				Math.max((float) intersectionB.size() / nodes1B.size(),
+						(float) intersectionB.size() / nodes2B.size()));
+		return threshold <= ok;
+	}
+}
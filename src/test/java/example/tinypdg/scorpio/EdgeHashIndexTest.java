@@ -0,0 +1,66 @@
+package example.tinypdg.scorpio;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.Random;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import org.junit.Test;
+
+import example.tinypdg.pdg.PDG;
+import example.tinypdg.pdg.edge.PDGEdge;
+import example.tinypdg.pe.MethodInfo;
+
+public class EdgeHashIndexTest {
+
+	@Test
+	public void testHasCandidate() {
+		final long[][] hashes = new long[][] { { 1, 2, 3 }, { 3, 4 } };
+		final EdgeHashIndex index = createIndex(hashes);
+		assertEquals(2, index.size());
+		assertEquals(4, index.getNumberOfHashes());
+		assertTrue(index.hasCandidate(new long[] { 4 }, 1));
+		assertTrue(index.hasCandidate(new long[] { 5, 2, 1 }, 2));
+		assertFalse(index.hasCandidate(new long[] { 1, 4 }, 2));
+		assertFalse(index.hasCandidate(new long[] { 5, 6 }, 1));
+	}
+
+	@Test
+	public void testHasCandidateMatchesAllPDGs() {
+		final Random random = new Random(1);
+		final long[][] hashes = new long[50][];
+		for (int pdg = 0; pdg < hashes.length; pdg++) {
+			hashes[pdg] = StreamingEdgeHashIndexTest.randomHashes(random);
+		}
+		final EdgeHashIndex index = createIndex(hashes);
+		for (int query = 0; query < 100; query++) {
+			final long[] queried = StreamingEdgeHashIndexTest
+					.randomHashes(random);
+			for (int threshold = 1; threshold <= 3; threshold++) {
+				boolean expected = false;
+				for (final long[] indexed : hashes) {
+					expected |= threshold <= StreamingEdgeHashIndexTest
+							.countShared(indexed, queried);
+				}
+				assertEquals(expected, index.hasCandidate(queried, threshold));
+			}
+		}
+	}
+
+	private static EdgeHashIndex createIndex(final long[][] hashes) {
+		final PDG[] pdgs = new PDG[hashes.length];
+		final SortedMap<PDG, HashBucketTable<PDGEdge>> mappingPDGToPDGEdges = new TreeMap<PDG, HashBucketTable<PDGEdge>>();
+		for (int index = 0; index < hashes.length; index++) {
+			pdgs[index] = new PDG(new MethodInfo("A.java", "method" + index,
+					index + 1, index + 1));
+			mappingPDGToPDGEdges.put(pdgs[index], new HashBucketTable<PDGEdge>(
+					Collections.<PDGEdge> nCopies(hashes[index].length, null),
+					hashes[index]));
+		}
+		return new EdgeHashIndex(pdgs, mappingPDGToPDGEdges);
+	}
+}
@@ -0,0 +1,84 @@
+package example.tinypdg.scorpio;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import example.tinypdg.TestSources;
+import example.tinypdg.ast.SourceParser;
+import example.tinypdg.pe.MethodInfo;
+import example.tinypdg.pe.ProgramElementInfo;
+
+public class FileNumberingTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testSameIDsAsFullParsing() throws Exception {
+
+		final List<File> files = new ArrayList<File>();
+		for (int index = 0; index < 4; index++) {
+			files.add(TestSources.write(this.folder.getRoot(), "File" + index
+					+ ".java",
+					TestSources.generate("File" + index, index + 1, 5)));
+		}
+
+		final int firstID = ProgramElementInfo.getNextID();
+		final FileNumbering full = new FileNumbering(files, firstID);
+		final List<Integer> fullIDs = parse(files, full);
+
+		// the files are parsed in two passes, from another first ID
+		final int otherFirstID = ProgramElementInfo.getNextID() + 1000;
+		final FileNumbering numbering = new FileNumbering(files,
+				otherFirstID);
+		for (final int unchanged : new int[] { 0, 2 }) {
+			numbering.setNumberOfIDs(files.get(unchanged),
+					full.getNumberOfIDs(files.get(unchanged)));
+		}
+		final List<Integer> changedIDs = parse(
+				Arrays.asList(files.get(1), files.get(3)), numbering);
+		final List<Integer> unchangedIDs = parse(
+				Arrays.asList(files.get(0), files.get(2)),
+				numbering.restart());
+
+		final List<Integer> ids = new ArrayList<Integer>();
+		ids.addAll(unchangedIDs.subList(0, 1));
+		ids.addAll(changedIDs.subList(0, 1));
+		ids.addAll(unchangedIDs.subList(1, 2));
+		ids.addAll(changedIDs.subList(1, 2));
+		assertEquals(4, ids.size());
+		for (int index = 0; index < files.size(); index++) {
+			assertEquals(fullIDs.get(index) - firstID, ids.get(index)
+					- otherFirstID);
+			assertEquals(full.getNumberOfIDs(files.get(index)),
+					numbering.getNumberOfIDs(files.get(index)));
+		}
+		assertEquals(full.getEndID() - firstID, numbering.getEndID()
+				- otherFirstID);
+	}
+
+	// returns the ID of the first method of every file
+	private static List<Integer> parse(final List<File> files,
+			final FileNumbering numbering) throws InterruptedException {
+		final List<Integer> ids = new ArrayList<Integer>();
+		new SourceParser(2).parse(files, numbering,
+				new SourceParser.Handler() {
+
+					@Override
+					public void handle(final File file,
+							final List<MethodInfo> methods) {
+						numbering.count(file);
+						ids.add(methods.get(0).id);
+					}
+				});
+		return ids;
+	}
+}
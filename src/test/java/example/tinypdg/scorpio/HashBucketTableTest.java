@@ -0,0 +1,50 @@
+package example.tinypdg.scorpio;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class HashBucketTableTest {
+
+	@Test
+	public void testBuckets() {
+		final HashBucketTable<String> table = new HashBucketTable<String>(
+				Arrays.asList("a", "b", "c", "d"), new long[] { 7, -3, 7, 5 });
+		assertEquals(3, table.getNumberOfBuckets());
+		assertEquals(4, table.getNumberOfElements());
+		assertArrayEquals(new long[] { -3, 5, 7 }, table.getHashes());
+		assertEquals(2, table.getBucketSize(2));
+		assertEquals("a", table.getElement(2, 0));
+		assertEquals("c", table.getElement(2, 1));
+		assertEquals(2, table.getIndex(2, 1));
+		assertEquals("b", table.getElement(0, 0));
+	}
+
+	@Test
+	public void testJoin() {
+		final HashBucketTable<String> table1 = new HashBucketTable<String>(
+				Arrays.asList("a", "b", "c", "d", "e"), new long[] { 1, 2, 2,
+						4, 6 });
+		final HashBucketTable<String> table2 = new HashBucketTable<String>(
+				Arrays.asList("v", "w", "x", "y", "z"), new long[] { 3, 3, 4,
+						5, 6 });
+
+		// shared buckets are joined, and buckets of a single table are
+		// only kept when they have more than one element
+		assertArrayEquals(new int[] { 1, -1, -1, 0, 2, 1, 3, 3 },
+				table1.join(table2));
+		assertArrayEquals(new int[] { -1, 1, 0, -1, 1, 2, 3, 3 },
+				table2.join(table1));
+	}
+
+	@Test
+	public void testJoinWithoutTable() {
+		final HashBucketTable<String> table = new HashBucketTable<String>(
+				Arrays.asList("a", "b", "c"), new long[] { 1, 1, 2 });
+		assertArrayEquals(new int[] { 0, -1 }, table.join(null));
+		assertArrayEquals(new int[] { 0, 0, 1, 1 }, table.join(table));
+	}
+}
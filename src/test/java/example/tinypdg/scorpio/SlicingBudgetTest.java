@@ -0,0 +1,97 @@
+package example.tinypdg.scorpio;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import example.tinypdg.TestSources;
+import example.tinypdg.pdg.PDG;
+import example.tinypdg.pdg.edge.PDGEdge;
+import example.tinypdg.pdg.node.PDGNode;
+import example.tinypdg.scorpio.io.ClonePairSpool;
+
+public class SlicingBudgetTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testComparisonLimit() {
+		final SlicingBudget budget = new SlicingBudget(3, 0);
+		assertTrue(budget.consume());
+		assertTrue(budget.consume());
+		assertTrue(budget.consume());
+		assertFalse(budget.isExhausted());
+		assertFalse(budget.consume());
+		assertTrue(budget.isExhausted());
+		assertFalse(budget.consume());
+		assertEquals(3, budget.getNumberOfComparisons());
+	}
+
+	@Test
+	public void testTimeLimit() throws Exception {
+		final SlicingBudget budget = new SlicingBudget(0, 1000000l);
+		Thread.sleep(10);
+		assertFalse(budget.consume());
+		assertTrue(budget.isExhausted());
+	}
+
+	@Test
+	public void testUnlimited() {
+		final SlicingBudget budget = new SlicingBudget();
+		for (int i = 0; i < 100000; i++) {
+			assertTrue(budget.consume());
+		}
+		assertFalse(budget.isExhausted());
+	}
+
+	@Test
+	public void testTruncatedSlicing() throws Exception {
+
+		final File file = TestSources.write(this.folder.getRoot(),
+				"Budget.java", TestSources.generate("Budget", 2, 40));
+		final List<PDG> pdgs = TestSources.build(TestSources.parse(file));
+		final SortedMap<PDG, HashBucketTable<PDGNode<?>>> mappingPDGToPDGNodes = new TreeMap<PDG, HashBucketTable<PDGNode<?>>>();
+		final SortedMap<PDG, HashBucketTable<PDGEdge>> mappingPDGToPDGEdges = new TreeMap<PDG, HashBucketTable<PDGEdge>>();
+		final HashCalculationThread calculation = new HashCalculationThread(
+				mappingPDGToPDGNodes, mappingPDGToPDGEdges,
+				new NormalizedTextCache());
+		for (final PDG pdg : pdgs) {
+			calculation.calculate(pdg);
+		}
+
+		final ClonePairSpool unlimited = new ClonePairSpool(
+				this.folder.newFolder(), 1000);
+		final SlicingThread slicing = new SlicingThread(mappingPDGToPDGNodes,
+				mappingPDGToPDGEdges, unlimited, 3);
+		slicing.process(pdgs.get(0), pdgs.get(1));
+		slicing.complete();
+		assertTrue(slicing.getTruncatedPairs().isEmpty());
+		assertTrue(unlimited.iterator().hasNext());
+
+		// the clone pairs found before the budget ran out are kept
+		final ClonePairSpool truncated = new ClonePairSpool(
+				this.folder.newFolder(), 1000);
+		final SlicingThread limited = new SlicingThread(mappingPDGToPDGNodes,
+				mappingPDGToPDGEdges, truncated, 3, 200, 0);
+		limited.process(pdgs.get(1));
+		limited.process(pdgs.get(0), pdgs.get(1));
+		limited.complete();
+		assertEquals(2, limited.getTruncatedPairs().size());
+		assertSame(pdgs.get(0), limited.getTruncatedPairs().get(0).left);
+		assertSame(pdgs.get(1), limited.getTruncatedPairs().get(0).right);
+		assertSame(pdgs.get(1), limited.getTruncatedPairs().get(1).left);
+		assertSame(pdgs.get(1), limited.getTruncatedPairs().get(1).right);
+		assertTrue(truncated.iterator().hasNext());
+	}
+}
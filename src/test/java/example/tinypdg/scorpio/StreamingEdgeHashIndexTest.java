@@ -0,0 +1,85 @@
+package example.tinypdg.scorpio;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class StreamingEdgeHashIndexTest {
+
+	@Test
+	public void testCandidatesShareThresholdHashes() {
+		final StreamingEdgeHashIndex index = new StreamingEdgeHashIndex();
+		assertArrayEquals(new int[0], index.add(new long[] { 1, 2, 3 }, 2));
+		assertArrayEquals(new int[0], index.add(new long[] { 3, 4 }, 2));
+		assertArrayEquals(new int[] { 0 }, index.add(new long[] { 1, 2 }, 2));
+		assertArrayEquals(new int[] { 0, 1, 2 },
+				index.add(new long[] { 1, 4, 3 }, 1));
+		assertArrayEquals(new int[] { 3 },
+				index.add(new long[] { 1, 3, 4 }, 3));
+		assertEquals(5, index.size());
+		assertEquals(4, index.getNumberOfHashes());
+	}
+
+	@Test
+	public void testCandidatesMatchAllPairs() {
+		final Random random = new Random(0);
+		for (int threshold = 1; threshold <= 3; threshold++) {
+			final StreamingEdgeHashIndex index = new StreamingEdgeHashIndex();
+			final List<long[]> added = new ArrayList<long[]>();
+			for (int pdg = 0; pdg < 100; pdg++) {
+				final long[] hashes = randomHashes(random);
+				final int[] candidates = index.add(hashes, threshold);
+				assertArrayEquals(getCandidates(added, hashes, threshold),
+						candidates);
+				added.add(hashes);
+			}
+		}
+	}
+
+	// distinct hashes out of a small range so that PDGs share some of them
+	static long[] randomHashes(final Random random) {
+		final long[] hashes = new long[random.nextInt(8)];
+		int length = 0;
+		while (length < hashes.length) {
+			final long hash = random.nextInt(24) - 12;
+			boolean found = false;
+			for (int i = 0; i < length; i++) {
+				found |= hashes[i] == hash;
+			}
+			if (!found) {
+				hashes[length++] = hash;
+			}
+		}
+		return hashes;
+	}
+
+	static int countShared(final long[] hashes1, final long[] hashes2) {
+		int count = 0;
+		for (final long hash1 : hashes1) {
+			for (final long hash2 : hashes2) {
+				if (hash1 == hash2) {
+					count++;
+				}
+			}
+		}
+		return count;
+	}
+
+	private static int[] getCandidates(final List<long[]> added,
+			final long[] hashes, final int threshold) {
+		final int[] candidates = new int[added.size()];
+		int length = 0;
+		for (int pdg = 0; pdg < added.size(); pdg++) {
+			if (threshold <= countShared(added.get(pdg), hashes)) {
+				candidates[length++] = pdg;
+			}
+		}
+		return Arrays.copyOf(candidates, length);
+	}
+}
@@ -0,0 +1,96 @@
+package example.tinypdg.scorpio.data;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import example.tinypdg.TestSources;
+import example.tinypdg.pdg.PDG;
+import example.tinypdg.pdg.node.PDGNode;
+
+public class ClonePairInfoTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testMergeAndConflict() throws Exception {
+		final List<PDGNode<?>> nodes = this.getNodes();
+
+		final ClonePairInfo empty = new ClonePairInfo("A", "B");
+		assertTrue(empty.isEmpty());
+		assertEquals(0, empty.size());
+
+		final ClonePairInfo first = new ClonePairInfo("A", "B");
+		first.addNodePair(new NodePairInfo(nodes.get(1), nodes.get(5)));
+		first.addNodePair(new NodePairInfo(nodes.get(1), nodes.get(5)));
+		assertFalse(first.isEmpty());
+		assertEquals(1, first.getNodePairs().size());
+		assertEquals(1, first.size());
+
+		final ClonePairInfo second = new ClonePairInfo("A", "B");
+		second.addNodePair(new NodePairInfo(nodes.get(2), nodes.get(6)));
+		assertFalse(first.conflict(second));
+
+		final ClonePairInfo merged = new ClonePairInfo("A", "B");
+		merged.merge(first);
+		merged.merge(second);
+		merged.merge(empty);
+		assertEquals(2, merged.size());
+		assertEquals(2, merged.getNodePairs().size());
+		assertTrue(merged.conflict(first));
+		assertArrayEquals(new int[] { nodes.get(1).core.id,
+				nodes.get(2).core.id }, merged.getLeftNodeIDs());
+		assertArrayEquals(new int[] { nodes.get(5).core.id,
+				nodes.get(6).core.id }, merged.getRightNodeIDs());
+		assertTrue(first.compareTo(merged) < 0);
+		assertEquals(0, merged.compareTo(merged));
+	}
+
+	@Test(timeout = 10000)
+	public void testRepeatedlySharedMerges() throws Exception {
+		final List<PDGNode<?>> nodes = this.getNodes();
+
+		// every clone pair merges the previous one twice, so its node pairs
+		// are reached through 2^n paths
+		ClonePairInfo clonepair = new ClonePairInfo("A", "B");
+		clonepair.addNodePair(new NodePairInfo(nodes.get(0), nodes.get(1)));
+		for (int i = 0; i < 64; i++) {
+			final ClonePairInfo merged = new ClonePairInfo("A", "B");
+			merged.merge(clonepair);
+			merged.merge(clonepair);
+			merged.addNodePair(new NodePairInfo(nodes.get(i % 8),
+					nodes.get(i % 8 + 1)));
+			clonepair = merged;
+		}
+
+		final SortedSet<NodePairInfo> expected = new TreeSet<NodePairInfo>();
+		for (int i = 0; i < 8; i++) {
+			expected.add(new NodePairInfo(nodes.get(i), nodes.get(i + 1)));
+		}
+		assertEquals(expected, clonepair.getNodePairs());
+		assertEquals(8, clonepair.getLeftNodes().size());
+		assertEquals(8, clonepair.getRightNodes().size());
+	}
+
+	private List<PDGNode<?>> getNodes() throws Exception {
+		final File file = TestSources.write(this.folder.getRoot(),
+				"Pairs.java", TestSources.generate("Pairs", 1, 12));
+		final List<PDGNode<?>> nodes = new ArrayList<PDGNode<?>>();
+		for (final PDG pdg : TestSources.build(TestSources.parse(file))) {
+			nodes.addAll(pdg.getAllNodes());
+		}
+		return nodes;
+	}
+}
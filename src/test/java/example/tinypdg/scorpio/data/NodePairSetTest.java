@@ -0,0 +1,81 @@
+package example.tinypdg.scorpio.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import example.tinypdg.TestSources;
+import example.tinypdg.pdg.PDG;
+import example.tinypdg.pdg.node.PDGNode;
+
+public class NodePairSetTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testAddAndContains() throws Exception {
+		final List<PDGNode<?>> nodes = this.getNodes();
+		final PDGNode<?> a = nodes.get(0);
+		final PDGNode<?> b = nodes.get(1);
+
+		final NodePairSet set = new NodePairSet();
+		assertTrue(set.isEmpty());
+		assertTrue(set.add(a, b));
+		assertFalse(set.add(a, b));
+		assertTrue(set.contains(a, b));
+		assertFalse(set.contains(b, a));
+		assertFalse(set.contains(a, a));
+		assertEquals(1, set.size());
+
+		set.clear();
+		assertTrue(set.isEmpty());
+		assertFalse(set.contains(a, b));
+	}
+
+	@Test
+	public void testMatchesHashSetWhileGrowing() throws Exception {
+		final List<PDGNode<?>> nodes = this.getNodes();
+		final Random random = new Random(2);
+		final NodePairSet set = new NodePairSet();
+		for (int round = 0; round < 3; round++) {
+			final Set<String> expected = new HashSet<String>();
+			for (int i = 0; i < 2000; i++) {
+				final PDGNode<?> a = nodes.get(random.nextInt(nodes.size()));
+				final PDGNode<?> b = nodes.get(random.nextInt(nodes.size()));
+				assertEquals(expected.add(a.core.id + ":" + b.core.id),
+						set.add(a, b));
+			}
+			assertEquals(expected.size(), set.size());
+			for (final PDGNode<?> a : nodes) {
+				for (final PDGNode<?> b : nodes) {
+					assertEquals(
+							expected.contains(a.core.id + ":" + b.core.id),
+							set.contains(a, b));
+				}
+			}
+			set.clear();
+		}
+	}
+
+	private List<PDGNode<?>> getNodes() throws Exception {
+		final File file = TestSources.write(this.folder.getRoot(),
+				"Nodes.java", TestSources.generate("Nodes", 2, 40));
+		final List<PDGNode<?>> nodes = new ArrayList<PDGNode<?>>();
+		for (final PDG pdg : TestSources.build(TestSources.parse(file))) {
+			nodes.addAll(pdg.getAllNodes());
+		}
+		return nodes;
+	}
+}
@@ -0,0 +1,83 @@
+package example.tinypdg.scorpio.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import example.tinypdg.scorpio.data.ClonePairLocation;
+import example.tinypdg.scorpio.data.ClonePairRecord;
+
+public class ClonePairSpoolTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testMergesRuns() throws Exception {
+
+		final File directory = this.folder.newFolder();
+		final ClonePairSpool spool = new ClonePairSpool(directory, 8);
+		final SortedSet<ClonePairRecord> expected = new TreeSet<ClonePairRecord>();
+		final Random random = new Random(5);
+
+		// runs of several sizes, so that some of them are spilled and some
+		// are kept in memory, with records repeated across the runs
+		for (int run = 0; run < 12; run++) {
+			final List<ClonePairRecord> records = new ArrayList<ClonePairRecord>();
+			final int size = random.nextInt(16);
+			for (int i = 0; i < size; i++) {
+				final ClonePairRecord record = createRecord(random);
+				records.add(record);
+				expected.add(record);
+			}
+			spool.add(records);
+		}
+		assertTrue(0 < spool.getNumberOfSpilledRuns());
+		assertEquals(spool.getNumberOfSpilledRuns(), directory.list().length);
+
+		for (int pass = 0; pass < 2; pass++) {
+			final Iterator<ClonePairRecord> records = spool.iterator();
+			for (final ClonePairRecord record : expected) {
+				assertTrue(records.hasNext());
+				final ClonePairRecord actual = records.next();
+				assertEquals(0, record.compareTo(actual));
+				assertEquals(record.pathA, actual.pathA);
+				assertEquals(record.getLocation().getLeftRanges()[0], actual
+						.getLocation().getLeftRanges()[0]);
+			}
+			assertFalse(records.hasNext());
+		}
+
+		spool.close();
+		assertEquals(0, directory.list().length);
+	}
+
+	// few distinct element IDs, so that equal records occur often
+	private static ClonePairRecord createRecord(final Random random) {
+		final int left = random.nextInt(6);
+		final int right = 10 + random.nextInt(6);
+		final int length = 1 + random.nextInt(2);
+		final int[] leftElements = new int[length];
+		final int[] rightElements = new int[length];
+		for (int i = 0; i < length; i++) {
+			leftElements[i] = left + i;
+			rightElements[i] = right + i;
+		}
+		return new ClonePairRecord(leftElements, rightElements,
+				leftElements.clone(), rightElements.clone(),
+				new ClonePairLocation("/a/A" + left + ".java", new int[] {
+						left, left }, "/a/B.java", new int[] { right, right }));
+	}
+}
@@ -0,0 +1,83 @@
+package example.tinypdg.scorpio.io;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import example.tinypdg.scorpio.data.ClonePairLocation;
+import example.tinypdg.scorpio.data.ClonePairRecord;
+
+public class PartialResultTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testSaveAndLoad() throws Exception {
+
+		final ClonePairRecord record = new ClonePairRecord(new int[] { 3, 5,
+				8 }, new int[] { 20, 21, 23 }, new int[] { 1, 2, 4 },
+				new int[] { 10, 11, 12 }, new ClonePairLocation("/a/A.java",
+						new int[] { 1, 2, 4, 4 }, "/a/B.java", new int[] {
+								7, 9 }));
+		final PartialResult result = new PartialResult("s=3", 1, 3,
+				Arrays.asList(record));
+
+		final File file = new File(this.folder.getRoot(), "shard1");
+		result.save(file);
+		assertEquals(1, this.folder.getRoot().list().length);
+
+		final PartialResult loaded = PartialResult.load(file);
+		assertEquals("s=3", loaded.settings);
+		assertEquals(1, loaded.shard);
+		assertEquals(3, loaded.numberOfShards);
+		final Iterator<ClonePairRecord> records = loaded.getRecords()
+				.iterator();
+		final ClonePairRecord loadedRecord = records.next();
+		assertFalse(records.hasNext());
+		assertEquals(0, record.compareTo(loadedRecord));
+		assertEquals(3, loadedRecord.size());
+		assertArrayEquals(new int[] { 1, 2, 4 }, loadedRecord.getLeftNodeIDs());
+		assertArrayEquals(new int[] { 10, 11, 12 },
+				loadedRecord.getRightNodeIDs());
+		final ClonePairLocation location = loadedRecord.getLocation();
+		assertEquals("/a/A.java", location.pathA);
+		assertArrayEquals(new int[] { 1, 2, 4, 4 }, location.getLeftRanges());
+		assertEquals("/a/B.java", location.pathB);
+		assertArrayEquals(new int[] { 7, 9 }, location.getRightRanges());
+	}
+
+	@Test
+	public void testStreamedRecords() throws Exception {
+
+		final List<ClonePairRecord> records = new ArrayList<ClonePairRecord>();
+		for (int index = 0; index < 10000; index++) {
+			records.add(new ClonePairRecord(new int[] { index },
+					new int[] { index + 1 }, new int[] { 0 }, new int[] { 1 },
+					new ClonePairLocation("/a/A.java", new int[] { index,
+							index }, "/a/B.java", new int[] { index + 1,
+							index + 1 })));
+		}
+		final File file = new File(this.folder.getRoot(), "shard0");
+		new PartialResult("s=1", 0, 1, records).save(file);
+
+		final PartialResult loaded = PartialResult.load(file);
+		for (int pass = 0; pass < 2; pass++) {
+			int index = 0;
+			for (final ClonePairRecord record : loaded.getRecords()) {
+				assertEquals(0, records.get(index++).compareTo(record));
+			}
+			assertEquals(records.size(), index);
+		}
+	}
+}
@@ -0,0 +1,139 @@
+package example.tinypdg.scorpio.io;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import example.tinypdg.TestSources;
+import example.tinypdg.scorpio.data.ClonePairLocation;
+
+public class ScorpioCacheTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testSaveAndLoad() throws Exception {
+
+		final ScorpioCache cache = new ScorpioCache("s=3");
+		cache.putFile("/a/A.java", "aaaa", 40,
+				Arrays.asList(new long[] { 1, -2 }, new long[0]));
+		cache.putFile("/a/B.java", "bbbb", 0, Arrays.asList(new long[] { 3 }));
+		cache.addLocation(new ClonePairLocation("/a/A.java", new int[] { 1,
+				2, 4, 4 }, "/a/B.java", new int[] { 7, 9 }));
+
+		final File file = new File(this.folder.getRoot(), "scorpio.cache");
+		cache.save(file);
+		cache.save(file);
+		assertEquals(1, this.folder.getRoot().list().length);
+
+		final ScorpioCache loaded = ScorpioCache.load(file, "s=3");
+		assertEquals("s=3", loaded.settings);
+		assertTrue(loaded.contains("/a/A.java", "aaaa"));
+		assertFalse(loaded.contains("/a/A.java", "bbbb"));
+		assertFalse(loaded.contains("/a/C.java", "aaaa"));
+		assertEquals(40, loaded.getNumberOfIDs("/a/A.java"));
+		assertEquals(0, loaded.getNumberOfIDs("/a/B.java"));
+		assertEquals(0, loaded.getNumberOfIDs("/a/C.java"));
+		final List<long[]> hashes = loaded.getEdgeHashes("/a/A.java");
+		assertEquals(2, hashes.size());
+		assertArrayEquals(new long[] { 1, -2 }, hashes.get(0));
+		assertArrayEquals(new long[0], hashes.get(1));
+		assertTrue(loaded.getEdgeHashes("/a/C.java").isEmpty());
+
+		assertEquals(1, loaded.getLocations().size());
+		final ClonePairLocation location = loaded.getLocations().get(0);
+		assertEquals("/a/A.java", location.pathA);
+		assertArrayEquals(new int[] { 1, 2, 4, 4 }, location.getLeftRanges());
+		assertEquals("/a/B.java", location.pathB);
+		assertArrayEquals(new int[] { 7, 9 }, location.getRightRanges());
+	}
+
+	@Test
+	public void testInvalidation() throws Exception {
+
+		final ScorpioCache cache = new ScorpioCache("s=3");
+		cache.putFile("/a/A.java", "aaaa", 1, Arrays.asList(new long[] { 1 }));
+		final File file = new File(this.folder.getRoot(), "scorpio.cache");
+		cache.save(file);
+
+		// other settings, a missing file and a broken file give empty caches
+		final ScorpioCache other = ScorpioCache.load(file, "s=4");
+		assertEquals("s=4", other.settings);
+		assertFalse(other.contains("/a/A.java", "aaaa"));
+		assertFalse(ScorpioCache.load(
+				new File(this.folder.getRoot(), "missing"), "s=3").contains(
+				"/a/A.java", "aaaa"));
+		final byte[] bytes = Files.readAllBytes(file.toPath());
+		Files.write(file.toPath(), Arrays.copyOf(bytes, bytes.length - 4));
+		assertFalse(ScorpioCache.load(file, "s=3").contains("/a/A.java",
+				"aaaa"));
+	}
+
+	@Test
+	public void testInvalidCounts() throws Exception {
+
+		// a negative number of IDs, and a negative and a huge count of PDGs,
+		// hashes and ranges
+		final File file = new File(this.folder.getRoot(), "scorpio.cache");
+		for (final int[] counts : new int[][] { { -1, 0, 0, 2 },
+				{ 0, -1, 0, 2 }, { 0, Integer.MAX_VALUE, 0, 2 },
+				{ 0, 1, -1, 2 }, { 0, 1, Integer.MAX_VALUE, 2 },
+				{ 0, 0, 0, -2 }, { 0, 0, 0, 3 }, { 0, 0, 0, Integer.MAX_VALUE } }) {
+			final DataOutputStream stream = new DataOutputStream(
+					new FileOutputStream(file));
+			try {
+				stream.writeUTF("tinypdg-scorpio-cache");
+				stream.writeInt(3);
+				stream.writeUTF("s=3");
+				stream.writeInt(1);
+				stream.writeUTF("/a/A.java");
+				stream.writeUTF("aaaa");
+				stream.writeInt(counts[0]);
+				stream.writeInt(counts[1]);
+				if (1 == counts[1]) {
+					stream.writeInt(counts[2]);
+				}
+				stream.writeInt(1);
+				stream.writeUTF("/a/A.java");
+				stream.writeInt(counts[3]);
+				stream.writeInt(1);
+				stream.writeInt(2);
+				stream.writeUTF("/a/A.java");
+				stream.writeInt(2);
+				stream.writeInt(3);
+				stream.writeInt(4);
+			} finally {
+				stream.close();
+			}
+			final ScorpioCache loaded = ScorpioCache.load(file, "s=3");
+			assertFalse(loaded.contains("/a/A.java", "aaaa"));
+			assertTrue(loaded.getLocations().isEmpty());
+		}
+	}
+
+	@Test
+	public void testDigest() throws Exception {
+		final File file1 = TestSources.write(this.folder.getRoot(),
+				"A.java", "class A {}");
+		final File file2 = TestSources.write(this.folder.getRoot(),
+				"B.java", "class A {}");
+		final File file3 = TestSources.write(this.folder.getRoot(),
+				"C.java", "class A { }");
+		assertEquals(ScorpioCache.digest(file1), ScorpioCache.digest(file2));
+		assertFalse(ScorpioCache.digest(file1).equals(
+				ScorpioCache.digest(file3)));
+	}
+}
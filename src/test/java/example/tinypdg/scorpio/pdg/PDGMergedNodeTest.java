@@ -0,0 +1,80 @@
+package example.tinypdg.scorpio.pdg;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import example.tinypdg.TestSources;
+import example.tinypdg.pdg.PDG;
+import example.tinypdg.pdg.edge.PDGEdge;
+import example.tinypdg.pdg.node.PDGNode;
+
+public class PDGMergedNodeTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testMaintainedSets() throws Exception {
+
+		final String source = "public class Merged {\n"
+				+ "\tint method(int a, int b) {\n"
+				+ "\t\ta++;\n\t\ta++;\n\t\ta++;\n"
+				+ "\t\tb = a;\n\t\tb = a;\n"
+				+ "\t\twhile (a < b) {\n\t\t\ta++;\n\t\t\ta++;\n\t\t}\n"
+				+ "\t\tif (a < b) {\n\t\t\tb--;\n\t\t\tb--;\n\t\t}\n"
+				+ "\t\tfor (;;) {\n\t\t\ta++;\n\t\t}\n" + "\t}\n" + "}\n";
+		final File file = TestSources.write(this.folder.getRoot(),
+				"Merged.java", source);
+		final PDG pdg = TestSources.build(TestSources.parse(file)).get(0);
+
+		final int numberOfNodes = pdg.getAllNodes().size();
+		PDGMergedNode.mergeNodes(pdg);
+		assertTrue(pdg.getAllNodes().size() < numberOfNodes);
+
+		final SortedSet<PDGNode<?>> nodes = new TreeSet<PDGNode<?>>();
+		final Deque<PDGNode<?>> stack = new ArrayDeque<PDGNode<?>>();
+		stack.push(pdg.enterNode);
+		while (!stack.isEmpty()) {
+			final PDGNode<?> node = stack.pop();
+			if (nodes.add(node)) {
+				for (final PDGEdge edge : node.getForwardEdges()) {
+					stack.push(edge.toNode);
+				}
+				for (final PDGEdge edge : node.getBackwardEdges()) {
+					stack.push(edge.fromNode);
+				}
+			}
+		}
+		final SortedSet<PDGEdge> edges = new TreeSet<PDGEdge>();
+		for (final PDGNode<?> node : nodes) {
+			edges.addAll(node.getForwardEdges());
+			edges.addAll(node.getBackwardEdges());
+		}
+
+		assertSameElements(new ArrayList<Object>(nodes),
+				new ArrayList<Object>(pdg.getAllNodes()));
+		assertSameElements(new ArrayList<Object>(edges),
+				new ArrayList<Object>(pdg.getAllEdges()));
+	}
+
+	private static void assertSameElements(final List<Object> expected,
+			final List<Object> actual) {
+		assertEquals(expected.size(), actual.size());
+		for (int index = 0; index < expected.size(); index++) {
+			assertSame(expected.get(index), actual.get(index));
+		}
+	}
+}